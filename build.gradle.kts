@@ -126,6 +126,18 @@ jmh {
     timeUnit = "s"
 }
 
+tasks.register<JavaExec>("profileDecisions") {
+    group = "benchmark"
+    description = "Runs ANTLR decision profiling of BSL and SDBL parsers over a corpus"
+    classpath = sourceSets.jmh.get().runtimeClasspath
+    mainClass.set("com.github._1c_syntax.bsl.parser.DecisionProfilerRunner")
+    val sources = project.findProperty("profileSources")?.toString()
+        ?: "src/jmh/resources,src/test/resources/sdbl"
+    args = sources.split(",")
+    systemProperty("profile.output", layout.buildDirectory.file("reports/decision-profile.txt").get().asFile)
+    project.findProperty("profileLimit")?.let { systemProperty("profile.limit", it) }
+}
+
 tasks.generateGrammarSource {
     arguments = listOf(
         "-visitor",
@@ -0,0 +1,82 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Запуск {@link DecisionProfiler} на наборе файлов.
+ * <p>
+ * Аргументы - файлы или каталоги; файлы *.bsl и *.os разбираются парсером BSL, файлы *.sdbl - парсером
+ * запросов. Отчет выводится в stdout и, если задано системное свойство {@code profile.output},
+ * записывается в указанный файл. Количество строк в таблицах задается свойством {@code profile.limit}.
+ */
+public final class DecisionProfilerRunner {
+
+  private DecisionProfilerRunner() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    var profiler = new DecisionProfiler();
+    for (var file : files(args)) {
+      var name = file.getFileName().toString().toLowerCase();
+      var content = Files.readString(file, StandardCharsets.UTF_8);
+      if (name.endsWith(".sdbl")) {
+        profiler.profileSdbl(content);
+      } else {
+        profiler.profileBsl(content);
+      }
+    }
+
+    var report = profiler.report(Integer.getInteger("profile.limit", 50));
+    System.out.print(report);
+
+    var output = System.getProperty("profile.output");
+    if (output != null) {
+      var path = Path.of(output);
+      Files.createDirectories(path.toAbsolutePath().getParent());
+      Files.writeString(path, report, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static List<Path> files(String[] args) throws IOException {
+    var result = new ArrayList<Path>();
+    for (var arg : args) {
+      try (Stream<Path> paths = Files.walk(Path.of(arg))) {
+        paths.filter(Files::isRegularFile)
+          .filter(path -> {
+            var name = path.getFileName().toString().toLowerCase();
+            return name.endsWith(".bsl") || name.endsWith(".os") || name.endsWith(".sdbl");
+          })
+          .sorted()
+          .forEach(result::add);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение лексического анализа русскоязычного модуля стандартным симулятором ATN лексера
+ * и симулятором с кэшированием переходов по кириллице.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class JMXCyrillicLexerTest {
+
+  @Param({"default", "cyrillic"})
+  public String simulator;
+
+  private String content;
+  private DFA[] decisionToDFA;
+  private PredictionContextCache sharedContextCache;
+
+  public JMXCyrillicLexerTest() {
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    try (InputStream inputStream = classLoader.getResourceAsStream("Module.bsl")) {
+      assert inputStream != null;
+      content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // собственные DFA для каждого варианта, чтобы варианты не наполняли кэш друг для друга
+    decisionToDFA = Grammar.BSL_LEXER.newDecisionToDFA();
+    sharedContextCache = new PredictionContextCache();
+  }
+
+  @Benchmark
+  public int lexerTest() {
+    var lexer = new BSLLexer(CharStreams.fromString(content));
+    if ("cyrillic".equals(simulator)) {
+      lexer.setInterpreter(new CyrillicLexerATNSimulator(lexer, BSLLexer._ATN, decisionToDFA, sharedContextCache));
+    } else {
+      lexer.setInterpreter(new LexerATNSimulator(lexer, BSLLexer._ATN, decisionToDFA, sharedContextCache));
+    }
+    return count(lexer);
+  }
+
+  private static int count(Lexer lexer) {
+    var count = 0;
+    while (lexer.nextToken().getType() != Token.EOF) {
+      count++;
+    }
+    return count;
+  }
+}
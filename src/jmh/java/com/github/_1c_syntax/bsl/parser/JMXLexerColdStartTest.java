@@ -0,0 +1,87 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNDeserializer;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Холодный старт лексера BSL: десериализация ATN и лексический анализ модуля с пустыми DFA.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@State(Scope.Thread)
+public class JMXLexerColdStartTest {
+
+  private String content;
+
+  public JMXLexerColdStartTest() {
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    try (InputStream inputStream = classLoader.getResourceAsStream("Module.bsl")) {
+      assert inputStream != null;
+      content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Benchmark
+  public ATN deserializeATN() {
+    return new ATNDeserializer().deserialize(BSLLexer._serializedATN.toCharArray());
+  }
+
+  @Benchmark
+  public int coldLexing() {
+    var atn = new ATNDeserializer().deserialize(BSLLexer._serializedATN.toCharArray());
+    var decisionToDFA = new DFA[atn.getNumberOfDecisions()];
+    for (var i = 0; i < decisionToDFA.length; i++) {
+      decisionToDFA[i] = new DFA(atn.getDecisionState(i), i);
+    }
+    var lexer = new BSLLexer(CharStreams.fromString(content));
+    lexer.setInterpreter(new CyrillicLexerATNSimulator(lexer, atn, decisionToDFA, new PredictionContextCache()));
+    var count = 0;
+    while (lexer.nextToken().getType() != Token.EOF) {
+      count++;
+    }
+    return count;
+  }
+}
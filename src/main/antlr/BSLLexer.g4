@@ -79,6 +79,41 @@ options { caseInsensitive=true; }
       return false;
     }
   }
+
+  /**
+   * Признак разбора асинхронного метода: устанавливается ключевым словом {@code Асинх}
+   * и сбрасывается окончанием процедуры или функции. Внутри асинхронного метода {@code Ждать}
+   * распознается как ключевое слово, а повторное {@code Асинх} - как идентификатор.
+   */
+  private boolean asyncMethod;
+
+  boolean isAsyncMethod() {
+    return asyncMethod;
+  }
+
+  void setAsyncMethod(boolean asyncMethod) {
+    this.asyncMethod = asyncMethod;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    asyncMethod = false;
+  }
+
+  private boolean isAwaitKeyword() {
+    var text = getText();
+    return "ЖДАТЬ".equalsIgnoreCase(text) || "AWAIT".equalsIgnoreCase(text);
+  }
+
+  @Override
+  public Token nextToken() {
+    Token trivia = LexerFastPath.nextBslTrivia(this);
+    if (trivia != null) {
+      return trivia;
+    }
+    return super.nextToken();
+  }
 }
 
 // commons
@@ -149,8 +184,8 @@ STRINGPART: BAR (~[\r\n"] | '""')*;
 // keywords
 PROCEDURE_KEYWORD: 'ПРОЦЕДУРА' | 'PROCEDURE';
 FUNCTION_KEYWORD: 'ФУНКЦИЯ' | 'FUNCTION';
-ENDPROCEDURE_KEYWORD: 'КОНЕЦПРОЦЕДУРЫ' | 'ENDPROCEDURE';
-ENDFUNCTION_KEYWORD: 'КОНЕЦФУНКЦИИ' | 'ENDFUNCTION';
+ENDPROCEDURE_KEYWORD: ('КОНЕЦПРОЦЕДУРЫ' | 'ENDPROCEDURE') { asyncMethod = false; };
+ENDFUNCTION_KEYWORD: ('КОНЕЦФУНКЦИИ' | 'ENDFUNCTION') { asyncMethod = false; };
 EXPORT_KEYWORD: 'ЭКСПОРТ' | 'EXPORT';
 VAL_KEYWORD: 'ЗНАЧ' | 'VAL';
 ENDIF_KEYWORD: 'КОНЕЦЕСЛИ' | 'ENDIF';
@@ -181,12 +216,29 @@ BREAK_KEYWORD: 'ПРЕРВАТЬ' | 'BREAK';
 EXECUTE_KEYWORD: 'ВЫПОЛНИТЬ' | 'EXECUTE';
 ADDHANDLER_KEYWORD: 'ДОБАВИТЬОБРАБОТЧИК' | 'ADDHANDLER';
 REMOVEHANDLER_KEYWORD: 'УДАЛИТЬОБРАБОТЧИК' | 'REMOVEHANDLER';
-ASYNC_KEYWORD: ('АСИНХ' | 'ASYNC') -> pushMode(ASYNC_MODE);
+ASYNC_KEYWORD: ('АСИНХ' | 'ASYNC') {
+  if (asyncMethod) {
+    setType(IDENTIFIER);
+  } else {
+    asyncMethod = true;
+  }
+};
 
 fragment LETTER: [\p{Letter}] | '_';
-IDENTIFIER : LETTER (LETTER | DIGIT)*;
+// в теле асинхронного метода Ждать/Await - ключевое слово
+IDENTIFIER : LETTER (LETTER | DIGIT)* {
+  if (asyncMethod && isAwaitKeyword()) {
+    setType(AWAIT_KEYWORD);
+  }
+};
 
-UNKNOWN: . -> channel(HIDDEN);
+// нераспознанные символы подряд, кроме начинающих другие токены, объединяются в один токен;
+// в теле асинхронного метода они остаются в основном канале
+UNKNOWN: (~[\p{Letter}0-9_ \t\f\r\n.[\]():;,=+\-<>*/%?&#|~'"]+ | .) {
+  if (!asyncMethod) {
+    setChannel(HIDDEN);
+  }
+};
 
 mode PREPROCESSOR_MODE;
 
@@ -247,7 +299,7 @@ ANNOTATION_AROUND_SYMBOL: ('ВМЕСТО' | 'AROUND') -> popMode;
 ANNOTATION_CHANGEANDVALIDATE_SYMBOL: ('ИЗМЕНЕНИЕИКОНТРОЛЬ' | 'CHANGEANDVALIDATE') -> popMode;
 ANNOTATION_CUSTOM_SYMBOL: IDENTIFIER -> popMode;
 ANNOTATION_WHITE_SPACE: WHITE_SPACE -> channel(HIDDEN), type(WHITE_SPACE);
-ANNOTATION_UNKNOWN: UNKNOWN -> channel(HIDDEN);
+ANNOTATION_UNKNOWN: . -> channel(HIDDEN);
 
 mode LABEL_MODE;
 LABEL_IDENTIFIER : IDENTIFIER -> type(IDENTIFIER), popMode;
@@ -274,103 +326,11 @@ PREPROC_ENDDELETE
 PREPROC_DELETE_WHITE_SPACE: PREPROC_WHITE_SPACE -> channel(HIDDEN), type(WHITE_SPACE);
 PREPROC_DELETE_LINE_COMMENT: LINE_COMMENT -> channel(HIDDEN), type(LINE_COMMENT);
 PREPROC_DELETE_NEWLINE: PREPROC_NEWLINE -> channel(HIDDEN), type(PREPROC_NEWLINE);
-PREPROC_DELETE_ANY: . -> channel(PREPROC_DELETE_CHANNEL);
+// символы удаленного блока подряд, кроме пробельных и начинающих другие токены режима, объединяются в один токен
+PREPROC_DELETE_ANY: (~[#/ \t\f\r\n]+ | .) -> channel(PREPROC_DELETE_CHANNEL);
 
+// Режим не используется. Его правила объявлены последними, чтобы номера типов токенов и режимов
+// совпадали с версиями, в которых асинхронные методы разбирались в отдельном режиме.
 mode ASYNC_MODE;
-Async_LINE_COMMENT: LINE_COMMENT -> type(LINE_COMMENT), channel(HIDDEN);
-Async_WHITE_SPACE: WHITE_SPACE -> type(WHITE_SPACE), channel(HIDDEN);
-
-// separators
-Async_DOT: DOT {
-  if (isTrailingDot()) {
-    setType(DOT_TRAILING);
-  } else {
-    setType(DOT);
-    if (shouldEnterDotMode()) pushMode(DOT_MODE);
-  }
-};
-Async_LBRACK: LBRACK -> type(LBRACK);
-Async_RBRACK: RBRACK -> type(RBRACK);
-Async_LPAREN: LPAREN -> type(LPAREN);
-Async_RPAREN: RPAREN -> type(RPAREN);
-Async_COLON: COLON -> type(COLON);
-Async_SEMICOLON: SEMICOLON -> type(SEMICOLON);
-Async_COMMA: COMMA -> type(COMMA);
-Async_ASSIGN: ASSIGN -> type(ASSIGN);
-Async_PLUS: PLUS -> type(PLUS);
-Async_MINUS: MINUS -> type(MINUS);
-Async_LESS_OR_EQUAL: LESS_OR_EQUAL -> type(LESS_OR_EQUAL);
-Async_NOT_EQUAL: NOT_EQUAL -> type(NOT_EQUAL);
-Async_LESS: LESS -> type(LESS);
-Async_GREATER_OR_EQUAL: GREATER_OR_EQUAL -> type(GREATER_OR_EQUAL);
-Async_GREATER: GREATER -> type(GREATER);
-Async_MUL: MUL -> type(MUL);
-Async_QUOTIENT: QUOTIENT -> type(QUOTIENT);
-Async_MODULO: MODULO -> type(MODULO);
-Async_QUESTION: QUESTION -> type(QUESTION);
-Async_AMPERSAND: AMPERSAND -> type(AMPERSAND), pushMode(ANNOTATION_MODE);
-Async_PREPROC_DELETE: PREPROC_DELETE ->
-    type(PREPROC_DELETE),
-    pushMode(PREPROC_DELETE_MODE),
-    channel(PREPROC_DELETE_CHANNEL);
-Async_PREPROC_INSERT: PREPROC_INSERT -> type(PREPROC_INSERT), channel(HIDDEN);
-Async_PREPROC_ENDINSERT: PREPROC_ENDINSERT -> type(PREPROC_ENDINSERT), channel(HIDDEN);
-
-Async_HASH: HASH -> type(HASH), pushMode(PREPROCESSOR_MODE);
-Async_BAR: BAR -> type(BAR);
-Async_TILDA: TILDA -> type(TILDA), pushMode(LABEL_MODE);
-
-// literals
-Async_TRUE: TRUE -> type(TRUE);
-Async_FALSE: FALSE -> type(FALSE);
-Async_UNDEFINED: UNDEFINED -> type(UNDEFINED);
-Async_NULL: NULL -> type(NULL);
-Async_DECIMAL: DECIMAL -> type(DECIMAL);
-Async_DATETIME: DATETIME -> type(DATETIME);
-Async_FLOAT: FLOAT -> type(FLOAT);
-Async_STRING: STRING -> type(STRING);
-Async_STRINGSTART: STRINGSTART -> type(STRINGSTART);
-Async_STRINGTAIL: STRINGTAIL -> type(STRINGTAIL);
-Async_STRINGPART: STRINGPART -> type(STRINGPART);
-
-// keywords
-Async_PROCEDURE_KEYWORD: PROCEDURE_KEYWORD -> type(PROCEDURE_KEYWORD);
-Async_FUNCTION_KEYWORD: FUNCTION_KEYWORD -> type(FUNCTION_KEYWORD);
-Async_ENDPROCEDURE_KEYWORD: ENDPROCEDURE_KEYWORD -> type(ENDPROCEDURE_KEYWORD), popMode;
-Async_ENDFUNCTION_KEYWORD: ENDFUNCTION_KEYWORD -> type(ENDFUNCTION_KEYWORD), popMode;
-Async_EXPORT_KEYWORD: EXPORT_KEYWORD -> type(EXPORT_KEYWORD);
-Async_VAL_KEYWORD: VAL_KEYWORD -> type(VAL_KEYWORD);
-Async_ENDIF_KEYWORD: ENDIF_KEYWORD -> type(ENDIF_KEYWORD);
-Async_ENDDO_KEYWORD: ENDDO_KEYWORD -> type(ENDDO_KEYWORD);
-Async_IF_KEYWORD: IF_KEYWORD -> type(IF_KEYWORD);
-Async_ELSIF_KEYWORD: ELSIF_KEYWORD -> type(ELSIF_KEYWORD);
-Async_ELSE_KEYWORD: ELSE_KEYWORD -> type(ELSE_KEYWORD);
-Async_THEN_KEYWORD: THEN_KEYWORD -> type(THEN_KEYWORD);
-Async_WHILE_KEYWORD: WHILE_KEYWORD -> type(WHILE_KEYWORD);
-Async_DO_KEYWORD: DO_KEYWORD -> type(DO_KEYWORD);
-Async_FOR_KEYWORD: FOR_KEYWORD -> type(FOR_KEYWORD);
-Async_TO_KEYWORD: TO_KEYWORD -> type(TO_KEYWORD);
-Async_EACH_KEYWORD: EACH_KEYWORD -> type(EACH_KEYWORD);
-Async_IN_KEYWORD: IN_KEYWORD -> type(IN_KEYWORD);
-Async_TRY_KEYWORD: TRY_KEYWORD -> type(TRY_KEYWORD);
-Async_EXCEPT_KEYWORD: EXCEPT_KEYWORD -> type(EXCEPT_KEYWORD);
-Async_ENDTRY_KEYWORD: ENDTRY_KEYWORD -> type(ENDTRY_KEYWORD);
-Async_RETURN_KEYWORD: RETURN_KEYWORD -> type(RETURN_KEYWORD);
-Async_CONTINUE_KEYWORD: CONTINUE_KEYWORD -> type(CONTINUE_KEYWORD);
-Async_RAISE_KEYWORD: RAISE_KEYWORD -> type(RAISE_KEYWORD);
-Async_VAR_KEYWORD: VAR_KEYWORD -> type(VAR_KEYWORD);
-Async_NOT_KEYWORD: NOT_KEYWORD -> type(NOT_KEYWORD);
-Async_OR_KEYWORD: OR_KEYWORD -> type(OR_KEYWORD);
-Async_AND_KEYWORD: AND_KEYWORD -> type(AND_KEYWORD);
-Async_NEW_KEYWORD: NEW_KEYWORD -> type(NEW_KEYWORD);
-Async_GOTO_KEYWORD: GOTO_KEYWORD -> type(GOTO_KEYWORD);
-Async_BREAK_KEYWORD: BREAK_KEYWORD -> type(BREAK_KEYWORD);
-Async_EXECUTE_KEYWORD: EXECUTE_KEYWORD -> type(EXECUTE_KEYWORD);
-Async_ADDHANDLER_KEYWORD: ADDHANDLER_KEYWORD -> type(ADDHANDLER_KEYWORD);
-Async_REMOVEHANDLER_KEYWORD: REMOVEHANDLER_KEYWORD -> type(REMOVEHANDLER_KEYWORD);
-
+Async_DOT: DOT;
 AWAIT_KEYWORD: 'ЖДАТЬ' | 'AWAIT';
-
-// всегда в конце мода
-Async_IDENTIFIER: IDENTIFIER -> type(IDENTIFIER);
-Async_UNKNOWN: UNKNOWN -> type(UNKNOWN);
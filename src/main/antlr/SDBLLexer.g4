@@ -26,6 +26,17 @@ lexer grammar SDBLLexer;
 
 options { caseInsensitive=true; }
 
+@lexer::members {
+  @Override
+  public Token nextToken() {
+    Token trivia = LexerFastPath.nextSdblTrivia(this);
+    if (trivia != null) {
+      return trivia;
+    }
+    return super.nextToken();
+  }
+}
+
 // COMMONS
 WHITE_SPACE: [ \t\f\r\n]+ -> channel(HIDDEN);
 LINE_COMMENT: LINE_COMMENT_BODY [\f\r\n]?-> channel(HIDDEN);
@@ -0,0 +1,365 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Инкрементальный разбор модулей BSL для редакторов.
+ * <p>
+ * После правки текста внутри процедуры или функции заново лексируется и разбирается только этот метод:
+ * новое дерево состоит из новых узлов модуля и списка методов, нового поддерева метода и поддеревьев
+ * остальных методов, общих с прежним деревом, а позиции токенов после правки сдвигаются. Лексируется только
+ * окно текста от начала метода до его конца, текст после правки целиком не собирается. Токены хранятся
+ * в {@link RelocatableTokenList}, поэтому сдвиг токенов после метода не зависит от их количества. Если правка
+ * затрагивает код вне методов или границы методов, измененный метод или код непосредственно перед ним
+ * содержит синтаксические ошибки, выполняется полный разбор.
+ * <p>
+ * При отложенном разборе тел методов ({@link TokenizerOptions#isLazySubCodeBlocks()}) повторный разбор
+ * затрагивает только тела измененного и предыдущего методов, остальные тела разбираются при первом
+ * обращении по сдвинутым токенам.
+ * <p>
+ * Прежний и новый результаты разделяют список токенов и поддеревья неизмененных методов, поэтому повторный
+ * разбор изменяет и прежний результат (см. {@link #reparse(ParseResult, String, TextEdit)}).
+ * <p>
+ * Экземпляр потокобезопасен, но повторный разбор одного и того же результата должен выполняться
+ * последовательно.
+ */
+public final class BSLIncrementalParser {
+
+  private final TokenizerOptions options;
+  private final IncrementalLexer lexer;
+
+  /**
+   * Создает парсер с настройками по умолчанию.
+   */
+  public BSLIncrementalParser() {
+    this(TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Создает парсер.
+   *
+   * @param options Настройки разбора
+   */
+  public BSLIncrementalParser(TokenizerOptions options) {
+    this.options = options;
+    this.lexer = IncrementalLexer.bsl(options);
+  }
+
+  /**
+   * Полностью разбирает текст модуля.
+   *
+   * @param content Текст модуля
+   * @return Токены и дерево разбора
+   */
+  public ParseResult<BSLParser.FileContext> parse(String content) {
+    var tokens = lexer.lex(content).getTokens();
+    var parser = new BSLParser(new PrefilledTokenStream(tokens));
+    parser.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    var ast = ParserSupport.parse(parser, LazySubCodeBlocks.rootRule(options), options);
+    return new ParseResult<>(tokens, ast);
+  }
+
+  /**
+   * Разбирает текст модуля после правки, переиспользуя результат разбора исходного текста.
+   * <p>
+   * Прежний результат изменяется: его список токенов тот же, что у нового результата, и после разбора
+   * содержит токены текста после правки, позиции общих токенов соответствуют новому тексту, а родителем
+   * поддеревьев неизмененных методов становится новое дерево. Структура прежнего дерева не меняется.
+   * Читать прежний результат во время повторного разбора, в том числе из других потоков, нельзя;
+   * после разбора следует использовать только новый результат.
+   *
+   * @param previous        Результат разбора исходного текста
+   * @param previousContent Исходный текст
+   * @param edit            Правка исходного текста
+   * @return Токены и дерево разбора текста после правки
+   */
+  public ParseResult<BSLParser.FileContext> reparse(ParseResult<BSLParser.FileContext> previous,
+                                                    String previousContent,
+                                                    TextEdit edit) {
+    edit.checkRange(previousContent);
+    var result = reparseSub(previous, previousContent, edit);
+    return result == null ? parse(edit.apply(previousContent)) : result;
+  }
+
+  private @Nullable ParseResult<BSLParser.FileContext> reparseSub(ParseResult<BSLParser.FileContext> previous,
+                                                                  String previousContent,
+                                                                  TextEdit edit) {
+    var ast = previous.ast();
+    var subs = ast.subs();
+    if (!(previous.tokens() instanceof RelocatableTokenList tokens) || subs == null || subs.children == null) {
+      return null;
+    }
+
+    var subIndex = findSub(subs, edit.start(), edit.end());
+    if (subIndex < 0 || !isValidBefore(ast, subs, subIndex)) {
+      return null;
+    }
+
+    var oldSub = (BSLParser.SubContext) subs.children.get(subIndex);
+    var firstIndex = oldSub.start.getTokenIndex();
+    var lastIndex = oldSub.stop.getTokenIndex();
+    if (tokens.get(firstIndex) != oldSub.start || tokens.get(lastIndex) != oldSub.stop) {
+      return null;
+    }
+
+    var delta = edit.text().codePointCount(0, edit.text().length())
+      - previousContent.codePointCount(edit.start(), edit.end());
+    var start = tokens.token(firstIndex);
+    var eof = tokens.token(tokens.size() - 1);
+    var input = new EditedCharStream(previousContent, edit, start.getStartIndex(), start.getOffset(),
+      eof.getStartIndex() + delta);
+    var subTokens = lexSub(input, start, oldSub.stop.getStopIndex() + delta);
+    var stop = tokens.token(lastIndex);
+    if (subTokens == null || !isSameToken(subTokens.getFirst(), start) || !isSameToken(subTokens.getLast(), stop)) {
+      return null;
+    }
+    var newSub = parseSub(subTokens);
+    if (newSub == null) {
+      return null;
+    }
+
+    var oldEnd = endOf(oldSub.stop);
+    var newEnd = endOf(newSub.stop);
+    reuseBoundaries(newSub, subTokens, start, stop);
+    // позиция в строке меняется только у токенов, оставшихся на строке конца метода
+    var columnDelta = newEnd[1] - oldEnd[1];
+    for (var i = lastIndex + 1; columnDelta != 0 && i < tokens.size() && tokens.get(i).getLine() == oldEnd[0]; i++) {
+      var token = tokens.token(i);
+      token.setCharPositionInLine(token.getCharPositionInLine() + columnDelta);
+    }
+    for (var i = 0; i < subTokens.size(); i++) {
+      subTokens.get(i).setTokenIndex(firstIndex + i);
+    }
+    tokens.replace(firstIndex, lastIndex + 1, subTokens, delta, newEnd[0] - oldEnd[0],
+      edit.text().length() - (edit.end() - edit.start()));
+
+    newSub.invokingState = oldSub.invokingState;
+    return new ParseResult<>(tokens, replaceSub(ast, subs, subIndex, newSub));
+  }
+
+  /**
+   * Индекс метода, строго внутри которого находится правка, по смещениям в символах {@link String}.
+   */
+  private static int findSub(BSLParser.SubsContext subs, int start, int end) {
+    var children = subs.children;
+    var low = 0;
+    var high = children.size() - 1;
+    while (low <= high) {
+      var middle = (low + high) >>> 1;
+      var sub = (ParserRuleContext) children.get(middle);
+      if (!(sub.start instanceof RelocatableToken first) || !(sub.stop instanceof RelocatableToken last)) {
+        return -1;
+      }
+      if (last.getOffset() + last.getText().length() <= end) {
+        low = middle + 1;
+      } else if (first.getOffset() >= start) {
+        high = middle - 1;
+      } else {
+        // правка строго внутри метода: границы метода и соседние токены не меняются
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Проверяет отсутствие ошибок в методе и перед ним. Восстановление после ошибки заглядывает
+   * в следующие токены, поэтому ошибка в предыдущем методе могла зависеть от начала измененного метода.
+   */
+  private static boolean isValidBefore(BSLParser.FileContext ast, BSLParser.SubsContext subs, int subIndex) {
+    if (hasErrors(subs.children.get(subIndex))) {
+      return false;
+    }
+    if (subIndex > 0) {
+      return !hasErrors(subs.children.get(subIndex - 1));
+    }
+    for (var child : ast.children) {
+      if (child != subs && hasErrors(child)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasErrors(ParseTree root) {
+    var stack = new ArrayDeque<ParseTree>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      var tree = stack.pop();
+      if (tree instanceof ErrorNode) {
+        return true;
+      }
+      if (tree instanceof ParserRuleContext context) {
+        // обращение к потомкам разбирает отложенное тело метода и заполняет признак ошибки
+        var childCount = context.getChildCount();
+        if (context.exception != null) {
+          return true;
+        }
+        for (var i = 0; i < childCount; i++) {
+          stack.push(context.getChild(i));
+        }
+      }
+    }
+    return false;
+  }
+
+  private @Nullable List<RelocatableToken> lexSub(EditedCharStream input, Token start, int stopIndex) {
+    var lexer = this.lexer.newLexer(input);
+    input.seek(start.getStartIndex());
+    lexer.setLine(start.getLine());
+    lexer.setCharPositionInLine(start.getCharPositionInLine());
+
+    var tokens = new ArrayList<RelocatableToken>();
+    while (true) {
+      var token = (RelocatableToken) lexer.nextToken();
+      if (token.getType() == Token.EOF || token.getStopIndex() > stopIndex) {
+        return null;
+      }
+      token.setOffset(input.offset(token.getStartIndex()));
+      token.detach();
+      tokens.add(token);
+      if (token.getStopIndex() == stopIndex) {
+        break;
+      }
+    }
+    // после метода лексер должен вернуться в основной режим, иначе изменится разбор следующих токенов
+    if (lexer._mode != Lexer.DEFAULT_MODE || !lexer._modeStack.isEmpty()
+      || lexer instanceof BSLLexer bslLexer && bslLexer.isAsyncMethod()) {
+      return null;
+    }
+    return tokens;
+  }
+
+  private BSLParser.@Nullable SubContext parseSub(List<? extends Token> tokens) {
+    var tokenStream = new CommonTokenStream(new ListTokenSource(tokens));
+    var parser = new BSLParser(tokenStream);
+    parser.removeErrorListeners();
+    var sub = ParserSupport.parseNested(parser, BSLParser::sub, options, options.getCancellationToken());
+    if (parser.getNumberOfSyntaxErrors() > 0 || tokenStream.LA(1) != Token.EOF) {
+      return null;
+    }
+    return sub;
+  }
+
+  private static int[] endOf(Token token) {
+    var line = token.getLine();
+    var column = token.getCharPositionInLine();
+    var text = token.getText();
+    for (var i = 0; i < text.length(); ) {
+      var codePoint = text.codePointAt(i);
+      if (codePoint == '\n') {
+        line++;
+        column = 0;
+      } else {
+        column++;
+      }
+      i += Character.charCount(codePoint);
+    }
+    return new int[]{line, column};
+  }
+
+  private static boolean isSameToken(Token token, Token other) {
+    return token.getType() == other.getType() && token.getChannel() == other.getChannel()
+      && token.getText().equals(other.getText());
+  }
+
+  /**
+   * Подставляет в новое поддерево метода прежние граничные токены вместо заново прочитанных, перенося
+   * в них позиции новых. На граничные токены ссылаются пустые правила вокруг метода в неизмененной части
+   * дерева, поэтому эти правила остаются верными без обхода дерева.
+   */
+  private static void reuseBoundaries(BSLParser.SubContext newSub, List<RelocatableToken> subTokens,
+                                      RelocatableToken start, RelocatableToken stop) {
+    var newStart = subTokens.getFirst();
+    var newStop = subTokens.getLast();
+    stop.detach();
+    stop.setStartIndex(newStop.getStartIndex());
+    stop.setStopIndex(newStop.getStopIndex());
+    stop.setLine(newStop.getLine());
+    stop.setCharPositionInLine(newStop.getCharPositionInLine());
+    stop.setOffset(newStop.getOffset());
+    stop.setCheckpoint(null);
+    subTokens.set(0, start);
+    subTokens.set(subTokens.size() - 1, stop);
+
+    var stack = new ArrayDeque<ParseTree>();
+    stack.push(newSub);
+    while (!stack.isEmpty()) {
+      var tree = stack.pop();
+      if (tree instanceof TerminalNodeImpl node) {
+        if (node.symbol == newStart) {
+          node.symbol = start;
+        } else if (node.symbol == newStop) {
+          node.symbol = stop;
+        }
+      } else if (tree instanceof ParserRuleContext context) {
+        if (context.start == newStart) {
+          context.start = start;
+        }
+        if (context.stop == newStop) {
+          context.stop = stop;
+        }
+        if (context.children != null) {
+          context.children.forEach(stack::push);
+        }
+      }
+    }
+  }
+
+  /**
+   * Строит новые узлы модуля и списка методов над прежними поддеревьями с новым поддеревом метода.
+   * Структура прежнего дерева не меняется, а родителем разделяемых поддеревьев становится новое дерево.
+   */
+  private static BSLParser.FileContext replaceSub(BSLParser.FileContext ast, BSLParser.SubsContext subs,
+                                                  int subIndex, BSLParser.SubContext newSub) {
+    var newSubs = copyOf(subs, new BSLParser.SubsContext(null, subs.invokingState));
+    newSubs.children.set(subIndex, newSub);
+    var newAst = copyOf(ast, new BSLParser.FileContext(null, ast.invokingState));
+    newAst.children.set(ast.children.indexOf(subs), newSubs);
+    newSubs.children.forEach(child -> child.setParent(newSubs));
+    newAst.children.forEach(child -> child.setParent(newAst));
+    return newAst;
+  }
+
+  private static <T extends ParserRuleContext> T copyOf(ParserRuleContext context, T copy) {
+    copy.start = context.start;
+    copy.stop = context.stop;
+    copy.exception = context.exception;
+    copy.children = new ArrayList<>(context.children);
+    return copy;
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Параллельный разбор набора файлов или текстов.
+ * <p>
+ * Источники разбираются на переданном исполнителе ({@link ForkJoinPool}, пул виртуальных потоков и т.п.),
+ * лексеры и парсеры переиспользуются через {@link TokenizerPool}. Результаты передаются обработчику
+ * в порядке завершения разбора, в вызывающем потоке, поэтому обработчик не обязан быть потокобезопасным.
+ * <p>
+ * Одновременно в работе находится не более {@code maxInFlight} источников: следующий источник
+ * отправляется на разбор только после передачи обработчику одного из готовых результатов.
+ * Это ограничивает объем памяти, занятой текстами и деревьями, независимо от размера пакета.
+ * <p>
+ * Жизненным циклом исполнителя управляет вызывающий код.
+ *
+ * @param <P> Тип парсера
+ * @param <T> Тип корневого узла
+ */
+public final class BatchParser<P extends Parser, T extends ParserRuleContext> {
+
+  private final TokenizerPool<P, T> pool;
+  private final ExecutorService executor;
+  private final int maxInFlight;
+  @Nullable
+  private final Duration sourceTimeout;
+
+  /**
+   * Создает пакетный парсер.
+   *
+   * @param pool        Пул лексеров и парсеров
+   * @param executor    Исполнитель задач разбора
+   * @param maxInFlight Максимальное количество одновременно разбираемых источников
+   */
+  public BatchParser(TokenizerPool<P, T> pool, ExecutorService executor, int maxInFlight) {
+    this(pool, executor, maxInFlight, null);
+  }
+
+  /**
+   * Создает пакетный парсер с ограничением времени разбора каждого источника. Источник, не разобранный
+   * за отведенное время, передается обработчику с ошибкой {@link ParseCancelledException}, разбор
+   * остальных источников продолжается.
+   *
+   * @param pool          Пул лексеров и парсеров
+   * @param executor      Исполнитель задач разбора
+   * @param maxInFlight   Максимальное количество одновременно разбираемых источников
+   * @param sourceTimeout Время, отведенное на разбор одного источника с момента начала его разбора;
+   *                      {@code null} - используется признак отмены из настроек пула
+   */
+  public BatchParser(TokenizerPool<P, T> pool, ExecutorService executor, int maxInFlight,
+                     @Nullable Duration sourceTimeout) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+    }
+    this.pool = pool;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+    this.sourceTimeout = sourceTimeout;
+  }
+
+  /**
+   * Пакетный парсер модулей BSL. Ограничение одновременно разбираемых источников - по четыре на процессор.
+   *
+   * @param executor Исполнитель задач разбора
+   * @param options  Настройки разбора
+   * @return Пакетный парсер
+   */
+  public static BatchParser<BSLParser, BSLParser.FileContext> bsl(ExecutorService executor,
+                                                                  TokenizerOptions options) {
+    return new BatchParser<>(TokenizerPool.bsl(options), executor, defaultMaxInFlight());
+  }
+
+  /**
+   * Пакетный парсер текстов запросов. Ограничение одновременно разбираемых источников - по четыре на процессор.
+   *
+   * @param executor Исполнитель задач разбора
+   * @param options  Настройки разбора
+   * @return Пакетный парсер
+   */
+  public static BatchParser<SDBLParser, SDBLParser.QueryPackageContext> sdbl(ExecutorService executor,
+                                                                             TokenizerOptions options) {
+    return new BatchParser<>(TokenizerPool.sdbl(options), executor, defaultMaxInFlight());
+  }
+
+  /**
+   * Разбирает файлы в кодировке UTF-8 (с BOM или без) или UTF-16 с BOM. Файлы не загружаются в строки:
+   * лексер читает текст прямо из прочитанных в память байтов файла. Файлы не отображаются в память,
+   * поэтому результаты разбора не удерживают файлы открытыми.
+   *
+   * @param paths    Пути к файлам
+   * @param consumer Обработчик результатов
+   * @return Итоги разбора
+   * @throws InterruptedException Если ожидание результатов было прервано
+   */
+  public BatchStatistics parseFiles(Collection<Path> paths, Consumer<BatchResult<T>> consumer)
+    throws InterruptedException {
+    return run(paths, this::parseFile, consumer);
+  }
+
+  /**
+   * Разбирает тексты. Именем источника в результатах служит порядковый номер текста в коллекции.
+   *
+   * @param sources  Тексты для разбора
+   * @param consumer Обработчик результатов
+   * @return Итоги разбора
+   * @throws InterruptedException Если ожидание результатов было прервано
+   */
+  public BatchStatistics parseSources(Collection<String> sources, Consumer<BatchResult<T>> consumer)
+    throws InterruptedException {
+    var index = new int[]{0};
+    return run(sources, (String content) -> {
+      var name = String.valueOf(index[0]++);
+      return () -> parseContent(name, SourceCharStreams.fromString(content, name), utf8Length(content));
+    }, consumer);
+  }
+
+  private <S> BatchStatistics run(Collection<S> sources,
+                                  Function<S, Callable<BatchResult<T>>> taskFactory,
+                                  Consumer<BatchResult<T>> consumer) throws InterruptedException {
+    var start = System.nanoTime();
+    CompletionService<BatchResult<T>> completionService = new ExecutorCompletionService<>(executor);
+    var totals = new Totals();
+    var inFlight = 0;
+
+    for (var source : sources) {
+      if (inFlight == maxInFlight) {
+        deliver(completionService, consumer, totals);
+        inFlight--;
+      }
+      completionService.submit(taskFactory.apply(source));
+      inFlight++;
+    }
+    while (inFlight > 0) {
+      deliver(completionService, consumer, totals);
+      inFlight--;
+    }
+
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    return new BatchStatistics(totals.files, totals.bytes, totals.errors, elapsed);
+  }
+
+  private void deliver(CompletionService<BatchResult<T>> completionService,
+                       Consumer<BatchResult<T>> consumer,
+                       Totals totals) throws InterruptedException {
+    BatchResult<T> result;
+    try {
+      result = completionService.take().get();
+    } catch (ExecutionException e) {
+      // задачи перехватывают все исключения сами, сюда попадают только ошибки виртуальной машины
+      throw new IllegalStateException(e.getCause());
+    }
+    totals.files++;
+    totals.bytes += result.bytes();
+    if (!result.isSuccess()) {
+      totals.errors++;
+    }
+    consumer.accept(result);
+  }
+
+  private Callable<BatchResult<T>> parseFile(Path path) {
+    return () -> {
+      long bytes;
+      CharStream input;
+      try {
+        bytes = Files.size(path);
+        input = SourceCharStreams.fromPath(path);
+      } catch (Exception e) {
+        return new BatchResult<>(path.toString(), 0, null, e);
+      }
+      return parseContent(path.toString(), input, bytes);
+    };
+  }
+
+  private BatchResult<T> parseContent(String name, CharStream input, long bytes) {
+    try {
+      var result = sourceTimeout == null
+        ? pool.parse(input)
+        : pool.parse(input, CancellationToken.withTimeout(sourceTimeout));
+      return new BatchResult<>(name, bytes, result, null);
+    } catch (RuntimeException | StackOverflowError e) {
+      return new BatchResult<>(name, bytes, null, e);
+    }
+  }
+
+  private static int defaultMaxInFlight() {
+    return Runtime.getRuntime().availableProcessors() * 4;
+  }
+
+  private static long utf8Length(String content) {
+    long length = 0;
+    for (var i = 0; i < content.length(); i++) {
+      var c = content.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  private static final class Totals {
+    private long files;
+    private long bytes;
+    private long errors;
+  }
+}
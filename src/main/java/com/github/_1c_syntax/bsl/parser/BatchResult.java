@@ -0,0 +1,49 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Результат разбора одного источника при пакетном разборе.
+ *
+ * @param source Имя источника: путь к файлу или порядковый номер текста
+ * @param bytes  Размер источника в байтах (UTF-8)
+ * @param result Результат разбора; {@code null}, если разбор завершился ошибкой
+ * @param error  Ошибка чтения или разбора; {@code null}, если разбор успешен
+ * @param <T>    Тип корневого узла
+ */
+public record BatchResult<T extends ParserRuleContext>(String source,
+                                                       long bytes,
+                                                       @Nullable ParseResult<T> result,
+                                                       @Nullable Throwable error) {
+
+  /**
+   * Признак успешного разбора.
+   *
+   * @return {@code true}, если разбор выполнен без исключений
+   */
+  public boolean isSuccess() {
+    return error == null;
+  }
+}
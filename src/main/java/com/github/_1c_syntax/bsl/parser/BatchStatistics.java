@@ -0,0 +1,58 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import java.time.Duration;
+
+/**
+ * Итоги пакетного разбора.
+ *
+ * @param files   Количество обработанных источников
+ * @param bytes   Суммарный размер источников в байтах
+ * @param errors  Количество источников, разбор которых завершился исключением
+ * @param elapsed Длительность разбора
+ */
+public record BatchStatistics(long files, long bytes, long errors, Duration elapsed) {
+
+  /**
+   * Пропускная способность в файлах в секунду.
+   *
+   * @return Количество файлов в секунду
+   */
+  public double filesPerSecond() {
+    return perSecond(files);
+  }
+
+  /**
+   * Пропускная способность в байтах в секунду.
+   *
+   * @return Количество байт в секунду
+   */
+  public double bytesPerSecond() {
+    return perSecond(bytes);
+  }
+
+  private double perSecond(long value) {
+    var nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : value * 1_000_000_000.0 / nanos;
+  }
+}
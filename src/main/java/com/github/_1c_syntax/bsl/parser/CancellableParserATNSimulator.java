@@ -0,0 +1,96 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Симулятор ATN парсера, проверяющий признак отмены разбора при предсказании альтернатив.
+ * <p>
+ * Предсказание с длинным просмотром вперед, особенно полным LL, может надолго задержаться внутри одного
+ * решения, не входя в правила и не читая токены парсером. Признак проверяется на каждом шаге симуляции ATN
+ * по очередному токену просмотра; предсказания по готовым состояниям DFA не замедляются.
+ */
+class CancellableParserATNSimulator extends ParserATNSimulator {
+
+  @Nullable
+  private CancellationToken cancellationToken;
+
+  CancellableParserATNSimulator(Parser parser, ATN atn, DFA[] decisionToDFA,
+                                PredictionContextCache sharedContextCache) {
+    super(parser, atn, decisionToDFA, sharedContextCache);
+  }
+
+  /**
+   * Заменяет стандартный симулятор парсера симулятором с проверкой отмены. DFA, кэш контекстов и режим
+   * предсказания парсера сохраняются.
+   *
+   * @param parser Парсер
+   * @return Симулятор парсера или {@code null}, если парсер использует собственный симулятор другого вида,
+   * например, профилирующий
+   */
+  static @Nullable CancellableParserATNSimulator install(Parser parser) {
+    var interpreter = parser.getInterpreter();
+    if (interpreter instanceof CancellableParserATNSimulator cancellable) {
+      return cancellable;
+    }
+    if (interpreter.getClass() != ParserATNSimulator.class) {
+      return null;
+    }
+    var simulator = new CancellableParserATNSimulator(parser, interpreter.atn, interpreter.decisionToDFA,
+      interpreter.getSharedContextCache());
+    simulator.setPredictionMode(interpreter.getPredictionMode());
+    parser.setInterpreter(simulator);
+    return simulator;
+  }
+
+  /**
+   * Признак отмены текущего разбора парсера.
+   *
+   * @param parser Парсер
+   * @return Признак отмены или {@code null}, если разбор не прерывается
+   */
+  static @Nullable CancellationToken cancellationToken(Parser parser) {
+    return parser.getInterpreter() instanceof CancellableParserATNSimulator simulator
+      ? simulator.cancellationToken
+      : null;
+  }
+
+  void setCancellationToken(@Nullable CancellationToken cancellationToken) {
+    this.cancellationToken = cancellationToken;
+  }
+
+  @Override
+  protected ATNConfigSet computeReachSet(ATNConfigSet closure, int t, boolean fullCtx) {
+    var token = cancellationToken;
+    if (token != null) {
+      token.throwIfCancelled();
+    }
+    return super.computeReachSet(closure, t, fullCtx);
+  }
+}
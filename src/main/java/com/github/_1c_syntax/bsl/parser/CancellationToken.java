@@ -0,0 +1,103 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import java.time.Duration;
+
+/**
+ * Признак отмены разбора, проверяемый лексером и парсером.
+ * <p>
+ * Передается в {@link TokenizerOptions#getCancellationToken()}. Разбор прерывается исключением
+ * {@link ParseCancelledException} вскоре после вызова {@link #cancel()} или по истечении времени,
+ * отведенного {@link #withTimeout(Duration)}: признак проверяется при создании токенов лексером, при входе
+ * парсера в правила и чтении токенов, а также на каждом шаге симуляции ATN при предсказании альтернатив.
+ * Для отдельного признака на каждый текст пула используется
+ * {@link TokenizerPool#parse(org.antlr.v4.runtime.CharStream, CancellationToken)}.
+ * <p>
+ * Экземпляр потокобезопасен: отменить разбор можно из любого потока.
+ */
+public final class CancellationToken {
+
+  private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+  private final long deadline;
+  private volatile boolean cancelled;
+
+  private CancellationToken(long deadline) {
+    this.deadline = deadline;
+  }
+
+  /**
+   * Создает признак, срабатывающий только при явной отмене.
+   *
+   * @return Новый признак отмены
+   */
+  public static CancellationToken create() {
+    return new CancellationToken(NO_DEADLINE);
+  }
+
+  /**
+   * Создает признак, срабатывающий при явной отмене или по истечении времени с момента создания.
+   *
+   * @param timeout Время, отведенное на разбор
+   * @return Новый признак отмены
+   */
+  public static CancellationToken withTimeout(Duration timeout) {
+    var nanos = timeout.toNanos();
+    var now = System.nanoTime();
+    return new CancellationToken(nanos >= NO_DEADLINE - now ? NO_DEADLINE : now + nanos);
+  }
+
+  /**
+   * Отменяет разбор.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Признак того, что разбор отменен явно или истекло отведенное время.
+   *
+   * @return {@code true}, если разбор должен быть прерван
+   */
+  public boolean isCancelled() {
+    return cancelled || isDeadlineExceeded();
+  }
+
+  /**
+   * Прерывает разбор, если он отменен.
+   *
+   * @throws ParseCancelledException Разбор отменен или истекло отведенное время
+   */
+  public void throwIfCancelled() {
+    if (cancelled) {
+      throw new ParseCancelledException(false);
+    }
+    if (isDeadlineExceeded()) {
+      throw new ParseCancelledException(true);
+    }
+  }
+
+  private boolean isDeadlineExceeded() {
+    return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+  }
+}
@@ -0,0 +1,482 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+import org.jspecify.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Компактное хранилище токенов на параллельных массивах {@code int[]}.
+ * <p>
+ * Вместо объекта {@link CommonToken} на каждый токен хранилище держит по одному массиву на тип, канал,
+ * начальный и конечный индексы символов, строку и позицию в строке, а текст токенов читает из общего
+ * потока символов. Объекты {@link Token} создаются только по запросу как легковесные представления
+ * элемента хранилища. Парсер читает токены из хранилища напрямую через {@link CompactTokenStream}.
+ * <p>
+ * При заполнении лексер не создает объектов токенов: фабрика токенов записывает их сразу в массивы,
+ * см. {@link #lex(Lexer)}.
+ * В отличие от {@link org.antlr.v4.runtime.Tokenizer#getTokens()}, токен EOF остается в основном канале.
+ */
+public final class CompactTokenStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final CharStream input;
+  private final String sourceName;
+  private final Source source = new Source();
+
+  private int size;
+  private int[] types;
+  private int[] channels;
+  private int[] starts;
+  private int[] stops;
+  private int[] lines;
+  private int[] columns;
+  // текст, явно заданный лексером, встречается редко и хранится отдельно
+  private final Map<Integer, String> texts = new HashMap<>();
+
+  private CompactTokenStore(CharStream input, int capacity) {
+    this.input = input;
+    this.sourceName = input.getSourceName();
+    types = new int[capacity];
+    channels = new int[capacity];
+    starts = new int[capacity];
+    stops = new int[capacity];
+    lines = new int[capacity];
+    columns = new int[capacity];
+  }
+
+  /**
+   * Разбивает на токены текст модуля BSL.
+   *
+   * @param content Текст модуля
+   * @return Хранилище токенов
+   */
+  public static CompactTokenStore bsl(String content) {
+    return bsl(content, TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Разбивает на токены текст модуля BSL. Лексер подготавливается так же, как в {@link BSLTokenizer}.
+   *
+   * @param content Текст модуля
+   * @param options Настройки разбора
+   * @return Хранилище токенов
+   */
+  public static CompactTokenStore bsl(String content, TokenizerOptions options) {
+    return lex(new BSLLexer(CharStreams.fromString(content)), options);
+  }
+
+  /**
+   * Разбивает на токены текст запроса.
+   *
+   * @param content Текст запроса
+   * @return Хранилище токенов
+   */
+  public static CompactTokenStore sdbl(String content) {
+    return sdbl(content, TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Разбивает на токены текст запроса. Лексер подготавливается так же, как в {@link SDBLTokenizer}.
+   *
+   * @param content Текст запроса
+   * @param options Настройки разбора
+   * @return Хранилище токенов
+   */
+  public static CompactTokenStore sdbl(String content, TokenizerOptions options) {
+    return lex(new SDBLLexer(CharStreams.fromString(content)), options);
+  }
+
+  /**
+   * Разбивает на токены текущий поток символов лексера. Фабрика токенов лексера на время
+   * разбора подменяется и затем восстанавливается.
+   * <p>
+   * Пока хранилище заполняется, {@link Lexer#nextToken()} возвращает один и тот же переиспользуемый
+   * объект токена, который действителен только до следующего вызова. Код лексера, например, действия
+   * и переопределенный {@code nextToken()}, не должен сохранять ссылки на возвращаемые токены.
+   *
+   * @param lexer Лексер с установленным потоком символов
+   * @return Хранилище токенов
+   */
+  public static CompactTokenStore lex(Lexer lexer) {
+    var store = newStore(lexer.getInputStream());
+    var factory = lexer.getTokenFactory();
+    lexer.setTokenFactory(store.new Recorder());
+    try {
+      store.fill(lexer);
+    } finally {
+      lexer.setTokenFactory(factory);
+    }
+    return store;
+  }
+
+  private static CompactTokenStore lex(Lexer lexer, TokenizerOptions options) {
+    lexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    var store = newStore(lexer.getInputStream());
+    // обертки настроек (замер, отмена) подключаются поверх записывающей фабрики
+    lexer.setTokenFactory(store.new Recorder());
+    ParserSupport.prepare(lexer, options);
+    store.fill(lexer);
+    return store;
+  }
+
+  private static CompactTokenStore newStore(CharStream input) {
+    // в среднем токен BSL занимает несколько символов, начальная оценка уменьшает число расширений
+    return new CompactTokenStore(input, Math.max(INITIAL_CAPACITY, input.size() / 4));
+  }
+
+  private void fill(Lexer lexer) {
+    Token token;
+    do {
+      token = lexer.nextToken();
+    } while (token.getType() != Token.EOF);
+    trim();
+  }
+
+  /**
+   * Количество токенов, включая EOF.
+   *
+   * @return Количество токенов
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Тип токена.
+   *
+   * @param index Индекс токена
+   * @return Тип токена
+   */
+  public int getType(int index) {
+    return types[checkIndex(index)];
+  }
+
+  /**
+   * Канал токена.
+   *
+   * @param index Индекс токена
+   * @return Канал токена
+   */
+  public int getChannel(int index) {
+    return channels[checkIndex(index)];
+  }
+
+  /**
+   * Индекс первого символа токена.
+   *
+   * @param index Индекс токена
+   * @return Индекс символа
+   */
+  public int getStartIndex(int index) {
+    return starts[checkIndex(index)];
+  }
+
+  /**
+   * Индекс последнего символа токена.
+   *
+   * @param index Индекс токена
+   * @return Индекс символа
+   */
+  public int getStopIndex(int index) {
+    return stops[checkIndex(index)];
+  }
+
+  /**
+   * Номер строки начала токена, начиная с 1.
+   *
+   * @param index Индекс токена
+   * @return Номер строки
+   */
+  public int getLine(int index) {
+    return lines[checkIndex(index)];
+  }
+
+  /**
+   * Позиция начала токена в строке, начиная с 0.
+   *
+   * @param index Индекс токена
+   * @return Позиция в строке
+   */
+  public int getCharPositionInLine(int index) {
+    return columns[checkIndex(index)];
+  }
+
+  /**
+   * Текст токена.
+   *
+   * @param index Индекс токена
+   * @return Текст токена
+   */
+  public String getText(int index) {
+    checkIndex(index);
+    var text = texts.get(index);
+    if (text != null) {
+      return text;
+    }
+    if (types[index] == Token.EOF) {
+      return "<EOF>";
+    }
+    return input.getText(Interval.of(starts[index], stops[index]));
+  }
+
+  /**
+   * Представление токена хранилища. Каждый вызов создает новый объект.
+   *
+   * @param index Индекс токена
+   * @return Токен
+   */
+  public Token get(int index) {
+    return new CompactToken(checkIndex(index));
+  }
+
+  /**
+   * Представление хранилища в виде списка токенов, создаваемых по запросу.
+   *
+   * @return Неизменяемый список токенов
+   */
+  public List<Token> asList() {
+    return new AbstractList<>() {
+      @Override
+      public Token get(int index) {
+        return CompactTokenStore.this.get(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Поток токенов основного канала для парсера.
+   *
+   * @return Новый поток токенов
+   */
+  public CompactTokenStream tokenStream() {
+    return new CompactTokenStream(this);
+  }
+
+  CharStream getInputStream() {
+    return input;
+  }
+
+  TokenSource getTokenSource() {
+    return source;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("token index " + index + " out of range 0.." + (size - 1));
+    }
+    return index;
+  }
+
+  private void add(int type, @Nullable String text, int channel, int start, int stop, int line, int column) {
+    if (size == types.length) {
+      var capacity = size + (size >> 1);
+      types = Arrays.copyOf(types, capacity);
+      channels = Arrays.copyOf(channels, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      stops = Arrays.copyOf(stops, capacity);
+      lines = Arrays.copyOf(lines, capacity);
+      columns = Arrays.copyOf(columns, capacity);
+    }
+    types[size] = type;
+    channels[size] = channel;
+    starts[size] = start;
+    stops[size] = stop;
+    lines[size] = line;
+    columns[size] = column;
+    if (text != null) {
+      texts.put(size, text);
+    }
+    size++;
+  }
+
+  private void trim() {
+    types = Arrays.copyOf(types, size);
+    channels = Arrays.copyOf(channels, size);
+    starts = Arrays.copyOf(starts, size);
+    stops = Arrays.copyOf(stops, size);
+    lines = Arrays.copyOf(lines, size);
+    columns = Arrays.copyOf(columns, size);
+  }
+
+  /**
+   * Фабрика токенов, записывающая создаваемые лексером токены в хранилище. Лексер возвращает
+   * полученный от фабрики токен из {@link Lexer#nextToken()}, поэтому фабрика отдает один и тот же
+   * переиспользуемый объект, заполняя его значениями последнего токена: при заполнении хранилища
+   * смотрят только на тип токена, обертки фабрики из {@link ParserSupport} ссылок на токены не хранят.
+   */
+  private final class Recorder implements TokenFactory<CommonToken> {
+    private final CommonToken token = new CommonToken(Token.INVALID_TYPE);
+
+    @Override
+    public CommonToken create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                              int start, int stop, int line, int charPositionInLine) {
+      add(type, text, channel, start, stop, line, charPositionInLine);
+      token.setType(type);
+      token.setChannel(channel);
+      token.setStartIndex(start);
+      token.setStopIndex(stop);
+      token.setLine(line);
+      token.setCharPositionInLine(charPositionInLine);
+      token.setTokenIndex(size - 1);
+      return token;
+    }
+
+    @Override
+    public CommonToken create(int type, String text) {
+      return CommonTokenFactory.DEFAULT.create(type, text);
+    }
+  }
+
+  /**
+   * Токен-представление элемента хранилища.
+   */
+  private final class CompactToken implements Token {
+    private final int index;
+
+    private CompactToken(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getText() {
+      return CompactTokenStore.this.getText(index);
+    }
+
+    @Override
+    public int getType() {
+      return types[index];
+    }
+
+    @Override
+    public int getLine() {
+      return lines[index];
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+      return columns[index];
+    }
+
+    @Override
+    public int getChannel() {
+      return channels[index];
+    }
+
+    @Override
+    public int getTokenIndex() {
+      return index;
+    }
+
+    @Override
+    public int getStartIndex() {
+      return starts[index];
+    }
+
+    @Override
+    public int getStopIndex() {
+      return stops[index];
+    }
+
+    @Override
+    public TokenSource getTokenSource() {
+      return source;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+      return input;
+    }
+
+    @Override
+    public String toString() {
+      var channel = channels[index] > 0 ? ",channel=" + channels[index] : "";
+      var text = getText().replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+      return "[@" + index + "," + starts[index] + ":" + stops[index] + "='" + text + "',<" + types[index] + ">"
+        + channel + "," + lines[index] + ":" + columns[index] + "]";
+    }
+  }
+
+  /**
+   * Источник токенов хранилища. Нужен парсеру для создания недостающих токенов при восстановлении
+   * после ошибок; токены читаются из хранилища через {@link CompactTokenStream}.
+   */
+  private final class Source implements TokenSource {
+
+    @Override
+    public Token nextToken() {
+      throw new UnsupportedOperationException("Tokens are read from the store by index");
+    }
+
+    @Override
+    public int getLine() {
+      return 0;
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+      return 0;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+      return input;
+    }
+
+    @Override
+    public String getSourceName() {
+      return sourceName;
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+      // токены хранилища создаются только как представления, фабрика не используется
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+      return CommonTokenFactory.DEFAULT;
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Поток токенов основного канала поверх {@link CompactTokenStore}.
+ * <p>
+ * Аналог {@link org.antlr.v4.runtime.CommonTokenStream}: парсер видит только токены основного канала,
+ * индексы потока совпадают с индексами хранилища. Объекты токенов создаются по запросу парсера,
+ * представление текущего токена переиспользуется между повторными обращениями.
+ */
+public final class CompactTokenStream implements TokenStream {
+
+  private final CompactTokenStore store;
+  private int index;
+  private @Nullable Token current;
+
+  /**
+   * Создает поток токенов.
+   *
+   * @param store Хранилище токенов
+   */
+  public CompactTokenStream(CompactTokenStore store) {
+    this.store = store;
+    this.index = nextOnChannel(0);
+  }
+
+  @Override
+  public Token LT(int k) {
+    if (k == 0) {
+      return null;
+    }
+    if (k < 0) {
+      return LB(-k);
+    }
+    var i = index;
+    for (var n = 1; n < k; n++) {
+      if (store.getType(i) == Token.EOF) {
+        break;
+      }
+      i = nextOnChannel(i + 1);
+    }
+    return token(i);
+  }
+
+  @Override
+  public int LA(int i) {
+    if (i == 1) {
+      return store.getType(index);
+    }
+    var token = LT(i);
+    return token == null ? Token.INVALID_TYPE : token.getType();
+  }
+
+  @Override
+  public Token get(int i) {
+    return token(i);
+  }
+
+  @Override
+  public TokenSource getTokenSource() {
+    return store.getTokenSource();
+  }
+
+  @Override
+  public String getText(Interval interval) {
+    var start = Math.max(interval.a, 0);
+    var stop = Math.min(interval.b, store.size() - 1);
+    var text = new StringBuilder();
+    for (var i = start; i <= stop && store.getType(i) != Token.EOF; i++) {
+      text.append(store.getText(i));
+    }
+    return text.toString();
+  }
+
+  @Override
+  public String getText() {
+    return getText(Interval.of(0, store.size() - 1));
+  }
+
+  @Override
+  public String getText(RuleContext ctx) {
+    return getText(ctx.getSourceInterval());
+  }
+
+  @Override
+  public String getText(Token start, Token stop) {
+    if (start == null || stop == null) {
+      return "";
+    }
+    return getText(Interval.of(start.getTokenIndex(), stop.getTokenIndex()));
+  }
+
+  @Override
+  public void consume() {
+    if (store.getType(index) == Token.EOF) {
+      throw new IllegalStateException("cannot consume EOF");
+    }
+    index = nextOnChannel(index + 1);
+  }
+
+  @Override
+  public int mark() {
+    return 0;
+  }
+
+  @Override
+  public void release(int marker) {
+    // все токены уже в хранилище, отметки не нужны
+  }
+
+  @Override
+  public int index() {
+    return index;
+  }
+
+  @Override
+  public void seek(int index) {
+    this.index = nextOnChannel(index);
+  }
+
+  @Override
+  public int size() {
+    return store.size();
+  }
+
+  @Override
+  public String getSourceName() {
+    return store.getTokenSource().getSourceName();
+  }
+
+  private @Nullable Token LB(int k) {
+    var i = index;
+    for (var n = 0; n < k; n++) {
+      i = previousOnChannel(i - 1);
+      if (i < 0) {
+        return null;
+      }
+    }
+    return token(i);
+  }
+
+  private Token token(int i) {
+    var token = current;
+    if (token == null || token.getTokenIndex() != i) {
+      token = store.get(i);
+      current = token;
+    }
+    return token;
+  }
+
+  private int nextOnChannel(int i) {
+    var last = store.size() - 1;
+    while (i < last && store.getChannel(i) != Token.DEFAULT_CHANNEL && store.getType(i) != Token.EOF) {
+      i++;
+    }
+    return Math.min(i, last);
+  }
+
+  private int previousOnChannel(int i) {
+    while (i >= 0 && store.getChannel(i) != Token.DEFAULT_CHANNEL && store.getType(i) != Token.EOF) {
+      i--;
+    }
+    return i;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+import java.util.Arrays;
+
+/**
+ * Симулятор ATN лексера, кэширующий в DFA переходы не только по символам ASCII, но и по символам
+ * кириллицы (U+0400-U+04FF).
+ * <p>
+ * Стандартный симулятор хранит переходы DFA только для символов 0-127, поэтому каждая русская буква
+ * идентификаторов и ключевых слов проходит медленный путь симуляции ATN. Переходы по кириллице
+ * хранятся в том же массиве {@link DFAState#edges} после переходов ASCII, так что DFA остаются
+ * совместимыми со стандартным симулятором: он использует только первые 128 элементов массива.
+ */
+final class CyrillicLexerATNSimulator extends LexerATNSimulator {
+
+  static final int MIN_CYRILLIC_EDGE = 0x0400;
+  static final int MAX_CYRILLIC_EDGE = 0x04FF;
+
+  private static final int ASCII_EDGES = MAX_DFA_EDGE - MIN_DFA_EDGE + 1;
+  private static final int EDGES = ASCII_EDGES + MAX_CYRILLIC_EDGE - MIN_CYRILLIC_EDGE + 1;
+
+  CyrillicLexerATNSimulator(Lexer lexer, ATN atn, DFA[] decisionToDFA, PredictionContextCache sharedContextCache) {
+    super(lexer, atn, decisionToDFA, sharedContextCache);
+  }
+
+  /**
+   * Заменяет симулятор лексера симулятором с кэшированием переходов по кириллице. DFA и кэш контекстов
+   * лексера сохраняются.
+   *
+   * @param lexer Лексер
+   */
+  static void install(Lexer lexer) {
+    var interpreter = lexer.getInterpreter();
+    if (interpreter instanceof CyrillicLexerATNSimulator) {
+      return;
+    }
+    var simulator = new CyrillicLexerATNSimulator(lexer, interpreter.atn, interpreter.decisionToDFA,
+      interpreter.getSharedContextCache());
+    simulator.copyState(interpreter);
+    lexer.setInterpreter(simulator);
+  }
+
+  @Override
+  protected DFAState getExistingTargetState(DFAState s, int t) {
+    var index = edgeIndex(t);
+    var edges = s.edges;
+    if (index < 0 || edges == null || index >= edges.length) {
+      return null;
+    }
+    return edges[index];
+  }
+
+  @Override
+  protected void addDFAEdge(DFAState p, int t, DFAState q) {
+    var index = edgeIndex(t);
+    if (index < 0) {
+      return;
+    }
+    synchronized (p) {
+      if (p.edges == null) {
+        p.edges = new DFAState[EDGES];
+      } else if (p.edges.length < EDGES) {
+        // состояние создано стандартным симулятором
+        p.edges = Arrays.copyOf(p.edges, EDGES);
+      }
+      p.edges[index] = q;
+    }
+  }
+
+  private static int edgeIndex(int t) {
+    if (t >= MIN_DFA_EDGE && t <= MAX_DFA_EDGE) {
+      return t - MIN_DFA_EDGE;
+    }
+    if (t >= MIN_CYRILLIC_EDGE && t <= MAX_CYRILLIC_EDGE) {
+      return ASCII_EDGES + t - MIN_CYRILLIC_EDGE;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+/**
+ * Профиль решения или правила грамматики, накопленный {@link DecisionProfiler}.
+ *
+ * @param grammar              Грамматика парсера
+ * @param rule                 Имя правила
+ * @param decision             Номер решения в ATN или -1 для сводки по правилу
+ * @param invocations          Количество предсказаний
+ * @param timeNanos            Время предсказания в наносекундах
+ * @param sllLookahead         Суммарная глубина просмотра вперед в режиме SLL
+ * @param llLookahead          Суммарная глубина просмотра вперед в режиме полного LL
+ * @param maxLookahead         Максимальная глубина просмотра вперед
+ * @param llFallbacks          Количество переходов от SLL к полному LL
+ * @param atnTransitions       Количество переходов по ATN, то есть промахов DFA
+ * @param ambiguities          Количество неоднозначностей
+ * @param contextSensitivities Количество решений, зависящих от контекста
+ * @param errors               Количество ошибок предсказания
+ */
+public record DecisionProfile(Grammar grammar,
+                              String rule,
+                              int decision,
+                              long invocations,
+                              long timeNanos,
+                              long sllLookahead,
+                              long llLookahead,
+                              long maxLookahead,
+                              long llFallbacks,
+                              long atnTransitions,
+                              long ambiguities,
+                              long contextSensitivities,
+                              long errors) {
+
+  /**
+   * Суммарная глубина просмотра вперед в обоих режимах.
+   *
+   * @return Количество просмотренных токенов
+   */
+  public long totalLookahead() {
+    return sllLookahead + llLookahead;
+  }
+
+  DecisionProfile plus(DecisionProfile other) {
+    return new DecisionProfile(grammar, rule, decision,
+      invocations + other.invocations,
+      timeNanos + other.timeNanos,
+      sllLookahead + other.sllLookahead,
+      llLookahead + other.llLookahead,
+      Math.max(maxLookahead, other.maxLookahead),
+      llFallbacks + other.llFallbacks,
+      atnTransitions + other.atnTransitions,
+      ambiguities + other.ambiguities,
+      contextSensitivities + other.contextSensitivities,
+      errors + other.errors);
+  }
+}
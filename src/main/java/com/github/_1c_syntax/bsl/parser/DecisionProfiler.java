@@ -0,0 +1,182 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Профилирование решений грамматик BSL и языка запросов на наборе текстов.
+ * <p>
+ * Каждый текст разбирается парсером в режиме профилирования ANTLR ({@link Parser#setProfile(boolean)}),
+ * показатели решений суммируются по всем текстам. Отчет ранжирует решения и правила по времени предсказания
+ * и показывает, какие из них требуют глубокого просмотра вперед, перехода к полному LL или приводят
+ * к неоднозначностям.
+ * <p>
+ * Профилирование значительно замедляет разбор и предназначено только для работы над грамматикой.
+ * Экземпляр не потокобезопасен.
+ */
+public final class DecisionProfiler {
+
+  private final Map<Grammar, DecisionProfile[]> profiles = new LinkedHashMap<>();
+  private int textCount;
+
+  /**
+   * Разбирает модуль BSL с профилированием решений.
+   *
+   * @param content Текст модуля
+   */
+  public void profileBsl(String content) {
+    var parser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString(content))));
+    profile(parser, Grammar.BSL_PARSER, BSLParser::file);
+  }
+
+  /**
+   * Разбирает текст запроса с профилированием решений.
+   *
+   * @param content Текст запроса
+   */
+  public void profileSdbl(String content) {
+    var parser = new SDBLParser(new CommonTokenStream(new SDBLLexer(CharStreams.fromString(content))));
+    profile(parser, Grammar.SDBL_PARSER, SDBLParser::queryPackage);
+  }
+
+  /**
+   * Количество профилированных текстов.
+   *
+   * @return Количество текстов
+   */
+  public int getTextCount() {
+    return textCount;
+  }
+
+  /**
+   * Профили решений, вызывавшихся хотя бы раз, по убыванию времени предсказания.
+   *
+   * @return Профили решений
+   */
+  public List<DecisionProfile> decisions() {
+    var result = new ArrayList<DecisionProfile>();
+    for (var grammarProfiles : profiles.values()) {
+      for (var profile : grammarProfiles) {
+        if (profile != null && profile.invocations() > 0) {
+          result.add(profile);
+        }
+      }
+    }
+    result.sort(Comparator.comparingLong(DecisionProfile::timeNanos).reversed());
+    return result;
+  }
+
+  /**
+   * Сводные профили правил по убыванию времени предсказания. Номер решения в сводке равен -1.
+   *
+   * @return Профили правил
+   */
+  public List<DecisionProfile> rules() {
+    var byRule = new LinkedHashMap<String, DecisionProfile>();
+    for (var profile : decisions()) {
+      var summary = new DecisionProfile(profile.grammar(), profile.rule(), -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+      byRule.merge(profile.grammar() + "." + profile.rule(), summary.plus(profile), DecisionProfile::plus);
+    }
+    var result = new ArrayList<>(byRule.values());
+    result.sort(Comparator.comparingLong(DecisionProfile::timeNanos).reversed());
+    return result;
+  }
+
+  /**
+   * Текстовый отчет: наиболее затратные правила и решения.
+   *
+   * @param limit Максимальное количество строк в каждой таблице
+   * @return Отчет
+   */
+  public String report(int limit) {
+    var report = new StringBuilder();
+    report.append(String.format(Locale.ROOT, "Profiled texts: %d%n", textCount));
+    report.append(String.format(Locale.ROOT, "%nRules by prediction time%n"));
+    appendTable(report, rules(), limit);
+    report.append(String.format(Locale.ROOT, "%nDecisions by prediction time%n"));
+    appendTable(report, decisions(), limit);
+    return report.toString();
+  }
+
+  private <P extends Parser> void profile(P parser, Grammar grammar, Consumer<P> rootRule) {
+    parser.removeErrorListeners();
+    parser.setProfile(true);
+    rootRule.accept(parser);
+    textCount++;
+
+    var ruleNames = parser.getRuleNames();
+    var decisionStates = parser.getATN().decisionToState;
+    var grammarProfiles = profiles.computeIfAbsent(grammar, key -> new DecisionProfile[decisionStates.size()]);
+    for (var info : parser.getParseInfo().getDecisionInfo()) {
+      if (info.invocations == 0) {
+        continue;
+      }
+      var profile = profile(grammar, ruleNames[decisionStates.get(info.decision).ruleIndex], info);
+      var current = grammarProfiles[info.decision];
+      grammarProfiles[info.decision] = current == null ? profile : current.plus(profile);
+    }
+  }
+
+  private static DecisionProfile profile(Grammar grammar, String rule, DecisionInfo info) {
+    return new DecisionProfile(grammar, rule, info.decision,
+      info.invocations,
+      info.timeInPrediction,
+      info.SLL_TotalLook,
+      info.LL_TotalLook,
+      Math.max(info.SLL_MaxLook, info.LL_MaxLook),
+      info.LL_Fallback,
+      info.SLL_ATNTransitions + info.LL_ATNTransitions,
+      info.ambiguities.size(),
+      info.contextSensitivities.size(),
+      info.errors.size());
+  }
+
+  private static void appendTable(StringBuilder report, List<DecisionProfile> profiles, int limit) {
+    report.append(String.format(Locale.ROOT, "%-12s %-32s %8s %12s %10s %14s %8s %10s %10s %8s %8s%n",
+      "grammar", "rule", "decision", "invocations", "time, ms", "lookahead", "max", "ll", "atn", "ambig", "errors"));
+    profiles.stream().limit(limit).forEach(profile -> report.append(String.format(Locale.ROOT,
+      "%-12s %-32s %8s %12d %10.3f %14d %8d %10d %10d %8d %8d%n",
+      profile.grammar(),
+      profile.rule(),
+      profile.decision() < 0 ? "-" : Integer.toString(profile.decision()),
+      profile.invocations(),
+      profile.timeNanos() / 1_000_000.0,
+      profile.totalLookahead(),
+      profile.maxLookahead(),
+      profile.llFallbacks(),
+      profile.atnTransitions(),
+      profile.ambiguities(),
+      profile.errors())));
+  }
+}
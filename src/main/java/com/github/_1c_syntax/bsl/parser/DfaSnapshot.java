@@ -0,0 +1,718 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.RuntimeMetaData;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ArrayPredictionContext;
+import org.antlr.v4.runtime.atn.DecisionState;
+import org.antlr.v4.runtime.atn.EmptyPredictionContext;
+import org.antlr.v4.runtime.atn.LexerATNConfig;
+import org.antlr.v4.runtime.atn.LexerAction;
+import org.antlr.v4.runtime.atn.LexerActionExecutor;
+import org.antlr.v4.runtime.atn.LexerActionType;
+import org.antlr.v4.runtime.atn.LexerChannelAction;
+import org.antlr.v4.runtime.atn.LexerCustomAction;
+import org.antlr.v4.runtime.atn.LexerIndexedCustomAction;
+import org.antlr.v4.runtime.atn.LexerModeAction;
+import org.antlr.v4.runtime.atn.LexerMoreAction;
+import org.antlr.v4.runtime.atn.LexerPopModeAction;
+import org.antlr.v4.runtime.atn.LexerPushModeAction;
+import org.antlr.v4.runtime.atn.LexerSkipAction;
+import org.antlr.v4.runtime.atn.LexerTypeAction;
+import org.antlr.v4.runtime.atn.OrderedATNConfigSet;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.atn.SemanticContext;
+import org.antlr.v4.runtime.atn.SingletonPredictionContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сохранение и загрузка «прогретых» DFA распознавателей.
+ * <p>
+ * Адаптивное предсказание ANTLR строит DFA решений по мере разбора, поэтому первые сотни модулей
+ * разбираются значительно медленнее, чем в установившемся режиме. Снимок позволяет сохранить DFA,
+ * накопленные одним процессом, и загрузить их при старте другого, так что уже первый разбор
+ * выполняется с прогретыми кэшами.
+ * <p>
+ * Каждая грамматика записывается в снимок отдельной секцией с отпечатком {@link Grammar#fingerprint()}.
+ * При загрузке секции, отпечаток которых не совпадает с текущей версией грамматики, пропускаются.
+ * DFA решения загружается, только если для этого решения еще не построено ни одного состояния.
+ * Загрузка допустима и во время разбора: состояния переносятся в действующие DFA атомарно
+ * относительно их пополнения распознавателями.
+ */
+@UtilityClass
+public class DfaSnapshot {
+
+  private static final int MAGIC = 0x42534C44; // BSLD
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int NO_ID = -1;
+  private static final int ERROR_ID = -2;
+
+  /**
+   * Сохраняет DFA всех грамматик в файл.
+   *
+   * @param path Путь к файлу снимка
+   * @throws IOException Ошибка записи
+   */
+  public void save(Path path) throws IOException {
+    try (var out = Files.newOutputStream(path)) {
+      save(out, EnumSet.allOf(Grammar.class));
+    }
+  }
+
+  /**
+   * Сохраняет DFA указанных грамматик в поток. Поток не закрывается.
+   *
+   * @param out      Поток для записи
+   * @param grammars Сохраняемые грамматики
+   * @throws IOException Ошибка записи
+   */
+  public void save(OutputStream out, Collection<Grammar> grammars) throws IOException {
+    var data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(FORMAT_VERSION);
+    data.writeUTF(RuntimeMetaData.VERSION);
+    data.writeInt(grammars.size());
+    for (var grammar : grammars) {
+      var section = new ByteArrayOutputStream();
+      var sectionData = new DataOutputStream(section);
+      new SectionWriter(grammar, sectionData).write();
+      sectionData.flush();
+
+      data.writeUTF(grammar.name());
+      data.writeUTF(grammar.fingerprint());
+      data.writeInt(section.size());
+      section.writeTo(data);
+    }
+    data.flush();
+  }
+
+  /**
+   * Загружает DFA из файла снимка.
+   *
+   * @param path Путь к файлу снимка
+   * @return Грамматики, DFA которых были загружены
+   * @throws IOException Ошибка чтения или неверный формат файла
+   */
+  public Set<Grammar> load(Path path) throws IOException {
+    try (var in = Files.newInputStream(path)) {
+      return load(in);
+    }
+  }
+
+  /**
+   * Загружает DFA из потока. Поток не закрывается.
+   *
+   * @param in Поток для чтения
+   * @return Грамматики, DFA которых были загружены
+   * @throws IOException Ошибка чтения или неверный формат данных
+   */
+  public Set<Grammar> load(InputStream in) throws IOException {
+    var data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+      throw new IOException("Unsupported DFA snapshot format");
+    }
+    var runtimeVersion = data.readUTF();
+    var loaded = EnumSet.noneOf(Grammar.class);
+    var sectionCount = data.readInt();
+    for (var i = 0; i < sectionCount; i++) {
+      var name = data.readUTF();
+      var fingerprint = data.readUTF();
+      var section = new byte[data.readInt()];
+      data.readFully(section);
+
+      var grammar = grammarByName(name);
+      if (grammar == null
+        || !RuntimeMetaData.VERSION.equals(runtimeVersion)
+        || !grammar.fingerprint().equals(fingerprint)) {
+        continue;
+      }
+      new SectionReader(grammar, new DataInputStream(new ByteArrayInputStream(section))).read();
+      loaded.add(grammar);
+    }
+    return loaded;
+  }
+
+  private static @Nullable Grammar grammarByName(String name) {
+    for (var grammar : Grammar.values()) {
+      if (grammar.name().equals(name)) {
+        return grammar;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Запись секции одной грамматики: таблицы контекстов, семантических контекстов и
+   * исполнителей действий лексера, затем состояния и переходы каждого DFA.
+   */
+  private static final class SectionWriter {
+    private final Grammar grammar;
+    private final DataOutputStream out;
+
+    private final Map<PredictionContext, Integer> contexts = new IdentityHashMap<>();
+    private final List<PredictionContext> contextList = new ArrayList<>();
+    private final Map<SemanticContext, Integer> semanticContexts = new IdentityHashMap<>();
+    private final List<SemanticContext> semanticContextList = new ArrayList<>();
+    private final Map<LexerActionExecutor, Integer> executors = new IdentityHashMap<>();
+    private final List<LexerActionExecutor> executorList = new ArrayList<>();
+
+    private SectionWriter(Grammar grammar, DataOutputStream out) {
+      this.grammar = grammar;
+      this.out = out;
+    }
+
+    private void write() throws IOException {
+      var decisionToDFA = grammar.decisionToDFA();
+      var dfaStates = new ArrayList<List<DFAState>>(decisionToDFA.length);
+      for (var dfa : decisionToDFA) {
+        List<DFAState> states;
+        synchronized (dfa.states) {
+          states = new ArrayList<>(dfa.states.values());
+        }
+        states.forEach(this::register);
+        dfaStates.add(states);
+      }
+
+      writeContexts();
+      writeSemanticContexts();
+      writeExecutors();
+
+      out.writeInt(decisionToDFA.length);
+      for (var i = 0; i < decisionToDFA.length; i++) {
+        writeDfa(decisionToDFA[i], dfaStates.get(i));
+      }
+    }
+
+    private void register(DFAState state) {
+      for (var config : state.configs) {
+        registerContext(config.context);
+        registerSemanticContext(config.semanticContext);
+        if (config instanceof LexerATNConfig lexerConfig && lexerConfig.getLexerActionExecutor() != null) {
+          executors.computeIfAbsent(lexerConfig.getLexerActionExecutor(), this::addExecutor);
+        }
+      }
+      if (state.lexerActionExecutor != null) {
+        executors.computeIfAbsent(state.lexerActionExecutor, this::addExecutor);
+      }
+      if (state.predicates != null) {
+        for (var predicate : state.predicates) {
+          registerSemanticContext(predicate.pred);
+        }
+      }
+    }
+
+    private int addExecutor(LexerActionExecutor executor) {
+      executorList.add(executor);
+      return executorList.size() - 1;
+    }
+
+    private void registerContext(@Nullable PredictionContext context) {
+      if (context == null || contexts.containsKey(context)) {
+        return;
+      }
+      // родители записываются раньше потомков, чтобы при чтении они уже были созданы
+      for (var i = 0; i < context.size(); i++) {
+        registerContext(context.getParent(i));
+      }
+      contexts.put(context, contextList.size());
+      contextList.add(context);
+    }
+
+    private void registerSemanticContext(SemanticContext context) {
+      if (semanticContexts.containsKey(context)) {
+        return;
+      }
+      if (context instanceof SemanticContext.Operator operator) {
+        operator.getOperands().forEach(this::registerSemanticContext);
+      }
+      semanticContexts.put(context, semanticContextList.size());
+      semanticContextList.add(context);
+    }
+
+    private void writeContexts() throws IOException {
+      out.writeInt(contextList.size());
+      for (var context : contextList) {
+        if (context instanceof EmptyPredictionContext) {
+          out.writeByte(0);
+        } else if (context instanceof SingletonPredictionContext singleton) {
+          out.writeByte(1);
+          out.writeInt(contextId(singleton.parent));
+          out.writeInt(singleton.returnState);
+        } else if (context instanceof ArrayPredictionContext array) {
+          out.writeByte(2);
+          out.writeInt(array.parents.length);
+          for (var i = 0; i < array.parents.length; i++) {
+            out.writeInt(contextId(array.parents[i]));
+            out.writeInt(array.returnStates[i]);
+          }
+        } else {
+          throw new IOException("Unsupported prediction context: " + context.getClass().getName());
+        }
+      }
+    }
+
+    private void writeSemanticContexts() throws IOException {
+      out.writeInt(semanticContextList.size());
+      for (var context : semanticContextList) {
+        if (context instanceof SemanticContext.Empty) {
+          out.writeByte(0);
+        } else if (context instanceof SemanticContext.Predicate predicate) {
+          out.writeByte(1);
+          out.writeInt(predicate.ruleIndex);
+          out.writeInt(predicate.predIndex);
+          out.writeBoolean(predicate.isCtxDependent);
+        } else if (context instanceof SemanticContext.PrecedencePredicate predicate) {
+          out.writeByte(2);
+          out.writeInt(predicate.precedence);
+        } else if (context instanceof SemanticContext.Operator operator) {
+          out.writeByte(context instanceof SemanticContext.AND ? 3 : 4);
+          var operands = operator.getOperands();
+          out.writeInt(operands.size());
+          for (var operand : operands) {
+            out.writeInt(semanticContexts.get(operand));
+          }
+        } else {
+          throw new IOException("Unsupported semantic context: " + context.getClass().getName());
+        }
+      }
+    }
+
+    private void writeExecutors() throws IOException {
+      out.writeInt(executorList.size());
+      for (var executor : executorList) {
+        var actions = executor.getLexerActions();
+        out.writeInt(actions.length);
+        for (var action : actions) {
+          writeLexerAction(action);
+        }
+      }
+    }
+
+    private void writeLexerAction(LexerAction action) throws IOException {
+      if (action instanceof LexerIndexedCustomAction indexed) {
+        out.writeByte(0);
+        out.writeInt(indexed.getOffset());
+        writeLexerAction(indexed.getAction());
+        return;
+      }
+      out.writeByte(action.getActionType().ordinal() + 1);
+      switch (action) {
+        case LexerChannelAction channel -> out.writeInt(channel.getChannel());
+        case LexerCustomAction custom -> {
+          out.writeInt(custom.getRuleIndex());
+          out.writeInt(custom.getActionIndex());
+        }
+        case LexerModeAction mode -> out.writeInt(mode.getMode());
+        case LexerPushModeAction pushMode -> out.writeInt(pushMode.getMode());
+        case LexerTypeAction type -> out.writeInt(type.getType());
+        default -> {
+          // действия без параметров: more, popMode, skip
+        }
+      }
+    }
+
+    private void writeDfa(DFA dfa, List<DFAState> states) throws IOException {
+      var ids = new IdentityHashMap<DFAState, Integer>();
+      for (var i = 0; i < states.size(); i++) {
+        ids.put(states.get(i), i);
+      }
+
+      out.writeInt(states.size());
+      for (var state : states) {
+        writeState(state);
+      }
+      for (var state : states) {
+        writeEdges(state.edges, ids);
+      }
+
+      if (dfa.isPrecedenceDfa()) {
+        writeEdges(dfa.s0.edges, ids);
+      } else {
+        out.writeInt(stateId(dfa.s0, ids));
+      }
+    }
+
+    private void writeState(DFAState state) throws IOException {
+      var configs = state.configs;
+      out.writeBoolean(configs.fullCtx);
+      out.writeInt(configs.uniqueAlt);
+      out.writeBoolean(configs.hasSemanticContext);
+      out.writeBoolean(configs.dipsIntoOuterContext);
+      out.writeInt(configs.size());
+      for (var config : configs) {
+        writeConfig(config);
+      }
+
+      out.writeBoolean(state.isAcceptState);
+      out.writeInt(state.prediction);
+      out.writeInt(executorId(state.lexerActionExecutor));
+      out.writeBoolean(state.requiresFullContext);
+      if (state.predicates == null) {
+        out.writeInt(NO_ID);
+      } else {
+        out.writeInt(state.predicates.length);
+        for (var predicate : state.predicates) {
+          out.writeInt(semanticContexts.get(predicate.pred));
+          out.writeInt(predicate.alt);
+        }
+      }
+    }
+
+    private void writeConfig(ATNConfig config) throws IOException {
+      out.writeInt(config.state.stateNumber);
+      out.writeInt(config.alt);
+      out.writeInt(contextId(config.context));
+      out.writeInt(semanticContexts.get(config.semanticContext));
+      out.writeInt(config.reachesIntoOuterContext);
+      if (grammar.isLexer()) {
+        var lexerConfig = (LexerATNConfig) config;
+        out.writeInt(executorId(lexerConfig.getLexerActionExecutor()));
+        out.writeBoolean(lexerConfig.hasPassedThroughNonGreedyDecision());
+      }
+    }
+
+    private void writeEdges(DFAState @Nullable [] edges, Map<DFAState, Integer> ids) throws IOException {
+      if (edges == null) {
+        out.writeInt(NO_ID);
+        return;
+      }
+      out.writeInt(edges.length);
+      for (var target : edges) {
+        out.writeInt(stateId(target, ids));
+      }
+    }
+
+    private int contextId(@Nullable PredictionContext context) {
+      return context == null ? NO_ID : contexts.get(context);
+    }
+
+    private int executorId(@Nullable LexerActionExecutor executor) {
+      return executor == null ? NO_ID : executors.get(executor);
+    }
+
+    private static int stateId(@Nullable DFAState state, Map<DFAState, Integer> ids) {
+      if (state == null) {
+        return NO_ID;
+      }
+      if (state == ATNSimulator.ERROR) {
+        return ERROR_ID;
+      }
+      // переход в состояние, добавленное параллельным разбором после снятия снимка, не сохраняется
+      return ids.getOrDefault(state, NO_ID);
+    }
+  }
+
+  /**
+   * Чтение секции одной грамматики, записанной {@link SectionWriter}.
+   */
+  private static final class SectionReader {
+    private final Grammar grammar;
+    private final ATN atn;
+    private final DataInputStream in;
+
+    private PredictionContext[] contexts = new PredictionContext[0];
+    private SemanticContext[] semanticContexts = new SemanticContext[0];
+    private LexerActionExecutor[] executors = new LexerActionExecutor[0];
+
+    private SectionReader(Grammar grammar, DataInputStream in) {
+      this.grammar = grammar;
+      this.atn = grammar.atn();
+      this.in = in;
+    }
+
+    private void read() throws IOException {
+      readContexts();
+      readSemanticContexts();
+      readExecutors();
+
+      var decisionToDFA = grammar.decisionToDFA();
+      var dfaCount = in.readInt();
+      if (dfaCount != decisionToDFA.length) {
+        throw new IOException("DFA snapshot does not match grammar " + grammar);
+      }
+      for (var decision = 0; decision < dfaCount; decision++) {
+        load(decisionToDFA[decision], readDfa(decision));
+      }
+    }
+
+    /**
+     * Переносит состояния прочитанного DFA в действующий DFA решения, если в нем еще нет состояний.
+     * Распознаватели добавляют состояния под блокировкой {@link DFA#states}, поэтому проверка и перенос
+     * под той же блокировкой не теряют состояний, добавленных параллельным разбором. Сам DFA в общем
+     * массиве не заменяется: запись начального состояния {@link DFA#s0} публикует перенесенные состояния
+     * распознавателям других потоков.
+     */
+    private static void load(DFA current, DFA dfa) {
+      synchronized (current.states) {
+        if (!current.states.isEmpty()) {
+          return;
+        }
+        current.states.putAll(dfa.states);
+        if (current.isPrecedenceDfa()) {
+          // начальные состояния по приоритетам хранятся в переходах s0, которые изменяются под его блокировкой
+          synchronized (current.s0) {
+            current.s0.edges = dfa.s0.edges;
+          }
+        } else {
+          current.s0 = dfa.s0;
+        }
+      }
+    }
+
+    private void readContexts() throws IOException {
+      contexts = new PredictionContext[in.readInt()];
+      for (var i = 0; i < contexts.length; i++) {
+        var kind = in.readByte();
+        contexts[i] = switch (kind) {
+          case 0 -> EmptyPredictionContext.Instance;
+          case 1 -> SingletonPredictionContext.create(context(in.readInt()), in.readInt());
+          case 2 -> {
+            var size = in.readInt();
+            var parents = new PredictionContext[size];
+            var returnStates = new int[size];
+            for (var j = 0; j < size; j++) {
+              parents[j] = context(in.readInt());
+              returnStates[j] = in.readInt();
+            }
+            yield new ArrayPredictionContext(parents, returnStates);
+          }
+          default -> throw new IOException("Unknown prediction context kind " + kind);
+        };
+      }
+    }
+
+    private void readSemanticContexts() throws IOException {
+      semanticContexts = new SemanticContext[in.readInt()];
+      for (var i = 0; i < semanticContexts.length; i++) {
+        var kind = in.readByte();
+        semanticContexts[i] = switch (kind) {
+          case 0 -> SemanticContext.Empty.Instance;
+          case 1 -> new SemanticContext.Predicate(in.readInt(), in.readInt(), in.readBoolean());
+          case 2 -> new SemanticContext.PrecedencePredicate(in.readInt());
+          case 3, 4 -> {
+            var size = in.readInt();
+            var result = semanticContexts[in.readInt()];
+            for (var j = 1; j < size; j++) {
+              var operand = semanticContexts[in.readInt()];
+              result = kind == 3 ? new SemanticContext.AND(result, operand) : new SemanticContext.OR(result, operand);
+            }
+            yield result;
+          }
+          default -> throw new IOException("Unknown semantic context kind " + kind);
+        };
+      }
+    }
+
+    private void readExecutors() throws IOException {
+      executors = new LexerActionExecutor[in.readInt()];
+      for (var i = 0; i < executors.length; i++) {
+        var actions = new LexerAction[in.readInt()];
+        for (var j = 0; j < actions.length; j++) {
+          actions[j] = readLexerAction();
+        }
+        executors[i] = new LexerActionExecutor(actions);
+      }
+    }
+
+    private LexerAction readLexerAction() throws IOException {
+      var kind = in.readByte();
+      if (kind == 0) {
+        var offset = in.readInt();
+        return new LexerIndexedCustomAction(offset, readLexerAction());
+      }
+      return switch (LexerActionType.values()[kind - 1]) {
+        case CHANNEL -> new LexerChannelAction(in.readInt());
+        case CUSTOM -> new LexerCustomAction(in.readInt(), in.readInt());
+        case MODE -> new LexerModeAction(in.readInt());
+        case MORE -> LexerMoreAction.INSTANCE;
+        case POP_MODE -> LexerPopModeAction.INSTANCE;
+        case PUSH_MODE -> new LexerPushModeAction(in.readInt());
+        case SKIP -> LexerSkipAction.INSTANCE;
+        case TYPE -> new LexerTypeAction(in.readInt());
+      };
+    }
+
+    private DFA readDfa(int decision) throws IOException {
+      var dfa = new DFA(atn.getDecisionState(decision), decision);
+      var states = new DFAState[in.readInt()];
+      for (var i = 0; i < states.length; i++) {
+        states[i] = readState();
+        states[i].stateNumber = i;
+      }
+      for (var state : states) {
+        state.edges = readEdges(states);
+        dfa.states.put(state, state);
+      }
+
+      if (dfa.isPrecedenceDfa()) {
+        var edges = readEdges(states);
+        dfa.s0.edges = edges == null ? new DFAState[0] : edges;
+      } else {
+        dfa.s0 = state(in.readInt(), states);
+      }
+      return dfa;
+    }
+
+    private DFAState readState() throws IOException {
+      var fullCtx = in.readBoolean();
+      var configs = grammar.isLexer() ? new OrderedATNConfigSet() : new SnapshotConfigSet(fullCtx);
+      var uniqueAlt = in.readInt();
+      var hasSemanticContext = in.readBoolean();
+      var dipsIntoOuterContext = in.readBoolean();
+      var configCount = in.readInt();
+      for (var i = 0; i < configCount; i++) {
+        configs.add(readConfig());
+      }
+      configs.uniqueAlt = uniqueAlt;
+      configs.hasSemanticContext = hasSemanticContext;
+      configs.dipsIntoOuterContext = dipsIntoOuterContext;
+      configs.setReadonly(true);
+
+      var state = new DFAState(configs);
+      state.isAcceptState = in.readBoolean();
+      state.prediction = in.readInt();
+      state.lexerActionExecutor = executor(in.readInt());
+      state.requiresFullContext = in.readBoolean();
+      if (state.requiresFullContext && configs instanceof SnapshotConfigSet snapshotConfigs) {
+        snapshotConfigs.setConflictingAlts(
+          PredictionMode.getAlts(PredictionMode.getConflictingAltSubsets(configs)));
+      }
+      var predicateCount = in.readInt();
+      if (predicateCount != NO_ID) {
+        state.predicates = new DFAState.PredPrediction[predicateCount];
+        for (var i = 0; i < predicateCount; i++) {
+          state.predicates[i] = new DFAState.PredPrediction(semanticContexts[in.readInt()], in.readInt());
+        }
+      }
+      return state;
+    }
+
+    private ATNConfig readConfig() throws IOException {
+      var atnState = atn.states.get(in.readInt());
+      var alt = in.readInt();
+      var context = context(in.readInt());
+      var semanticContext = semanticContexts[in.readInt()];
+      var reachesIntoOuterContext = in.readInt();
+
+      ATNConfig config;
+      if (grammar.isLexer()) {
+        var executor = executor(in.readInt());
+        var passedThroughNonGreedyDecision = in.readBoolean();
+        var lexerConfig = new LexerATNConfig(atnState, alt, context, executor);
+        if (passedThroughNonGreedyDecision) {
+          lexerConfig = passedThroughNonGreedyDecision(lexerConfig);
+        }
+        config = lexerConfig;
+      } else {
+        config = new ATNConfig(atnState, alt, context, semanticContext);
+      }
+      config.reachesIntoOuterContext = reachesIntoOuterContext;
+      return config;
+    }
+
+    /**
+     * Признак прохода через нежадное решение не имеет сеттера: он вычисляется конструктором
+     * при переходе в нежадное состояние решения, поэтому воспроизводим такой переход.
+     */
+    private LexerATNConfig passedThroughNonGreedyDecision(LexerATNConfig config) throws IOException {
+      for (var atnState : atn.states) {
+        if (atnState instanceof DecisionState decisionState && decisionState.nonGreedy) {
+          return new LexerATNConfig(new LexerATNConfig(config, atnState), config.state);
+        }
+      }
+      throw new IOException("DFA snapshot does not match grammar " + grammar);
+    }
+
+    private DFAState @Nullable [] readEdges(DFAState[] states) throws IOException {
+      var size = in.readInt();
+      if (size == NO_ID) {
+        return null;
+      }
+      var edges = new DFAState[size];
+      for (var i = 0; i < size; i++) {
+        edges[i] = state(in.readInt(), states);
+      }
+      return edges;
+    }
+
+    private static @Nullable DFAState state(int id, DFAState[] states) {
+      if (id == NO_ID) {
+        return null;
+      }
+      return id == ERROR_ID ? ATNSimulator.ERROR : states[id];
+    }
+
+    private @Nullable PredictionContext context(int id) {
+      return id == NO_ID ? null : contexts[id];
+    }
+
+    private @Nullable LexerActionExecutor executor(int id) {
+      return id == NO_ID ? null : executors[id];
+    }
+  }
+
+  /**
+   * Набор конфигураций состояния парсера, требующего полного контекста.
+   * <p>
+   * ANTLR сохраняет в таком наборе конфликтующие альтернативы, и они участвуют в сравнении
+   * состояний по ссылке. Без восстановления этого поля разные состояния DFA с одинаковыми
+   * конфигурациями при загрузке схлопнулись бы в одно.
+   */
+  private static final class SnapshotConfigSet extends ATNConfigSet {
+    private SnapshotConfigSet(boolean fullCtx) {
+      super(fullCtx);
+    }
+
+    private void setConflictingAlts(BitSet conflictingAlts) {
+      this.conflictingAlts = conflictingAlts;
+    }
+  }
+}
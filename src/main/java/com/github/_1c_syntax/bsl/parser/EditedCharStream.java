@@ -0,0 +1,218 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.util.Arrays;
+
+/**
+ * Поток символов текста после правки, начинающийся с заданной позиции.
+ * <p>
+ * Текст после правки не собирается в строку: символы читаются из исходного текста и текста правки
+ * по мере чтения лексером, начиная с позиции перед измененным участком. Поток хранит только прочитанные
+ * кодовые точки, поэтому токены, прочитанные из него, не удерживают в памяти весь текст.
+ * Индексы символов потока совпадают с индексами кодовых точек в тексте после правки.
+ */
+final class EditedCharStream implements CharStream {
+
+  private final String content;
+  private final TextEdit edit;
+  private final int length;
+  private final int start;
+  private final int startOffset;
+  private final int size;
+
+  private int[] codePoints = new int[256];
+  private int count;
+  private int readOffset;
+  private int index;
+  private int cursorIndex;
+  private int cursorOffset;
+
+  /**
+   * Создает поток.
+   *
+   * @param content     Исходный текст
+   * @param edit        Правка исходного текста
+   * @param start       Индекс кодовой точки, с которой начинается поток, в тексте после правки
+   * @param startOffset Смещение той же точки в символах {@link String}, не позже начала правки
+   * @param size        Количество кодовых точек в тексте после правки
+   */
+  EditedCharStream(String content, TextEdit edit, int start, int startOffset, int size) {
+    this.content = content;
+    this.edit = edit;
+    this.length = content.length() + edit.text().length() - (edit.end() - edit.start());
+    this.start = start;
+    this.startOffset = startOffset;
+    this.size = size;
+    this.readOffset = startOffset;
+    this.index = start;
+    this.cursorIndex = start;
+    this.cursorOffset = startOffset;
+  }
+
+  /**
+   * Смещение кодовой точки в тексте после правки в символах {@link String}. Рассчитано на последовательные
+   * обращения с возрастающими индексами.
+   *
+   * @param target Индекс кодовой точки, не меньше начала потока
+   * @return Смещение в символах
+   */
+  int offset(int target) {
+    if (target < cursorIndex) {
+      cursorIndex = start;
+      cursorOffset = startOffset;
+    }
+    fill(target - 1);
+    while (cursorIndex < target && cursorIndex - start < count) {
+      cursorOffset += Character.charCount(codePoints[cursorIndex - start]);
+      cursorIndex++;
+    }
+    return cursorOffset;
+  }
+
+  @Override
+  public void consume() {
+    if (index >= size) {
+      throw new IllegalStateException("cannot consume EOF");
+    }
+    index++;
+  }
+
+  @Override
+  public int LA(int i) {
+    if (i == 0) {
+      return 0;
+    }
+    var target = i > 0 ? index + i - 1 : index + i;
+    if (target < start) {
+      return target < 0 ? IntStream.EOF : codePointBefore(start - target);
+    }
+    return fill(target) ? codePoints[target - start] : IntStream.EOF;
+  }
+
+  @Override
+  public int mark() {
+    return -1;
+  }
+
+  @Override
+  public void release(int marker) {
+    // прочитанные символы хранятся до конца работы с потоком, отметки не нужны
+  }
+
+  @Override
+  public int index() {
+    return index;
+  }
+
+  @Override
+  public void seek(int index) {
+    this.index = Math.min(Math.max(index, start), size);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String getSourceName() {
+    return IntStream.UNKNOWN_SOURCE_NAME;
+  }
+
+  @Override
+  public String getText(Interval interval) {
+    var first = Math.max(interval.a, start);
+    var last = Math.min(interval.b, size - 1);
+    if (first > last) {
+      return "";
+    }
+    fill(last);
+    return new String(codePoints, first - start, last - first + 1);
+  }
+
+  @Override
+  public String toString() {
+    return getText(Interval.of(start, size - 1));
+  }
+
+  /**
+   * Дочитывает кодовые точки до указанного индекса включительно.
+   *
+   * @return {@code false}, если текст закончился раньше
+   */
+  private boolean fill(int target) {
+    while (start + count <= target) {
+      if (readOffset >= length) {
+        return false;
+      }
+      var high = charAt(readOffset++);
+      int codePoint = high;
+      if (Character.isHighSurrogate(high) && readOffset < length) {
+        var low = charAt(readOffset);
+        if (Character.isLowSurrogate(low)) {
+          codePoint = Character.toCodePoint(high, low);
+          readOffset++;
+        }
+      }
+      if (count == codePoints.length) {
+        codePoints = Arrays.copyOf(codePoints, count * 2);
+      }
+      codePoints[count++] = codePoint;
+    }
+    return true;
+  }
+
+  /**
+   * Кодовая точка за указанное количество точек до начала потока.
+   */
+  private int codePointBefore(int distance) {
+    var offset = startOffset;
+    var codePoint = IntStream.EOF;
+    for (var k = 0; k < distance && offset > 0; k++) {
+      var low = charAt(--offset);
+      codePoint = low;
+      if (Character.isLowSurrogate(low) && offset > 0 && Character.isHighSurrogate(charAt(offset - 1))) {
+        codePoint = Character.toCodePoint(charAt(--offset), low);
+      }
+    }
+    return codePoint;
+  }
+
+  /**
+   * Символ текста после правки.
+   */
+  private char charAt(int offset) {
+    if (offset < edit.start()) {
+      return content.charAt(offset);
+    }
+    var textEnd = edit.start() + edit.text().length();
+    if (offset < textEnd) {
+      return edit.text().charAt(offset - edit.start());
+    }
+    return content.charAt(offset - textEnd + edit.end());
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.RuntimeMetaData;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+
+/**
+ * Распознаватели (лексеры и парсеры) грамматик проекта и их общие для всех экземпляров кэши предсказаний.
+ * <p>
+ * Каждый сгенерированный лексер и парсер хранит в статических полях ATN, массив DFA решений и кэш
+ * контекстов предсказания. Эти кэши наполняются по мере разбора и разделяются всеми экземплярами
+ * распознавателя в пределах JVM.
+ */
+public enum Grammar {
+  BSL_LEXER(true, BSLLexer._ATN, BSLLexer._decisionToDFA, BSLLexer._sharedContextCache, BSLLexer._serializedATN),
+  BSL_PARSER(false, BSLParser._ATN, BSLParser._decisionToDFA, BSLParser._sharedContextCache,
+    BSLParser._serializedATN),
+  SDBL_LEXER(true, SDBLLexer._ATN, SDBLLexer._decisionToDFA, SDBLLexer._sharedContextCache,
+    SDBLLexer._serializedATN),
+  SDBL_PARSER(false, SDBLParser._ATN, SDBLParser._decisionToDFA, SDBLParser._sharedContextCache,
+    SDBLParser._serializedATN),
+  BSL_DESCRIPTION_LEXER(true, BSLDescriptionLexer._ATN, BSLDescriptionLexer._decisionToDFA,
+    BSLDescriptionLexer._sharedContextCache, BSLDescriptionLexer._serializedATN),
+  BSL_DESCRIPTION_PARSER(false, BSLDescriptionParser._ATN, BSLDescriptionParser._decisionToDFA,
+    BSLDescriptionParser._sharedContextCache, BSLDescriptionParser._serializedATN);
+
+  private final boolean lexer;
+  private final ATN atn;
+  private final DFA[] decisionToDFA;
+  private final PredictionContextCache sharedContextCache;
+  private final String fingerprint;
+
+  Grammar(boolean lexer, ATN atn, DFA[] decisionToDFA, PredictionContextCache sharedContextCache,
+          String serializedATN) {
+    this.lexer = lexer;
+    this.atn = atn;
+    this.decisionToDFA = decisionToDFA;
+    this.sharedContextCache = sharedContextCache;
+    this.fingerprint = Digests.sha256Hex(RuntimeMetaData.VERSION, serializedATN);
+  }
+
+  /**
+   * Признак лексера.
+   *
+   * @return {@code true} для лексера, {@code false} для парсера
+   */
+  public boolean isLexer() {
+    return lexer;
+  }
+
+  /**
+   * Отпечаток версии грамматики: хэш сериализованного ATN и версии среды исполнения ANTLR.
+   * Меняется при любом изменении правил грамматики.
+   *
+   * @return Шестнадцатеричная строка отпечатка
+   */
+  public String fingerprint() {
+    return fingerprint;
+  }
+
+  ATN atn() {
+    return atn;
+  }
+
+  DFA[] decisionToDFA() {
+    return decisionToDFA;
+  }
+
+  PredictionContextCache sharedContextCache() {
+    return sharedContextCache;
+  }
+
+  /**
+   * Количество состояний во всех статических DFA решений распознавателя.
+   *
+   * @return Число состояний
+   */
+  public int dfaStateCount() {
+    return dfaStateCount(decisionToDFA);
+  }
+
+  /**
+   * Размер статических кэшей предсказания распознавателя, общих для всех экземпляров.
+   *
+   * @return Статистика кэшей
+   */
+  public PredictionCacheStatistics statistics() {
+    return PredictionCacheStatistics.compute(this, decisionToDFA, sharedContextCache);
+  }
+
+  /**
+   * Сбрасывает статические DFA всех решений. Массив DFA общий для всех экземпляров распознавателя, поэтому
+   * уже работающие распознаватели сразу переходят на новые пустые DFA и следующие предсказания строят их заново;
+   * предсказание, начатое до сброса, дописывает состояния в прежний DFA, который после этого не используется.
+   * <p>
+   * Общий кэш контекстов предсказания при этом не очищается: он не рассчитан на очистку во время разбора.
+   * Для полностью ограниченного по памяти разбора используется {@link PredictionCache}.
+   */
+  public void clearDfa() {
+    for (var decision = 0; decision < decisionToDFA.length; decision++) {
+      decisionToDFA[decision] = new DFA(atn.getDecisionState(decision), decision);
+    }
+  }
+
+  /**
+   * Создает новый пустой набор DFA решений распознавателя.
+   *
+   * @return Массив DFA, по одному на решение
+   */
+  DFA[] newDecisionToDFA() {
+    var result = new DFA[decisionToDFA.length];
+    for (var decision = 0; decision < result.length; decision++) {
+      result[decision] = new DFA(atn.getDecisionState(decision), decision);
+    }
+    return result;
+  }
+
+  /**
+   * Определяет грамматику распознавателя.
+   *
+   * @param recognizer Лексер или парсер
+   * @return Грамматика распознавателя
+   * @throws IllegalArgumentException Распознаватель не относится к грамматикам проекта
+   */
+  static Grammar of(Recognizer<?, ?> recognizer) {
+    var recognizerATN = recognizer.getATN();
+    var lexerRecognizer = recognizer instanceof Lexer;
+    for (var grammar : values()) {
+      if (grammar.atn == recognizerATN && grammar.lexer == lexerRecognizer) {
+        return grammar;
+      }
+    }
+    throw new IllegalArgumentException("Unknown recognizer: " + recognizer.getClass().getName());
+  }
+
+  static int dfaStateCount(DFA[] decisionToDFA) {
+    var count = 0;
+    for (var dfa : decisionToDFA) {
+      synchronized (dfa.states) {
+        count += dfa.states.size();
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Инкрементальный лексический анализ.
+ * <p>
+ * Лексеры BSL и языка запросов модальные: режимы препроцессора, аннотаций, асинхронных методов,
+ * удаляемых блоков и т.п. могут охватывать много строк, поэтому в общем случае после правки текст
+ * приходится лексировать заново. При разборе {@link IncrementalLexer} запоминает состояние лексера
+ * (режим и стек режимов) перед первым токеном каждой строки. После правки лексирование начинается
+ * с контрольной точки перед строкой правки и продолжается до тех пор, пока новый поток токенов
+ * не совпадет с прежним: токен начала строки окажется на той же позиции с тем же состоянием лексера.
+ * Остаток прежнего списка токенов переиспользуется, его позиции сдвигаются вместе с фрагментами
+ * {@link RelocatableTokenList}, поэтому стоимость правки не зависит от длины текста после нее.
+ * <p>
+ * Прежний результат изменяется на месте и после повторного лексирования использоваться не должен.
+ */
+public final class IncrementalLexer {
+
+  private final Supplier<? extends Lexer> lexerFactory;
+  private final TokenizerOptions options;
+
+  /**
+   * Создает инкрементальный лексер.
+   *
+   * @param lexerFactory Фабрика лексеров
+   * @param options      Настройки разбора
+   */
+  public IncrementalLexer(Supplier<? extends Lexer> lexerFactory, TokenizerOptions options) {
+    this.lexerFactory = lexerFactory;
+    this.options = options;
+  }
+
+  /**
+   * Инкрементальный лексер модулей BSL с настройками по умолчанию.
+   *
+   * @return Новый лексер
+   */
+  public static IncrementalLexer bsl() {
+    return bsl(TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Инкрементальный лексер модулей BSL.
+   *
+   * @param options Настройки разбора
+   * @return Новый лексер
+   */
+  public static IncrementalLexer bsl(TokenizerOptions options) {
+    return new IncrementalLexer(() -> new BSLLexer(CharStreams.fromString("")), options);
+  }
+
+  /**
+   * Инкрементальный лексер текстов запросов с настройками по умолчанию.
+   *
+   * @return Новый лексер
+   */
+  public static IncrementalLexer sdbl() {
+    return sdbl(TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Инкрементальный лексер текстов запросов.
+   *
+   * @param options Настройки разбора
+   * @return Новый лексер
+   */
+  public static IncrementalLexer sdbl(TokenizerOptions options) {
+    return new IncrementalLexer(() -> new SDBLLexer(CharStreams.fromString("")), options);
+  }
+
+  /**
+   * Лексирует текст целиком.
+   *
+   * @param content Текст
+   * @return Токены и контрольные точки
+   */
+  public LexResult lex(String content) {
+    var lexer = newLexer(CharStreams.fromString(content));
+    var tokens = new ArrayList<RelocatableToken>();
+    lex(lexer, new OffsetCursor(content)::offset, tokens, 0, 0, null);
+    return new LexResult(new RelocatableTokenList(tokens));
+  }
+
+  /**
+   * Лексирует текст после правки, переиспользуя токены исходного текста до и после измененного участка.
+   * <p>
+   * Текст после правки не собирается: лексер читает его из исходного текста и текста правки, начиная
+   * с контрольной точки перед правкой. Токены до и после измененного участка остаются в списке без
+   * копирования, позиции токенов после участка сдвигаются вместе с фрагментами списка.
+   *
+   * @param previous        Результат лексирования исходного текста
+   * @param previousContent Исходный текст
+   * @param edit            Правка исходного текста
+   * @return Токены и контрольные точки текста после правки
+   */
+  public LexResult relex(LexResult previous, String previousContent, TextEdit edit) {
+    edit.checkRange(previousContent);
+    var tokens = previous.tokens();
+
+    // предыдущий токен мог заглядывать вперед за свою границу, поэтому начинаем со строки раньше
+    var fromIndex = previousCheckpoint(tokens, tokens.tokenBefore(edit.start()));
+    if (fromIndex > 0) {
+      fromIndex = previousCheckpoint(tokens, fromIndex - 1);
+    }
+    var from = tokens.token(fromIndex);
+    var checkpoint = Objects.requireNonNull(from.getCheckpoint());
+
+    var editStart = from.getStartIndex() + previousContent.codePointCount(from.getOffset(), edit.start());
+    var editText = edit.text().codePointCount(0, edit.text().length());
+    var delta = editText - previousContent.codePointCount(edit.start(), edit.end());
+    var offsetDelta = edit.text().length() - (edit.end() - edit.start());
+    var eof = tokens.token(tokens.size() - 1);
+
+    var input = new EditedCharStream(previousContent, edit, from.getStartIndex(), from.getOffset(),
+      eof.getStartIndex() + delta);
+    var lexer = newLexer(input);
+    input.seek(from.getStartIndex());
+    lexer.setLine(from.getLine());
+    lexer.setCharPositionInLine(from.getCharPositionInLine());
+    lexer._mode = checkpoint.mode();
+    for (var mode : checkpoint.modeStack()) {
+      lexer._modeStack.push(mode);
+    }
+    if (lexer instanceof BSLLexer bslLexer) {
+      bslLexer.setAsyncMethod(checkpoint.asyncMethod());
+    }
+
+    var newTokens = new ArrayList<RelocatableToken>();
+    var resync = new Resync(tokens, fromIndex + 1, editStart + editText, delta, offsetDelta);
+    lex(lexer, input::offset, newTokens, fromIndex, from.getLine() - 1, resync);
+    if (!resync.spliced) {
+      tokens.replace(fromIndex, tokens.size(), newTokens, delta, 0, offsetDelta);
+    }
+    return new LexResult(tokens);
+  }
+
+  /**
+   * Создает лексер, токены которого можно сдвигать в {@link RelocatableTokenList}.
+   *
+   * @param input Поток символов
+   * @return Подготовленный лексер
+   */
+  Lexer newLexer(CharStream input) {
+    var lexer = lexerFactory.get();
+    lexer.setTokenFactory(RelocatableToken.FACTORY);
+    ParserSupport.prepare(lexer, options);
+    lexer.removeErrorListeners();
+    lexer.setInputStream(input);
+    return lexer;
+  }
+
+  private static void lex(Lexer lexer,
+                          IntUnaryOperator offsets,
+                          List<RelocatableToken> tokens,
+                          int firstIndex,
+                          int previousLine,
+                          @Nullable Resync resync) {
+    var line = previousLine;
+    while (true) {
+      var mode = lexer._mode;
+      var modeStack = lexer._modeStack.toArray();
+      var asyncMethod = lexer instanceof BSLLexer bslLexer && bslLexer.isAsyncMethod();
+      var token = (RelocatableToken) lexer.nextToken();
+
+      var lineStart = token.getLine() > line;
+      line = token.getLine();
+      if (lineStart) {
+        var checkpoint = new LexResult.Checkpoint(mode, modeStack, asyncMethod);
+        if (resync != null && resync.splice(token, checkpoint, tokens)) {
+          return;
+        }
+        token.setCheckpoint(checkpoint);
+      }
+
+      token.setTokenIndex(firstIndex + tokens.size());
+      token.setOffset(offsets.applyAsInt(token.getStartIndex()));
+      tokens.add(token);
+      if (token.getType() == Token.EOF) {
+        token.setChannel(Lexer.HIDDEN);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Индекс ближайшего токена с контрольной точкой, не позже указанного.
+   */
+  private static int previousCheckpoint(RelocatableTokenList tokens, int index) {
+    var result = index;
+    // первый токен текста всегда начинает строку
+    while (result > 0 && tokens.token(result).getCheckpoint() == null) {
+      result--;
+    }
+    return result;
+  }
+
+  /**
+   * Последовательное преобразование индексов кодовых точек текста в смещения в символах {@link String}.
+   */
+  private static final class OffsetCursor {
+    private final String content;
+    private int index;
+    private int offset;
+
+    private OffsetCursor(String content) {
+      this.content = content;
+    }
+
+    private int offset(int target) {
+      offset = content.offsetByCodePoints(offset, target - index);
+      index = target;
+      return offset;
+    }
+  }
+
+  /**
+   * Поиск точки синхронизации нового потока токенов с прежним.
+   */
+  private static final class Resync {
+    private final RelocatableTokenList previous;
+    private final int editEnd;
+    private final int delta;
+    private final int offsetDelta;
+    private final int firstIndex;
+    private int index;
+    private boolean spliced;
+
+    private Resync(RelocatableTokenList previous, int index, int editEnd, int delta, int offsetDelta) {
+      this.previous = previous;
+      this.firstIndex = index - 1;
+      this.index = index;
+      this.editEnd = editEnd;
+      this.delta = delta;
+      this.offsetDelta = offsetDelta;
+    }
+
+    /**
+     * Если новый токен начала строки совпадает с прежним по позиции и состоянию лексера, дальнейшие
+     * токены будут теми же: заменяет в прежнем списке токены между началом лексирования и найденным
+     * токеном новыми, а остаток прежних токенов сдвигает.
+     */
+    private boolean splice(RelocatableToken token, LexResult.Checkpoint checkpoint, List<RelocatableToken> tokens) {
+      if (token.getType() == Token.EOF || token.getStartIndex() < editEnd) {
+        return false;
+      }
+
+      // прежние токены еще не сдвинуты
+      var size = previous.size();
+      while (index < size && (previous.token(index).getCheckpoint() == null
+        || previous.token(index).getStartIndex() + delta < token.getStartIndex())) {
+        index++;
+      }
+      if (index == size) {
+        return false;
+      }
+
+      var oldToken = previous.token(index);
+      var old = Objects.requireNonNull(oldToken.getCheckpoint());
+      if (oldToken.getStartIndex() + delta != token.getStartIndex()
+        || oldToken.getCharPositionInLine() != token.getCharPositionInLine()
+        || old.mode() != checkpoint.mode()
+        || !Arrays.equals(old.modeStack(), checkpoint.modeStack())
+        || old.asyncMethod() != checkpoint.asyncMethod()) {
+        return false;
+      }
+
+      previous.replace(firstIndex, index, tokens, delta, token.getLine() - oldToken.getLine(), offsetDelta);
+      spliced = true;
+      return true;
+    }
+  }
+}
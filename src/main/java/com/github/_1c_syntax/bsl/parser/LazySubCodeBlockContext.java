@@ -0,0 +1,174 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Тело метода, разбираемое при первом обращении.
+ * <p>
+ * Создается при разборе с настройкой {@link TokenizerOptions#isLazySubCodeBlocks()}. Границы тела
+ * ({@link #getStart()}, {@link #getStop()}) известны сразу, потомки строятся при первом вызове методов
+ * доступа к ним: {@link #getChildCount()}, {@link #getChild(int)}, {@link #subVars()}, {@link #codeBlock()}
+ * и т.п. Обход дерева слушателями и посетителями, а также {@link #getText()} и {@link #toStringTree}
+ * выполняются через эти методы и разбирают тело автоматически. Поле {@link #children} и признак
+ * {@link #exception} до первого обращения остаются пустыми: код, читающий поля напрямую, должен
+ * предварительно вызвать {@link #getChildCount()}.
+ * <p>
+ * Синтаксические ошибки тела передаются слушателям ошибок исходного парсера и дописываются
+ * в его {@link SyntaxErrorLog} при разборе тела.
+ * <p>
+ * Признак отмены из настроек разбора к разбору тела не применяется; прервать разбор тела можно,
+ * разобрав его явно методом {@link #parse(CancellationToken)}.
+ * <p>
+ * Разбор тела потокобезопасен и выполняется не более одного раза.
+ */
+public final class LazySubCodeBlockContext extends BSLParser.SubCodeBlockContext {
+
+  private final LazySubCodeBlocks.Source source;
+  private final Token subStart;
+  private volatile boolean parsed;
+
+  LazySubCodeBlockContext(ParserRuleContext parent, int invokingState,
+                          LazySubCodeBlocks.Source source, Token subStart, Token start, Token stop) {
+    super(parent, invokingState);
+    this.source = source;
+    this.subStart = subStart;
+    this.start = start;
+    this.stop = stop;
+  }
+
+  /**
+   * Признак того, что тело метода уже разобрано.
+   *
+   * @return {@code true}, если потомки построены
+   */
+  public boolean isParsed() {
+    return parsed;
+  }
+
+  @Override
+  public ParseTree getChild(int i) {
+    ensureParsed();
+    return super.getChild(i);
+  }
+
+  @Override
+  public <T extends ParseTree> T getChild(Class<? extends T> ctxType, int i) {
+    ensureParsed();
+    return super.getChild(ctxType, i);
+  }
+
+  @Override
+  public int getChildCount() {
+    ensureParsed();
+    return super.getChildCount();
+  }
+
+  @Override
+  public TerminalNode getToken(int ttype, int i) {
+    ensureParsed();
+    return super.getToken(ttype, i);
+  }
+
+  @Override
+  public List<TerminalNode> getTokens(int ttype) {
+    ensureParsed();
+    return super.getTokens(ttype);
+  }
+
+  @Override
+  public List<Token> getTokens() {
+    ensureParsed();
+    return super.getTokens();
+  }
+
+  @Override
+  public <T extends ParserRuleContext> T getRuleContext(Class<? extends T> ctxType, int i) {
+    ensureParsed();
+    return super.getRuleContext(ctxType, i);
+  }
+
+  @Override
+  public <T extends ParserRuleContext> List<T> getRuleContexts(Class<? extends T> ctxType) {
+    ensureParsed();
+    return super.getRuleContexts(ctxType);
+  }
+
+  /**
+   * Разбирает тело метода, если оно еще не разобрано, с возможностью прервать разбор. При обращении
+   * к потомкам тело разбирается без прерывания. Если разбор прерван, тело остается неразобранным
+   * и будет разобрано при следующем обращении.
+   *
+   * @param cancellationToken Признак отмены разбора тела
+   * @throws ParseCancelledException Разбор тела прерван
+   */
+  public void parse(CancellationToken cancellationToken) {
+    ensureParsed(cancellationToken);
+  }
+
+  LazySubCodeBlocks.Source source() {
+    return source;
+  }
+
+  /**
+   * Индекс первого токена метода. Индекс читается из токена при каждом обращении: после повторного разбора
+   * другого метода {@link BSLIncrementalParser} токены сдвигаются в том же списке.
+   *
+   * @return Индекс первого токена метода
+   */
+  int subStartIndex() {
+    return subStart.getTokenIndex();
+  }
+
+  private void ensureParsed() {
+    ensureParsed(null);
+  }
+
+  private void ensureParsed(@Nullable CancellationToken cancellationToken) {
+    if (parsed) {
+      return;
+    }
+    synchronized (this) {
+      if (!parsed) {
+        adopt(source.parseSubCodeBlock(subStartIndex(), cancellationToken));
+        parsed = true;
+      }
+    }
+  }
+
+  private void adopt(BSLParser.SubCodeBlockContext parsedBlock) {
+    if (parsedBlock.children != null) {
+      parsedBlock.children.forEach(child -> child.setParent(this));
+    }
+    children = parsedBlock.children;
+    exception = parsedBlock.exception;
+    start = parsedBlock.start;
+    stop = parsedBlock.stop;
+  }
+}
@@ -0,0 +1,513 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Разбор модуля BSL с отложенным разбором тел методов.
+ * <p>
+ * Токены тел процедур и функций скрываются от парсера, поэтому сразу строится только каркас модуля:
+ * аннотации и переменные модуля, объявления методов с завершающими их ключевыми словами и код вне методов.
+ * Тело каждого метода заменяется на {@link LazySubCodeBlockContext} и разбирается при первом обращении.
+ * Признак отмены разбора из настроек к таким обращениям не применяется: дерево уже построено, и отмена
+ * давно завершенного разбора не должна ломать последующую работу с ним.
+ * <p>
+ * Границы тел определяются по токенам: от конца объявления метода до ближайшего {@code КонецПроцедуры}
+ * или {@code КонецФункции}. Если какой-либо метод не закрыт или каркас не совпал с найденными границами,
+ * модуль разбирается целиком.
+ * <p>
+ * Ошибки каркаса передаются слушателям парсера, только если каркас принят; при разборе модуля целиком
+ * они отбрасываются. Ошибки тел передаются тем же слушателям и дописываются в {@link SyntaxErrorLog}
+ * разбора при разборе тела.
+ * <p>
+ * В параллельном режиме тела методов после построения каркаса разбираются одновременно на заданном
+ * исполнителе и встраиваются в дерево как обычные {@link BSLParser.SubCodeBlockContext}.
+ */
+@UtilityClass
+class LazySubCodeBlocks {
+
+  private static final int MIN_TASK_TOKENS = 4096;
+
+  /**
+   * Корневое правило разбора модуля в соответствии с настройками.
+   *
+   * @param options Настройки разбора
+   * @return Корневое правило
+   */
+  Function<BSLParser, BSLParser.FileContext> rootRule(TokenizerOptions options) {
+    var executor = options.getSubCodeBlockExecutor();
+    if (executor != null) {
+      return parser -> parallelFile(parser, options, executor);
+    }
+    if (options.isLazySubCodeBlocks()) {
+      return parser -> file(parser, options);
+    }
+    return BSLParser::file;
+  }
+
+  /**
+   * Строит каркас модуля с отложенным разбором тел методов.
+   *
+   * @param parser  Парсер, поток токенов которого является {@link BufferedTokenStream}
+   * @param options Настройки разбора тел методов
+   * @return Дерево разбора модуля
+   */
+  BSLParser.FileContext file(BSLParser parser, TokenizerOptions options) {
+    SkeletonTokenStream skeleton;
+    if (parser.getTokenStream() instanceof SkeletonTokenStream current) {
+      // повторный вызов после отката SLL-разбора
+      skeleton = current;
+    } else if (parser.getTokenStream() instanceof BufferedTokenStream tokenStream) {
+      tokenStream.fill();
+      skeleton = new SkeletonTokenStream(tokenStream.getTokens());
+      parser.setTokenStream(skeleton);
+    } else {
+      return parser.file();
+    }
+
+    var errorListeners = ParserSupport.errorListeners(parser);
+    var errorLog = ParserSupport.syntaxErrorLog(parser);
+    var skeletonErrors = new BufferedErrorListener();
+    var listeners = List.copyOf(parser.getErrorListeners());
+    parser.removeErrorListeners();
+    parser.addErrorListener(skeletonErrors);
+    BSLParser.FileContext tree;
+    try {
+      tree = parser.file();
+    } finally {
+      parser.removeErrorListeners();
+      listeners.forEach(parser::addErrorListener);
+    }
+
+    var source = new Source(skeleton.getTokens(), options, errorListeners, errorLog);
+    if (skeleton.bodies.isEmpty() || attachBodies(tree, skeleton, source)) {
+      skeletonErrors.replay(listeners);
+      return tree;
+    }
+
+    parser.setTokenStream(new PrefilledTokenStream(skeleton.getTokens()));
+    return parser.file();
+  }
+
+  /**
+   * Строит каркас модуля и разбирает тела методов параллельно. Разобранные тела встраиваются в дерево
+   * вместо отложенных, результат не отличается от последовательного разбора.
+   *
+   * @param parser   Парсер, поток токенов которого является {@link BufferedTokenStream}
+   * @param options  Настройки разбора тел методов
+   * @param executor Исполнитель задач разбора
+   * @return Дерево разбора модуля
+   */
+  BSLParser.FileContext parallelFile(BSLParser parser, TokenizerOptions options, Executor executor) {
+    var tree = file(parser, options);
+    var subs = tree.subs();
+    if (subs == null) {
+      return tree;
+    }
+
+    var blocks = new ArrayList<LazySubCodeBlockContext>();
+    for (var sub : subs.sub()) {
+      var method = sub.procedure() != null ? sub.procedure() : sub.function();
+      if (method != null && method.getRuleContext(BSLParser.SubCodeBlockContext.class, 0)
+        instanceof LazySubCodeBlockContext block) {
+        blocks.add(block);
+      }
+    }
+
+    // тела разбираются в рамках текущего разбора и прерываются вместе с ним
+    var cancellationToken = CancellableParserATNSimulator.cancellationToken(parser);
+    var tasks = new ArrayList<CompletableFuture<ParsedGroup>>();
+    var from = 0;
+    while (from < blocks.size()) {
+      // мелкие методы объединяются в одну задачу, чтобы накладные расходы не превышали выигрыш
+      var to = from;
+      var size = 0;
+      while (to < blocks.size() && size < MIN_TASK_TOKENS) {
+        var block = blocks.get(to++);
+        size += block.getStop().getTokenIndex() - block.getStart().getTokenIndex() + 1;
+      }
+      var group = blocks.subList(from, to);
+      tasks.add(CompletableFuture.supplyAsync(() -> parseGroup(group, cancellationToken), executor));
+      from = to;
+    }
+
+    var index = 0;
+    for (var task : tasks) {
+      var group = join(task);
+      // ошибки передаются слушателям в потоке разбора и в порядке следования методов
+      group.errors().replay(group.source().errorListeners());
+      group.source().appendErrors(group.errorLog());
+      for (var parsedBlock : group.blocks()) {
+        var block = blocks.get(index++);
+        var method = (ParserRuleContext) block.getParent();
+        parsedBlock.setParent(method);
+        parsedBlock.invokingState = block.invokingState;
+        method.children.set(method.children.indexOf(block), parsedBlock);
+      }
+    }
+    return tree;
+  }
+
+  private ParsedGroup parseGroup(List<LazySubCodeBlockContext> group, @Nullable CancellationToken cancellationToken) {
+    var source = group.get(0).source();
+    var parser = source.newParser();
+    var errors = new BufferedErrorListener();
+    parser.addErrorListener(errors);
+    SyntaxErrorLog errorLog = null;
+
+    var result = new ArrayList<BSLParser.SubCodeBlockContext>(group.size());
+    for (var block : group) {
+      result.add(source.parseSubCodeBlock(parser, block.subStartIndex(), cancellationToken));
+      // журнал парсера очищается перед разбором следующего метода
+      var bodyLog = SyntaxErrorLog.of(parser);
+      if (bodyLog != null && !bodyLog.isEmpty()) {
+        if (errorLog == null) {
+          errorLog = new SyntaxErrorLog(parser);
+        }
+        errorLog.addAll(bodyLog);
+      }
+    }
+    return new ParsedGroup(source, result, errors, errorLog);
+  }
+
+  private <T> T join(CompletableFuture<T> task) {
+    try {
+      return task.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private boolean attachBodies(BSLParser.FileContext tree, SkeletonTokenStream skeleton, Source source) {
+    var subs = tree.subs();
+    if (subs == null) {
+      return false;
+    }
+
+    var attached = 0;
+    for (var sub : subs.sub()) {
+      ParserRuleContext method;
+      TerminalNode end;
+      BSLParser.SubCodeBlockContext block;
+      if (sub.procedure() != null) {
+        method = sub.procedure();
+        end = sub.procedure().ENDPROCEDURE_KEYWORD();
+        block = sub.procedure().subCodeBlock();
+      } else if (sub.function() != null) {
+        method = sub.function();
+        end = sub.function().ENDFUNCTION_KEYWORD();
+        block = sub.function().subCodeBlock();
+      } else {
+        continue;
+      }
+      if (end == null || block == null) {
+        continue;
+      }
+
+      var body = skeleton.bodies.get(end.getSymbol().getTokenIndex());
+      if (body == null) {
+        continue;
+      }
+
+      var lazyBlock = new LazySubCodeBlockContext(method, block.invokingState, source,
+        method.getStart(), body.start(), body.stop());
+      var index = method.children.indexOf(block);
+      method.children.set(index, lazyBlock);
+      attached++;
+    }
+    return attached == skeleton.bodies.size();
+  }
+
+  /**
+   * Токены модуля и настройки, необходимые для разбора тел методов.
+   *
+   * @param tokens         Токены модуля
+   * @param options        Настройки разбора
+   * @param errorListeners Слушатели ошибок исходного парсера
+   * @param errorLog       Журнал ошибок исходного разбора; {@code null} - журнал не ведется
+   */
+  record Source(List<Token> tokens, TokenizerOptions options, List<ANTLRErrorListener> errorListeners,
+                @Nullable SyntaxErrorLog errorLog) {
+
+    /**
+     * Разбирает метод, начинающийся с указанного токена, и возвращает его тело. Ошибки тела передаются
+     * слушателям и журналу исходного разбора.
+     *
+     * @param subStartIndex     Индекс первого токена метода
+     * @param cancellationToken Признак отмены; {@code null} - разбор не прерывается
+     * @return Тело метода
+     */
+    BSLParser.SubCodeBlockContext parseSubCodeBlock(int subStartIndex, @Nullable CancellationToken cancellationToken) {
+      var parser = newParser();
+      errorListeners.forEach(parser::addErrorListener);
+      var block = parseSubCodeBlock(parser, subStartIndex, cancellationToken);
+      appendErrors(SyntaxErrorLog.of(parser));
+      return block;
+    }
+
+    /**
+     * Дописывает ошибки разбора тел в журнал исходного разбора. Тела могут разбираться из разных потоков,
+     * поэтому запись в журнал синхронизирована по нему.
+     *
+     * @param bodyErrors Ошибки разбора тел
+     */
+    void appendErrors(@Nullable SyntaxErrorLog bodyErrors) {
+      if (errorLog == null || bodyErrors == null) {
+        return;
+      }
+      synchronized (errorLog) {
+        errorLog.addAll(bodyErrors);
+      }
+    }
+
+    /**
+     * Создает парсер для разбора тел методов. Парсер можно использовать для разбора нескольких методов
+     * подряд в одном потоке.
+     *
+     * @return Новый парсер
+     */
+    BSLParser newParser() {
+      var parser = new BSLParser(new PrefilledTokenStream(tokens));
+      parser.removeErrorListener(ConsoleErrorListener.INSTANCE);
+      return parser;
+    }
+
+    /**
+     * Разбирает метод, начинающийся с указанного токена, указанным парсером и возвращает его тело.
+     *
+     * @param parser            Парсер, созданный {@link #newParser()}
+     * @param subStartIndex     Индекс первого токена метода
+     * @param cancellationToken Признак отмены; {@code null} - разбор не прерывается
+     * @return Тело метода
+     */
+    BSLParser.SubCodeBlockContext parseSubCodeBlock(BSLParser parser, int subStartIndex,
+                                                    @Nullable CancellationToken cancellationToken) {
+      var sub = ParserSupport.parseNested(parser, (BSLParser p) -> {
+        p.reset();
+        p.getTokenStream().seek(subStartIndex);
+        return p.sub();
+      }, options, cancellationToken);
+
+      if (sub.procedure() != null) {
+        return sub.procedure().subCodeBlock();
+      }
+      return sub.function().subCodeBlock();
+    }
+  }
+
+  /**
+   * Тела группы методов, разобранные одной задачей, и их ошибки.
+   *
+   * @param source   Источник тел методов
+   * @param blocks   Тела методов
+   * @param errors   Ошибки для слушателей
+   * @param errorLog Ошибки для журнала разбора
+   */
+  private record ParsedGroup(Source source, List<BSLParser.SubCodeBlockContext> blocks,
+                             BufferedErrorListener errors, @Nullable SyntaxErrorLog errorLog) {
+  }
+
+  /**
+   * Слушатель, накапливающий синтаксические ошибки для последующей передачи другим слушателям.
+   */
+  private static final class BufferedErrorListener extends BaseErrorListener {
+
+    private final List<BufferedError> errors = new ArrayList<>();
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, @Nullable Object offendingSymbol, int line,
+                            int charPositionInLine, String msg, @Nullable RecognitionException e) {
+      errors.add(new BufferedError(recognizer, offendingSymbol, line, charPositionInLine, msg, e));
+    }
+
+    void replay(List<? extends ANTLRErrorListener> listeners) {
+      for (var error : errors) {
+        for (var listener : listeners) {
+          listener.syntaxError(error.recognizer(), error.offendingSymbol(), error.line(),
+            error.charPositionInLine(), error.msg(), error.e());
+        }
+      }
+    }
+
+    private record BufferedError(Recognizer<?, ?> recognizer, @Nullable Object offendingSymbol, int line,
+                         int charPositionInLine, String msg, @Nullable RecognitionException e) {
+    }
+  }
+
+  /**
+   * Границы тела метода по токенам основного канала.
+   *
+   * @param start Первый токен тела
+   * @param stop  Последний токен тела
+   */
+  private record Body(Token start, Token stop) {
+  }
+
+  /**
+   * Поток токенов, скрывающий от парсера тела методов.
+   */
+  private static final class SkeletonTokenStream extends PrefilledTokenStream {
+
+    private final BitSet hidden = new BitSet();
+    private final Map<Integer, Body> bodies = new HashMap<>();
+
+    SkeletonTokenStream(List<Token> tokens) {
+      super(tokens);
+      if (!findBodies()) {
+        hidden.clear();
+        bodies.clear();
+      }
+    }
+
+    @Override
+    protected int nextTokenOnChannel(int i, int channel) {
+      var size = tokens.size();
+      if (i >= size) {
+        return size - 1;
+      }
+      var index = i;
+      // EOF всегда последний и никогда не скрывается
+      while (index < size - 1 && (hidden.get(index) || tokens.get(index).getChannel() != channel)) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    protected int previousTokenOnChannel(int i, int channel) {
+      if (i >= tokens.size()) {
+        return tokens.size() - 1;
+      }
+      var index = i;
+      while (index >= 0) {
+        var token = tokens.get(index);
+        if (token.getType() == Token.EOF || (!hidden.get(index) && token.getChannel() == channel)) {
+          return index;
+        }
+        index--;
+      }
+      return index;
+    }
+
+    private boolean findBodies() {
+      var onChannel = new ArrayList<Token>();
+      for (var token : tokens) {
+        if (token.getChannel() == Token.DEFAULT_CHANNEL && token.getType() != Token.EOF) {
+          onChannel.add(token);
+        }
+      }
+
+      var i = 0;
+      while (i < onChannel.size()) {
+        var type = onChannel.get(i).getType();
+        if (type != BSLLexer.PROCEDURE_KEYWORD && type != BSLLexer.FUNCTION_KEYWORD) {
+          i++;
+          continue;
+        }
+        var bodyStart = declarationEnd(onChannel, i + 1);
+        if (bodyStart < 0) {
+          return false;
+        }
+        var bodyEnd = bodyStart;
+        while (bodyEnd < onChannel.size() && !isSubBoundary(onChannel.get(bodyEnd).getType())) {
+          bodyEnd++;
+        }
+        if (bodyEnd == onChannel.size() || !isSubEnd(type, onChannel.get(bodyEnd).getType())) {
+          // незакрытый метод: границы остальных методов не определены
+          return false;
+        }
+        if (bodyEnd > bodyStart) {
+          var start = onChannel.get(bodyStart);
+          var end = onChannel.get(bodyEnd);
+          hidden.set(start.getTokenIndex(), end.getTokenIndex());
+          bodies.put(end.getTokenIndex(), new Body(start, onChannel.get(bodyEnd - 1)));
+        }
+        i = bodyEnd + 1;
+      }
+      return true;
+    }
+
+    private static int declarationEnd(List<Token> onChannel, int from) {
+      // имя метода и открывающая скобка списка параметров
+      var i = from + 1;
+      if (i >= onChannel.size() || onChannel.get(i).getType() != BSLLexer.LPAREN) {
+        return -1;
+      }
+      var depth = 0;
+      for (; i < onChannel.size(); i++) {
+        var type = onChannel.get(i).getType();
+        if (type == BSLLexer.LPAREN) {
+          depth++;
+        } else if (type == BSLLexer.RPAREN && --depth == 0) {
+          i++;
+          break;
+        }
+      }
+      if (depth != 0) {
+        return -1;
+      }
+      if (i < onChannel.size() && onChannel.get(i).getType() == BSLLexer.EXPORT_KEYWORD) {
+        i++;
+      }
+      return i;
+    }
+
+    private static boolean isSubBoundary(int type) {
+      return type == BSLLexer.PROCEDURE_KEYWORD || type == BSLLexer.FUNCTION_KEYWORD
+        || type == BSLLexer.ENDPROCEDURE_KEYWORD || type == BSLLexer.ENDFUNCTION_KEYWORD;
+    }
+
+    private static boolean isSubEnd(int declarationType, int type) {
+      if (declarationType == BSLLexer.PROCEDURE_KEYWORD) {
+        return type == BSLLexer.ENDPROCEDURE_KEYWORD;
+      }
+      return type == BSLLexer.ENDFUNCTION_KEYWORD;
+    }
+  }
+}
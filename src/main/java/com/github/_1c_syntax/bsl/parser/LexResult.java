@@ -0,0 +1,75 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+
+/**
+ * Результат лексического анализа {@link IncrementalLexer}: токены текста и контрольные точки
+ * состояния лексера в начале строк.
+ * <p>
+ * Контрольная точка хранит режим, стек режимов и признак асинхронного метода лексера перед первым токеном строки,
+ * что позволяет после правки перелексировать текст не с начала, а с ближайшей строки перед правкой.
+ * Контрольные точки хранятся в первых токенах строк.
+ */
+public final class LexResult {
+
+  private final RelocatableTokenList tokens;
+
+  LexResult(RelocatableTokenList tokens) {
+    this.tokens = tokens;
+  }
+
+  /**
+   * Токены текста.
+   *
+   * @return Список токенов, последним идет EOF в скрытом канале
+   */
+  public List<Token> getTokens() {
+    return tokens;
+  }
+
+  /**
+   * Количество контрольных точек.
+   *
+   * @return Количество контрольных точек
+   */
+  public int getCheckpointCount() {
+    return tokens.checkpointCount();
+  }
+
+  RelocatableTokenList tokens() {
+    return tokens;
+  }
+
+  /**
+   * Состояние лексера перед первым токеном строки.
+   *
+   * @param mode        Текущий режим лексера
+   * @param modeStack   Стек режимов лексера
+   * @param asyncMethod Признак асинхронного метода лексера BSL
+   */
+  record Checkpoint(int mode, int[] modeStack, boolean asyncMethod) {
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Распознавание частых токенов лексеров BSL и языка запросов без обращения к ATN и DFA.
+ * <p>
+ * Пробельные символы и однострочные комментарии занимают большую часть текста модулей, поэтому
+ * в основном режиме лексера они выделяются простым циклом по символам. Результат совпадает
+ * с правилами {@code WHITE_SPACE} и {@code LINE_COMMENT} грамматик, прочие токены распознает
+ * сгенерированный лексер.
+ */
+@UtilityClass
+class LexerFastPath {
+
+  /**
+   * Распознает пробельные символы или однострочный комментарий лексера BSL.
+   *
+   * @param lexer Лексер BSL
+   * @return Токен или {@code null}, если токен должен распознать сгенерированный лексер
+   */
+  @Nullable
+  Token nextBslTrivia(BSLLexer lexer) {
+    if (lexer._mode != Lexer.DEFAULT_MODE || lexer._hitEOF) {
+      return null;
+    }
+    var input = lexer.getInputStream();
+    var c = input.LA(1);
+    if (isWhiteSpace(c)) {
+      return emit(lexer, whiteSpaceLength(lexer), BSLLexer.WHITE_SPACE, Lexer.HIDDEN);
+    }
+    if (c == '/' && input.LA(2) == '/') {
+      return emit(lexer, commentLength(lexer), BSLLexer.LINE_COMMENT, Lexer.HIDDEN);
+    }
+    return null;
+  }
+
+  /**
+   * Распознает пробельные символы или однострочный комментарий лексера языка запросов.
+   * Комментарий запроса включает следующий за ним перевод строки.
+   *
+   * @param lexer Лексер языка запросов
+   * @return Токен или {@code null}, если токен должен распознать сгенерированный лексер
+   */
+  @Nullable
+  Token nextSdblTrivia(SDBLLexer lexer) {
+    if (lexer._mode != Lexer.DEFAULT_MODE || lexer._hitEOF) {
+      return null;
+    }
+    var input = lexer.getInputStream();
+    var c = input.LA(1);
+    if (isWhiteSpace(c)) {
+      return emit(lexer, whiteSpaceLength(lexer), SDBLLexer.WHITE_SPACE, Lexer.HIDDEN);
+    }
+    if (c == '/' && input.LA(2) == '/') {
+      var length = commentLength(lexer);
+      var next = input.LA(length + 1);
+      if (next == '\r' || next == '\n') {
+        length++;
+      }
+      return emit(lexer, length, SDBLLexer.LINE_COMMENT, Lexer.HIDDEN);
+    }
+    return null;
+  }
+
+  /**
+   * Выпускает токен из очередных символов входного потока так же, как {@link Lexer#nextToken()}
+   * после распознавания правила.
+   *
+   * @param lexer   Лексер
+   * @param length  Длина токена в символах
+   * @param type    Тип токена
+   * @param channel Канал токена
+   * @return Токен
+   */
+  Token emit(Lexer lexer, int length, int type, int channel) {
+    var input = lexer.getInputStream();
+    var tokenStartMarker = input.mark();
+    try {
+      var interpreter = lexer.getInterpreter();
+      lexer._token = null;
+      lexer._tokenStartCharIndex = input.index();
+      lexer._tokenStartCharPositionInLine = interpreter.getCharPositionInLine();
+      lexer._tokenStartLine = interpreter.getLine();
+      lexer._text = null;
+      for (var i = 0; i < length; i++) {
+        interpreter.consume(input);
+      }
+      lexer._type = type;
+      lexer._channel = channel;
+      if (input.LA(1) == IntStream.EOF) {
+        lexer._hitEOF = true;
+      }
+      lexer.emit();
+      return lexer._token;
+    } finally {
+      input.release(tokenStartMarker);
+    }
+  }
+
+  private static boolean isWhiteSpace(int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private static int whiteSpaceLength(Lexer lexer) {
+    var input = lexer.getInputStream();
+    var length = 1;
+    while (isWhiteSpace(input.LA(length + 1))) {
+      length++;
+    }
+    return length;
+  }
+
+  private static int commentLength(Lexer lexer) {
+    var input = lexer.getInputStream();
+    var length = 2;
+    while (true) {
+      var c = input.LA(length + 1);
+      if (c == '\r' || c == '\n' || c == IntStream.EOF) {
+        return length;
+      }
+      length++;
+    }
+  }
+}
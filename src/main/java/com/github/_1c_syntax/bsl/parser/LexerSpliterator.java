@@ -0,0 +1,78 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.WritableToken;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Последовательное чтение токенов из лексера без накопления списка токенов и без парсера.
+ * Токенам присваиваются индексы, как в {@link org.antlr.v4.runtime.CommonTokenStream}. Токен EOF в поток не попадает.
+ */
+final class LexerSpliterator extends Spliterators.AbstractSpliterator<Token> {
+
+  private final Lexer lexer;
+  private int tokenIndex;
+  private boolean finished;
+
+  private LexerSpliterator(Lexer lexer) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    this.lexer = lexer;
+  }
+
+  /**
+   * Поток токенов лексера с уже установленным потоком символов.
+   *
+   * @param lexer Лексер
+   * @return Последовательный поток токенов
+   */
+  static Stream<Token> stream(Lexer lexer) {
+    lexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    return StreamSupport.stream(new LexerSpliterator(lexer), false);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Token> action) {
+    if (finished) {
+      return false;
+    }
+    var token = lexer.nextToken();
+    if (token.getType() == Token.EOF) {
+      finished = true;
+      return false;
+    }
+    if (token instanceof WritableToken writableToken) {
+      writableToken.setTokenIndex(tokenIndex);
+    }
+    tokenIndex++;
+    action.accept(token);
+    return true;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие Java Flight Recorder: лексический анализ текста от первого токена до EOF.
+ * <p>
+ * Включается стандартными настройками JFR по имени {@code com.github._1c_syntax.bsl.parser.Lexing}.
+ * Если событие выключено в момент подготовки лексера, измерения не выполняются.
+ */
+@Name("com.github._1c_syntax.bsl.parser.Lexing")
+@Label("Lexing")
+@Category({"BSL Parser"})
+@Description("Tokenization of a BSL module or query text")
+class LexingEvent extends Event {
+
+  private static final EventType TYPE = EventType.getEventType(LexingEvent.class);
+
+  @Label("Grammar")
+  String grammar;
+
+  @Label("Input Size")
+  @Description("Text size in code points")
+  int inputSize;
+
+  @Label("Token Count")
+  int tokenCount;
+
+  static boolean isTypeEnabled() {
+    return TYPE.isEnabled();
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.FailedPredicateException;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+
+/**
+ * Обработка синтаксических ошибок, записывающая ошибки в {@link SyntaxErrorLog} без формирования
+ * сообщений и создающая исключения без стека вызовов. Восстановление после ошибок совпадает
+ * с {@link DefaultErrorStrategy}.
+ */
+final class LightweightErrorStrategy extends DefaultErrorStrategy {
+
+  private final SyntaxErrorLog log;
+
+  LightweightErrorStrategy(SyntaxErrorLog log) {
+    this.log = log;
+  }
+
+  /**
+   * Подключает обработку ошибок к парсеру. Стандартный симулятор ATN парсера заменяется симулятором
+   * с теми же DFA, создающим исключения без стека вызовов и проверяющим отмену разбора,
+   * см. {@link CancellableParserATNSimulator}.
+   *
+   * @param parser Парсер
+   * @param log    Журнал ошибок
+   */
+  static void install(Parser parser, SyntaxErrorLog log) {
+    parser.setErrorHandler(new LightweightErrorStrategy(log));
+
+    var interpreter = parser.getInterpreter();
+    if (interpreter.getClass() == ParserATNSimulator.class
+      || interpreter.getClass() == CancellableParserATNSimulator.class) {
+      var stackless = new StacklessParserATNSimulator(parser, interpreter.atn, interpreter.decisionToDFA,
+        interpreter.getSharedContextCache());
+      stackless.setPredictionMode(interpreter.getPredictionMode());
+      parser.setInterpreter(stackless);
+    }
+  }
+
+  SyntaxErrorLog log() {
+    return log;
+  }
+
+  @Override
+  public void reset(Parser recognizer) {
+    super.reset(recognizer);
+    log.clear();
+  }
+
+  @Override
+  public void reportError(Parser recognizer, RecognitionException e) {
+    if (inErrorRecoveryMode(recognizer)) {
+      return;
+    }
+    beginErrorCondition(recognizer);
+    if (e instanceof NoViableAltException noViableAlt) {
+      reportNoViableAlternative(recognizer, noViableAlt);
+    } else if (e instanceof InputMismatchException inputMismatch) {
+      reportInputMismatch(recognizer, inputMismatch);
+    } else if (e instanceof FailedPredicateException failedPredicate) {
+      reportFailedPredicate(recognizer, failedPredicate);
+    } else {
+      report(recognizer, SyntaxErrorLog.UNKNOWN, e.getOffendingToken(), recognizer.getState(), e, e);
+    }
+  }
+
+  @Override
+  protected void reportNoViableAlternative(Parser recognizer, NoViableAltException e) {
+    report(recognizer, SyntaxErrorLog.NO_VIABLE_ALTERNATIVE, e.getOffendingToken(), e.getOffendingState(), e, e);
+  }
+
+  @Override
+  protected void reportInputMismatch(Parser recognizer, InputMismatchException e) {
+    report(recognizer, SyntaxErrorLog.INPUT_MISMATCH, e.getOffendingToken(), e.getOffendingState(), e, e);
+  }
+
+  @Override
+  protected void reportFailedPredicate(Parser recognizer, FailedPredicateException e) {
+    report(recognizer, SyntaxErrorLog.FAILED_PREDICATE, e.getOffendingToken(),
+      recognizer.getContext().getRuleIndex(), e, e);
+  }
+
+  @Override
+  protected void reportUnwantedToken(Parser recognizer) {
+    if (inErrorRecoveryMode(recognizer)) {
+      return;
+    }
+    beginErrorCondition(recognizer);
+    report(recognizer, SyntaxErrorLog.EXTRANEOUS_INPUT, recognizer.getCurrentToken(), recognizer.getState(),
+      recognizer.getContext(), null);
+  }
+
+  @Override
+  protected void reportMissingToken(Parser recognizer) {
+    if (inErrorRecoveryMode(recognizer)) {
+      return;
+    }
+    beginErrorCondition(recognizer);
+    report(recognizer, SyntaxErrorLog.MISSING_TOKEN, recognizer.getCurrentToken(), recognizer.getState(),
+      recognizer.getContext(), null);
+  }
+
+  @Override
+  public Token recoverInline(Parser recognizer) {
+    var matchedSymbol = singleTokenDeletion(recognizer);
+    if (matchedSymbol != null) {
+      recognizer.consume();
+      return matchedSymbol;
+    }
+    if (singleTokenInsertion(recognizer)) {
+      return getMissingSymbol(recognizer);
+    }
+    if (nextTokensContext == null) {
+      throw new StacklessInputMismatchException(recognizer);
+    }
+    throw new StacklessInputMismatchException(recognizer, nextTokensState, nextTokensContext);
+  }
+
+  @Override
+  public void sync(Parser recognizer) {
+    if (inErrorRecoveryMode(recognizer)) {
+      return;
+    }
+    var state = recognizer.getInterpreter().atn.states.get(recognizer.getState());
+    var la = recognizer.getInputStream().LA(1);
+    var nextTokens = recognizer.getATN().nextTokens(state);
+    if (nextTokens.contains(la)) {
+      nextTokensContext = null;
+      nextTokensState = ATNState.INVALID_STATE_NUMBER;
+      return;
+    }
+    if (nextTokens.contains(Token.EPSILON)) {
+      if (nextTokensContext == null) {
+        nextTokensContext = recognizer.getContext();
+        nextTokensState = recognizer.getState();
+      }
+      return;
+    }
+
+    switch (state.getStateType()) {
+      case ATNState.BLOCK_START, ATNState.STAR_BLOCK_START, ATNState.PLUS_BLOCK_START, ATNState.STAR_LOOP_ENTRY -> {
+        if (singleTokenDeletion(recognizer) != null) {
+          return;
+        }
+        throw new StacklessInputMismatchException(recognizer);
+      }
+      case ATNState.PLUS_LOOP_BACK, ATNState.STAR_LOOP_BACK -> {
+        reportUnwantedToken(recognizer);
+        var expecting = recognizer.getExpectedTokens();
+        consumeUntil(recognizer, expecting.or(getErrorRecoverySet(recognizer)));
+      }
+      default -> {
+        // как и в DefaultErrorStrategy, прочие состояния не синхронизируются
+      }
+    }
+  }
+
+  private void report(Parser recognizer, int kind, Token token, int state, Object detail,
+                      RecognitionException e) {
+    log.add(kind, token, state, detail);
+    recognizer.notifyErrorListeners(token, SyntaxErrorLog.kindName(kind), e);
+  }
+
+  /**
+   * Ошибка несовпадения токена без стека вызовов.
+   */
+  private static final class StacklessInputMismatchException extends InputMismatchException {
+
+    StacklessInputMismatchException(Parser recognizer) {
+      super(recognizer);
+    }
+
+    StacklessInputMismatchException(Parser recognizer, int state, ParserRuleContext ctx) {
+      super(recognizer, state, ctx);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  /**
+   * Ошибка выбора альтернативы без стека вызовов.
+   */
+  private static final class StacklessNoViableAltException extends NoViableAltException {
+
+    StacklessNoViableAltException(Parser recognizer, TokenStream input, Token startToken, Token offendingToken,
+                                  ATNConfigSet deadEndConfigs, ParserRuleContext ctx) {
+      super(recognizer, input, startToken, offendingToken, deadEndConfigs, ctx);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  /**
+   * Симулятор ATN парсера, создающий ошибки выбора альтернативы без стека вызовов.
+   */
+  private static final class StacklessParserATNSimulator extends CancellableParserATNSimulator {
+
+    StacklessParserATNSimulator(Parser parser, ATN atn, DFA[] decisionToDFA,
+                                PredictionContextCache sharedContextCache) {
+      super(parser, atn, decisionToDFA, sharedContextCache);
+    }
+
+    @Override
+    protected NoViableAltException noViableAlt(TokenStream input, ParserRuleContext outerContext,
+                                               ATNConfigSet configs, int startIndex) {
+      return new StacklessNoViableAltException(parser, input, input.get(startIndex), input.LT(1), configs,
+        outerContext);
+    }
+  }
+}
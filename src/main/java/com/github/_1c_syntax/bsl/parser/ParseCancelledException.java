@@ -0,0 +1,50 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.Getter;
+
+/**
+ * Разбор прерван по {@link CancellationToken}.
+ * <p>
+ * В отличие от {@link org.antlr.v4.runtime.misc.ParseCancellationException}, которым парсер прерывает
+ * разбор при синтаксических ошибках, не перехватывается при двухэтапном разборе и всегда доходит
+ * до вызывающего кода.
+ */
+@Getter
+public class ParseCancelledException extends RuntimeException {
+
+  /**
+   * Разбор прерван из-за истечения отведенного времени, а не явной отмены.
+   */
+  private final boolean deadlineExceeded;
+
+  /**
+   * Создает исключение.
+   *
+   * @param deadlineExceeded {@code true}, если истекло отведенное время
+   */
+  public ParseCancelledException(boolean deadlineExceeded) {
+    super(deadlineExceeded ? "Parsing time budget exceeded" : "Parsing cancelled");
+    this.deadlineExceeded = deadlineExceeded;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+
+/**
+ * Показатели разбора одного текста.
+ * <p>
+ * Время лексического анализа измеряется от создания первого токена до создания токена EOF. Если парсер
+ * запрашивает токены по мере разбора, оно пересекается со временем разбора. Прирост DFA учитывает все
+ * состояния, добавленные в кэши предсказаний лексера и парсера за время обработки текста, в том числе
+ * одновременно работающими потоками.
+ *
+ * @param grammar          Грамматика парсера
+ * @param sourceName       Имя источника текста, например, путь к файлу, см. {@link CharStream#getSourceName()}
+ * @param inputSize        Размер текста в символах (кодовых точках)
+ * @param tokenCount       Количество токенов, включая EOF
+ * @param lexingNanos      Время лексического анализа в наносекундах
+ * @param parsingNanos     Время синтаксического разбора в наносекундах
+ * @param fallbackCount    Количество повторных разборов полным LL после неудачи SLL
+ * @param syntaxErrorCount Количество синтаксических ошибок
+ * @param recoveryCount    Количество токенов, пропущенных или вставленных при восстановлении после ошибок
+ * @param dfaStateGrowth   Количество состояний DFA, добавленных при обработке текста
+ */
+public record ParseMetrics(Grammar grammar,
+                           String sourceName,
+                           int inputSize,
+                           int tokenCount,
+                           long lexingNanos,
+                           long parsingNanos,
+                           int fallbackCount,
+                           int syntaxErrorCount,
+                           int recoveryCount,
+                           int dfaStateGrowth) {
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Накопитель показателей разбора пакета текстов.
+ * <p>
+ * Сохраняет показатели каждого разобранного текста и вычисляет по ним процентили, суммы и самые
+ * медленные тексты, например:
+ * <pre>{@code
+ * var aggregator = new ParseMetricsAggregator();
+ * var options = TokenizerOptions.builder().metricsListener(aggregator).build();
+ * ...
+ * var p99 = aggregator.percentile(ParseMetrics::parsingNanos, 0.99);
+ * }</pre>
+ * <p>
+ * Экземпляр потокобезопасен.
+ */
+public final class ParseMetricsAggregator implements ParseMetricsListener {
+
+  private final List<ParseMetrics> samples = new ArrayList<>();
+
+  @Override
+  public synchronized void onParse(ParseMetrics metrics) {
+    samples.add(metrics);
+  }
+
+  /**
+   * Количество учтенных текстов.
+   *
+   * @return Количество текстов
+   */
+  public synchronized int getCount() {
+    return samples.size();
+  }
+
+  /**
+   * Копия накопленных показателей в порядке поступления.
+   *
+   * @return Показатели разбора текстов
+   */
+  public synchronized List<ParseMetrics> getSamples() {
+    return List.copyOf(samples);
+  }
+
+  /**
+   * Процентиль показателя по методу ближайшего ранга.
+   *
+   * @param metric   Показатель, например, {@code ParseMetrics::parsingNanos}
+   * @param quantile Доля от 0 до 1, например, 0.99 для 99-го процентиля
+   * @return Значение процентиля или 0, если показателей нет
+   */
+  public long percentile(ToLongFunction<ParseMetrics> metric, double quantile) {
+    if (quantile < 0 || quantile > 1) {
+      throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+    }
+    var values = values(metric);
+    if (values.length == 0) {
+      return 0;
+    }
+    Arrays.sort(values);
+    var rank = (int) Math.ceil(quantile * values.length);
+    return values[Math.max(rank, 1) - 1];
+  }
+
+  /**
+   * Сумма показателя по всем текстам.
+   *
+   * @param metric Показатель, например, {@code ParseMetrics::fallbackCount}
+   * @return Сумма значений
+   */
+  public long sum(ToLongFunction<ParseMetrics> metric) {
+    return Arrays.stream(values(metric)).sum();
+  }
+
+  /**
+   * Тексты с наибольшим значением показателя.
+   *
+   * @param metric Показатель, например, {@code ParseMetrics::parsingNanos}
+   * @param limit  Максимальное количество текстов
+   * @return Показатели текстов по убыванию значения
+   */
+  public List<ParseMetrics> top(ToLongFunction<ParseMetrics> metric, int limit) {
+    return getSamples().stream()
+      .sorted(Comparator.comparingLong(metric).reversed())
+      .limit(limit)
+      .toList();
+  }
+
+  /**
+   * Удаляет накопленные показатели.
+   */
+  public synchronized void reset() {
+    samples.clear();
+  }
+
+  private synchronized long[] values(ToLongFunction<ParseMetrics> metric) {
+    var values = new long[samples.size()];
+    for (var i = 0; i < values.length; i++) {
+      values[i] = metric.applyAsLong(samples.get(i));
+    }
+    return values;
+  }
+}
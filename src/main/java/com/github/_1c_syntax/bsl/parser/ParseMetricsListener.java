@@ -0,0 +1,46 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+/**
+ * Получатель показателей разбора, см. {@link TokenizerOptions#getMetricsListener()}.
+ * <p>
+ * Вызывается в потоке разбора после построения дерева каждого текста, поэтому должен быть потокобезопасным
+ * и быстрым. Тексты, только разбитые на токены, не учитываются.
+ */
+@FunctionalInterface
+public interface ParseMetricsListener {
+
+  /**
+   * Получатель, игнорирующий показатели. Используется по умолчанию и не добавляет накладных расходов
+   * на измерения.
+   */
+  ParseMetricsListener NOOP = metrics -> {
+  };
+
+  /**
+   * Обрабатывает показатели разбора текста.
+   *
+   * @param metrics Показатели разбора
+   */
+  void onParse(ParseMetrics metrics);
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Дисковый кэш результатов разбора модулей BSL и текстов запросов.
+ * <p>
+ * Токены и дерево разбора сохраняются в компактном двоичном виде, по файлу на каждый текст. Ключом записи
+ * служит хэш SHA-256 текста вместе с отпечатками {@link Grammar#fingerprint()} лексера и парсера, поэтому
+ * после изменения любой грамматики прежние записи не используются. Загрузка записи значительно быстрее
+ * повторного разбора.
+ * <p>
+ * Каталог кэша может одновременно использоваться несколькими процессами: запись выполняется во временный
+ * файл, который затем атомарно переименовывается, поэтому читатели не видят частично записанных данных.
+ * Поврежденная или нечитаемая запись считается промахом и перезаписывается. Ошибки записи не прерывают
+ * разбор: результат возвращается, но не сохраняется.
+ * <p>
+ * Экземпляр потокобезопасен.
+ */
+public final class ParseResultCache {
+
+  private static final int MAGIC = 0x42534C52; // BSLR
+  private static final int FORMAT_VERSION = 1;
+
+  private final Path directory;
+  private final TokenizerPool<BSLParser, BSLParser.FileContext> bslPool;
+  private final TokenizerPool<SDBLParser, SDBLParser.QueryPackageContext> sdblPool;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder writeFailures = new LongAdder();
+
+  /**
+   * Создает кэш с настройками разбора по умолчанию.
+   *
+   * @param directory Каталог кэша, создается при первой записи
+   */
+  public ParseResultCache(Path directory) {
+    this(directory, TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Создает кэш.
+   *
+   * @param directory Каталог кэша, создается при первой записи
+   * @param options   Настройки разбора при промахе кэша
+   */
+  public ParseResultCache(Path directory, TokenizerOptions options) {
+    this.directory = directory;
+    this.bslPool = TokenizerPool.bsl(options);
+    this.sdblPool = TokenizerPool.sdbl(options);
+  }
+
+  /**
+   * Возвращает результат разбора модуля BSL из кэша или разбирает модуль и сохраняет результат.
+   *
+   * @param content Текст модуля
+   * @return Токены и дерево разбора
+   */
+  public ParseResult<BSLParser.FileContext> parseBsl(String content) {
+    return parse(content, Grammar.BSL_LEXER, Grammar.BSL_PARSER, BSLParser.class, bslPool);
+  }
+
+  /**
+   * Возвращает результат разбора текста запроса из кэша или разбирает текст и сохраняет результат.
+   *
+   * @param content Текст запроса
+   * @return Токены и дерево разбора
+   */
+  public ParseResult<SDBLParser.QueryPackageContext> parseSdbl(String content) {
+    return parse(content, Grammar.SDBL_LEXER, Grammar.SDBL_PARSER, SDBLParser.class, sdblPool);
+  }
+
+  /**
+   * Количество результатов, загруженных из кэша.
+   *
+   * @return Количество попаданий
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Количество текстов, разобранных из-за отсутствия или непригодности записи.
+   *
+   * @return Количество промахов
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Количество результатов, которые не удалось сохранить.
+   *
+   * @return Количество ошибок записи
+   */
+  public long getWriteFailureCount() {
+    return writeFailures.sum();
+  }
+
+  private <P extends Parser, T extends ParserRuleContext> ParseResult<T> parse(String content,
+                                                                              Grammar lexer,
+                                                                              Grammar parser,
+                                                                              Class<P> parserClass,
+                                                                              TokenizerPool<P, T> pool) {
+    var file = file(content, lexer, parser);
+    ParseResult<T> cached = read(file, content, parserClass);
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+
+    misses.increment();
+    var result = pool.parse(content);
+    write(file, content, result);
+    return result;
+  }
+
+  private <T extends ParserRuleContext> @Nullable ParseResult<T> read(Path file, String content,
+                                                                      Class<? extends Parser> parserClass) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (IOException e) {
+      // записи нет или она недоступна
+      return null;
+    }
+
+    var in = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readInt() != content.length()) {
+        return null;
+      }
+      return ParseResultCodec.read(in, parserClass, SourceCharStreams.fromString(content));
+    } catch (IOException | RuntimeException e) {
+      // поврежденная запись будет перезаписана
+      return null;
+    }
+  }
+
+  private void write(Path file, String content, ParseResult<?> result) {
+    Path temp = null;
+    try {
+      Files.createDirectories(file.getParent());
+      temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(content.length());
+        ParseResultCodec.write(out, result, SourceCharStreams.fromString(content));
+      }
+      try {
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+    } catch (IOException | RuntimeException e) {
+      writeFailures.increment();
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          // временный файл не мешает другим процессам и не используется при чтении
+        }
+      }
+    }
+  }
+
+  private Path file(String content, Grammar lexer, Grammar parser) {
+    var key = Digests.sha256Hex(lexer.fingerprint(), parser.fingerprint(), content);
+    return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".bin");
+  }
+}
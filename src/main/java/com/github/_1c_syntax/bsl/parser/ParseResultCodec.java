@@ -0,0 +1,438 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ErrorNodeImpl;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import org.jspecify.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Двоичное представление результата разбора: токенов и дерева разбора.
+ * <p>
+ * Текст токенов не записывается, а восстанавливается из исходного текста, поэтому для чтения требуется
+ * тот же текст, что и при записи. Узлы дерева восстанавливаются сгенерированными классами контекстов
+ * парсера вместе с метками элементов правил ({@code name=rule}) и признаками синтаксических ошибок.
+ */
+@UtilityClass
+class ParseResultCodec {
+
+  private static final int RULE = 0;
+  private static final int TERMINAL = 1;
+  private static final int ERROR = 2;
+  private static final int DETACHED_ERROR = 3;
+
+  private static final ClassValue<ContextFactory> CONTEXT_FACTORIES = new ClassValue<>() {
+    @Override
+    protected ContextFactory computeValue(Class<?> parserClass) {
+      return new ContextFactory(parserClass);
+    }
+  };
+
+  private static final ClassValue<Field[]> LABELS = new ClassValue<>() {
+    @Override
+    protected Field[] computeValue(Class<?> contextClass) {
+      return Arrays.stream(contextClass.getDeclaredFields())
+        .filter(field -> Modifier.isPublic(field.getModifiers()) && !Modifier.isStatic(field.getModifiers()))
+        .sorted(Comparator.comparing(Field::getName))
+        .toArray(Field[]::new);
+    }
+  };
+
+  /**
+   * Записывает результат разбора.
+   *
+   * @param out    Приемник данных
+   * @param result Результат разбора
+   * @param input  Разобранный поток символов
+   * @throws IOException Ошибка записи
+   */
+  void write(DataOutput out, ParseResult<?> result, CharStream input) throws IOException {
+    var tokens = result.tokens();
+    writeVarInt(out, tokens.size());
+    var previousStop = -1;
+    var previousLine = 0;
+    for (var token : tokens) {
+      writeVarInt(out, token.getType() + 1);
+      writeVarInt(out, token.getChannel());
+      writeSignedVarInt(out, token.getStartIndex() - previousStop - 1);
+      writeSignedVarInt(out, token.getStopIndex() - token.getStartIndex() + 1);
+      writeSignedVarInt(out, token.getLine() - previousLine);
+      writeVarInt(out, token.getCharPositionInLine() + 1);
+      var text = explicitText(token, input);
+      out.writeBoolean(text != null);
+      if (text != null) {
+        out.writeUTF(text);
+      }
+      previousStop = token.getStopIndex();
+      previousLine = token.getLine();
+    }
+    new TreeWriter(out, tokens).writeRule(result.ast());
+  }
+
+  /**
+   * Читает результат разбора.
+   *
+   * @param in          Источник данных
+   * @param parserClass Класс парсера, построившего дерево
+   * @param input       Разобранный поток символов
+   * @param <T>         Тип корневого узла
+   * @return Результат разбора
+   * @throws IOException Ошибка чтения или неверный формат данных
+   */
+  @SuppressWarnings("unchecked")
+  <T extends ParserRuleContext> ParseResult<T> read(DataInput in, Class<? extends Parser> parserClass,
+                                                    CharStream input) throws IOException {
+    var source = new Pair<TokenSource, CharStream>(null, input);
+    var size = readVarInt(in);
+    var tokens = new ArrayList<Token>(size);
+    var previousStop = -1;
+    var previousLine = 0;
+    for (var i = 0; i < size; i++) {
+      var type = readVarInt(in) - 1;
+      var channel = readVarInt(in);
+      var start = previousStop + 1 + readSignedVarInt(in);
+      var stop = start + readSignedVarInt(in) - 1;
+      var token = new CommonToken(source, type, channel, start, stop);
+      token.setLine(previousLine + readSignedVarInt(in));
+      token.setCharPositionInLine(readVarInt(in) - 1);
+      token.setTokenIndex(i);
+      if (in.readBoolean()) {
+        token.setText(in.readUTF());
+      }
+      tokens.add(token);
+      previousStop = stop;
+      previousLine = token.getLine();
+    }
+
+    var reader = new TreeReader(in, tokens, CONTEXT_FACTORIES.get(parserClass), source);
+    var ast = (T) reader.readRule(null);
+    return new ParseResult<>(tokens, ast);
+  }
+
+  private static @Nullable String explicitText(Token token, CharStream input) {
+    var text = token.getText();
+    String expected;
+    if (token.getType() == Token.EOF) {
+      expected = "<EOF>";
+    } else if (token.getStartIndex() >= 0 && token.getStopIndex() < input.size()
+      && token.getStartIndex() <= token.getStopIndex() + 1) {
+      expected = input.getText(Interval.of(token.getStartIndex(), token.getStopIndex()));
+    } else {
+      expected = null;
+    }
+    return Objects.equals(text, expected) ? null : text;
+  }
+
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    var rest = value;
+    while ((rest & ~0x7F) != 0) {
+      out.writeByte((rest & 0x7F) | 0x80);
+      rest >>>= 7;
+    }
+    out.writeByte(rest);
+  }
+
+  private static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+    writeVarInt(out, (value << 1) ^ (value >> 31));
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    var value = 0;
+    for (var shift = 0; shift < 32; shift += 7) {
+      var b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length integer");
+  }
+
+  private static int readSignedVarInt(DataInput in) throws IOException {
+    var value = readVarInt(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int tokenIndex(@Nullable Token token, List<Token> tokens) {
+    if (token == null) {
+      return -1;
+    }
+    var index = token.getTokenIndex();
+    return index >= 0 && index < tokens.size() && tokens.get(index) == token ? index : -1;
+  }
+
+  private record TreeWriter(DataOutput out, List<Token> tokens) {
+
+    void writeRule(ParserRuleContext ctx) throws IOException {
+      writeVarInt(out, ctx.getRuleIndex());
+      writeVarInt(out, ctx.invokingState + 1);
+      writeVarInt(out, tokenIndex(ctx.start, tokens) + 1);
+      writeVarInt(out, tokenIndex(ctx.stop, tokens) + 1);
+      out.writeBoolean(ctx.exception != null);
+      if (ctx.exception != null) {
+        writeVarInt(out, tokenIndex(ctx.exception.getOffendingToken(), tokens) + 1);
+      }
+
+      var count = ctx.getChildCount();
+      writeVarInt(out, count);
+      for (var i = 0; i < count; i++) {
+        writeChild(ctx.getChild(i));
+      }
+      writeLabels(ctx);
+    }
+
+    private void writeChild(ParseTree child) throws IOException {
+      if (child instanceof ParserRuleContext rule) {
+        out.writeByte(RULE);
+        writeRule(rule);
+        return;
+      }
+
+      var symbol = ((TerminalNode) child).getSymbol();
+      var index = tokenIndex(symbol, tokens);
+      if (index >= 0) {
+        out.writeByte(child instanceof ErrorNode ? ERROR : TERMINAL);
+        writeVarInt(out, index);
+        return;
+      }
+
+      // токен, созданный при восстановлении после ошибки, в потоке токенов отсутствует
+      out.writeByte(DETACHED_ERROR);
+      writeVarInt(out, symbol.getType() + 1);
+      writeVarInt(out, symbol.getChannel());
+      writeVarInt(out, symbol.getStartIndex() + 1);
+      writeVarInt(out, symbol.getStopIndex() + 1);
+      writeVarInt(out, symbol.getLine());
+      writeVarInt(out, symbol.getCharPositionInLine() + 1);
+      out.writeUTF(Objects.requireNonNullElse(symbol.getText(), ""));
+    }
+
+    private void writeLabels(ParserRuleContext ctx) throws IOException {
+      for (var label : LABELS.get(ctx.getClass())) {
+        var value = get(label, ctx);
+        if (value instanceof List<?> list) {
+          writeVarInt(out, list.size());
+          for (var element : list) {
+            writeVarInt(out, childIndex(ctx, element) + 1);
+          }
+        } else {
+          writeVarInt(out, childIndex(ctx, value) + 1);
+        }
+      }
+    }
+
+    private static int childIndex(ParserRuleContext ctx, @Nullable Object value) {
+      if (value == null || ctx.children == null) {
+        return -1;
+      }
+      for (var i = 0; i < ctx.children.size(); i++) {
+        var child = ctx.children.get(i);
+        if (child == value || (child instanceof TerminalNode node && node.getSymbol() == value)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  private record TreeReader(DataInput in, List<Token> tokens, ContextFactory factory,
+                            Pair<TokenSource, CharStream> source) {
+
+    ParserRuleContext readRule(@Nullable ParserRuleContext parent) throws IOException {
+      var ruleIndex = readVarInt(in);
+      var ctx = factory.create(ruleIndex, parent, readVarInt(in) - 1);
+      ctx.start = token(readVarInt(in) - 1);
+      ctx.stop = token(readVarInt(in) - 1);
+      if (in.readBoolean()) {
+        ctx.exception = new RestoredRecognitionException(ctx, token(readVarInt(in) - 1));
+      }
+
+      var count = readVarInt(in);
+      if (count > 0) {
+        ctx.children = new ArrayList<>(count);
+      }
+      for (var i = 0; i < count; i++) {
+        var child = readChild(ctx);
+        child.setParent(ctx);
+        ctx.children.add(child);
+      }
+      readLabels(ctx);
+      return ctx;
+    }
+
+    private ParseTree readChild(ParserRuleContext parent) throws IOException {
+      var tag = in.readUnsignedByte();
+      return switch (tag) {
+        case RULE -> readRule(parent);
+        case TERMINAL -> new TerminalNodeImpl(tokenAt(readVarInt(in)));
+        case ERROR -> new ErrorNodeImpl(tokenAt(readVarInt(in)));
+        case DETACHED_ERROR -> {
+          var type = readVarInt(in) - 1;
+          var channel = readVarInt(in);
+          var start = readVarInt(in) - 1;
+          var stop = readVarInt(in) - 1;
+          var token = new CommonToken(source, type, channel, start, stop);
+          token.setLine(readVarInt(in));
+          token.setCharPositionInLine(readVarInt(in) - 1);
+          token.setText(in.readUTF());
+          yield new ErrorNodeImpl(token);
+        }
+        default -> throw new IOException("Unknown node tag: " + tag);
+      };
+    }
+
+    private void readLabels(ParserRuleContext ctx) throws IOException {
+      for (var label : LABELS.get(ctx.getClass())) {
+        if (List.class.isAssignableFrom(label.getType())) {
+          @SuppressWarnings("unchecked")
+          var list = (List<Object>) get(label, ctx);
+          var size = readVarInt(in);
+          for (var i = 0; i < size; i++) {
+            var value = labelValue(ctx, readVarInt(in) - 1);
+            if (list != null && value != null) {
+              list.add(value);
+            }
+          }
+        } else {
+          set(label, ctx, labelValue(ctx, readVarInt(in) - 1));
+        }
+      }
+    }
+
+    private static @Nullable Object labelValue(ParserRuleContext ctx, int childIndex) {
+      if (childIndex < 0) {
+        return null;
+      }
+      var child = ctx.children.get(childIndex);
+      return child instanceof TerminalNode node ? node.getSymbol() : child;
+    }
+
+    private @Nullable Token token(int index) throws IOException {
+      return index < 0 ? null : tokenAt(index);
+    }
+
+    private Token tokenAt(int index) throws IOException {
+      if (index >= tokens.size()) {
+        throw new IOException("Token index out of range: " + index);
+      }
+      return tokens.get(index);
+    }
+  }
+
+  private static @Nullable Object get(Field field, Object target) {
+    try {
+      return field.get(target);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void set(Field field, Object target, @Nullable Object value) {
+    try {
+      field.set(target, value);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Конструкторы контекстов правил сгенерированного парсера.
+   */
+  private static final class ContextFactory {
+
+    private static final MethodType CONSTRUCTOR_TYPE =
+      MethodType.methodType(void.class, ParserRuleContext.class, int.class);
+
+    private final MethodHandle[] constructors;
+
+    ContextFactory(Class<?> parserClass) {
+      try {
+        var ruleNames = (String[]) parserClass.getField("ruleNames").get(null);
+        var lookup = MethodHandles.publicLookup();
+        constructors = new MethodHandle[ruleNames.length];
+        for (var i = 0; i < ruleNames.length; i++) {
+          var name = ruleNames[i];
+          var className = parserClass.getName() + "$"
+            + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Context";
+          var contextClass = Class.forName(className, true, parserClass.getClassLoader());
+          constructors[i] = lookup.findConstructor(contextClass, CONSTRUCTOR_TYPE)
+            .asType(MethodType.methodType(ParserRuleContext.class, ParserRuleContext.class, int.class));
+        }
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Not a generated parser: " + parserClass.getName(), e);
+      }
+    }
+
+    ParserRuleContext create(int ruleIndex, @Nullable ParserRuleContext parent, int invokingState)
+      throws IOException {
+      if (ruleIndex >= constructors.length) {
+        throw new IOException("Rule index out of range: " + ruleIndex);
+      }
+      try {
+        return (ParserRuleContext) constructors[ruleIndex].invokeExact(parent, invokingState);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Синтаксическая ошибка, восстановленная из двоичного представления: известны только правило
+   * и токен, на котором она обнаружена.
+   */
+  private static final class RestoredRecognitionException extends RecognitionException {
+
+    RestoredRecognitionException(ParserRuleContext ctx, @Nullable Token offendingToken) {
+      super(null, null, ctx);
+      setOffendingToken(offendingToken);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш результатов разбора в памяти процесса.
+ * <p>
+ * Ключом записи служит хэш SHA-256 текста, поэтому одинаковые тексты, например, модули расширений
+ * и скопированных подсистем, разделяют один результат разбора. Повторный запрос неизмененного текста
+ * возвращает тот же экземпляр дерева. Разделяемые деревья нельзя изменять, в том числе передавать
+ * в {@link BSLIncrementalParser#reparse}.
+ * <p>
+ * Размер кэша ограничивается суммарным весом записей - оценкой занимаемой ими памяти по количеству
+ * токенов и длине текста. При превышении ограничения вытесняются записи, к которым дольше всего
+ * не обращались.
+ * <p>
+ * Экземпляр потокобезопасен. Разбор при промахе выполняется вне блокировки, поэтому одинаковые тексты,
+ * одновременно разбираемые разными потоками, могут быть разобраны несколько раз; в кэше сохраняется
+ * и всем возвращается первый из результатов.
+ */
+public final class ParseResultMemoryCache {
+
+  // токен, узел дерева для него и приходящаяся на токен доля узлов правил
+  private static final long BYTES_PER_TOKEN = 200;
+  private static final long BYTES_PER_CHAR = 2;
+  private static final long ENTRY_OVERHEAD = 128;
+
+  private final long maxWeight;
+  private final TokenizerPool<BSLParser, BSLParser.FileContext> bslPool;
+  private final TokenizerPool<SDBLParser, SDBLParser.QueryPackageContext> sdblPool;
+
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Создает кэш с настройками разбора по умолчанию.
+   *
+   * @param maxWeight Максимальный суммарный вес записей в байтах
+   */
+  public ParseResultMemoryCache(long maxWeight) {
+    this(maxWeight, TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Создает кэш.
+   *
+   * @param maxWeight Максимальный суммарный вес записей в байтах
+   * @param options   Настройки разбора при промахе кэша
+   */
+  public ParseResultMemoryCache(long maxWeight, TokenizerOptions options) {
+    if (maxWeight < 0) {
+      throw new IllegalArgumentException("maxWeight must not be negative: " + maxWeight);
+    }
+    this.maxWeight = maxWeight;
+    this.bslPool = TokenizerPool.bsl(options);
+    this.sdblPool = TokenizerPool.sdbl(options);
+  }
+
+  /**
+   * Возвращает результат разбора модуля BSL из кэша или разбирает модуль и сохраняет результат.
+   *
+   * @param content Текст модуля
+   * @return Токены и дерево разбора, разделяемые между всеми запросами того же текста
+   */
+  public ParseResult<BSLParser.FileContext> parseBsl(String content) {
+    return parse(content, Grammar.BSL_PARSER, bslPool);
+  }
+
+  /**
+   * Возвращает результат разбора текста запроса из кэша или разбирает текст и сохраняет результат.
+   *
+   * @param content Текст запроса
+   * @return Токены и дерево разбора, разделяемые между всеми запросами того же текста
+   */
+  public ParseResult<SDBLParser.QueryPackageContext> parseSdbl(String content) {
+    return parse(content, Grammar.SDBL_PARSER, sdblPool);
+  }
+
+  /**
+   * Количество запросов, обслуженных из кэша.
+   *
+   * @return Количество попаданий
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Количество запросов, потребовавших разбора.
+   *
+   * @return Количество промахов
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Количество записей, вытесненных из-за ограничения веса.
+   *
+   * @return Количество вытеснений
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Количество записей в кэше.
+   *
+   * @return Количество записей
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Суммарный вес записей в кэше.
+   *
+   * @return Оценка занимаемой записями памяти в байтах
+   */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  /**
+   * Удаляет все записи. Счетчики не сбрасываются.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <P extends Parser, T extends ParserRuleContext> ParseResult<T> parse(String content,
+                                                                              Grammar grammar,
+                                                                              TokenizerPool<P, T> pool) {
+    var key = new Key(grammar, Digests.sha256Hex(content));
+    synchronized (this) {
+      var entry = entries.get(key);
+      if (entry != null) {
+        hits.increment();
+        return (ParseResult<T>) entry.result();
+      }
+    }
+
+    misses.increment();
+    var result = pool.parse(content);
+    var entryWeight = ENTRY_OVERHEAD + result.tokens().size() * BYTES_PER_TOKEN + content.length() * BYTES_PER_CHAR;
+    if (entryWeight > maxWeight) {
+      return result;
+    }
+
+    synchronized (this) {
+      var existing = entries.putIfAbsent(key, new Entry(result, entryWeight));
+      if (existing != null) {
+        return (ParseResult<T>) existing.result();
+      }
+      weight += entryWeight;
+      evict();
+    }
+    return result;
+  }
+
+  private void evict() {
+    var iterator = entries.values().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      weight -= iterator.next().weight();
+      iterator.remove();
+      evictions.increment();
+    }
+  }
+
+  private record Key(Grammar grammar, String digest) {
+  }
+
+  private record Entry(ParseResult<?> result, long weight) {
+  }
+}
@@ -0,0 +1,657 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.Pair;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Запуск корневого правила парсера с учетом {@link TokenizerOptions}.
+ */
+@UtilityClass
+class ParserSupport {
+
+  private static final int CHECK_INTERVAL = 64;
+
+  /**
+   * Подготавливает лексер к разбору в соответствии с настройками.
+   *
+   * @param lexer   Лексер
+   * @param options Настройки разбора
+   * @param <L>     Тип лексера
+   * @return Тот же лексер
+   */
+  <L extends Lexer> L prepare(L lexer, TokenizerOptions options) {
+    return prepare(lexer, options, options.getCancellationToken());
+  }
+
+  /**
+   * Подготавливает лексер к разбору в соответствии с настройками и признаком отмены конкретного разбора.
+   *
+   * @param lexer             Лексер
+   * @param options           Настройки разбора
+   * @param cancellationToken Признак отмены, заменяющий признак из настроек; {@code null} - лексер не прерывается
+   * @param <L>               Тип лексера
+   * @return Тот же лексер
+   */
+  <L extends Lexer> L prepare(L lexer, TokenizerOptions options, @Nullable CancellationToken cancellationToken) {
+    var predictionCache = options.getPredictionCache();
+    if (predictionCache != null) {
+      predictionCache.install(lexer);
+    } else {
+      CyrillicLexerATNSimulator.install(lexer);
+    }
+
+    // лексер из пула мог быть подготовлен с другими настройками
+    TokenFactory<? extends Token> factory = lexer.getTokenFactory();
+    while (factory instanceof DelegatingTokenFactory delegating) {
+      factory = delegating.delegate;
+    }
+    if (options.getMetricsListener() != ParseMetricsListener.NOOP) {
+      factory = new LexingMeter(factory, lexer);
+    }
+    if (LexingEvent.isTypeEnabled()) {
+      factory = new LexingRecorder(factory, lexer);
+    }
+    if (cancellationToken != null) {
+      factory = new CancellableTokenFactory(factory, cancellationToken);
+    }
+    lexer.setTokenFactory(factory);
+    return lexer;
+  }
+
+  /**
+   * Строит дерево разбора корневым правилом в соответствии с выбранной стратегией предсказания
+   * и передает показатели разбора получателю из настроек.
+   *
+   * @param parser   Подготовленный парсер
+   * @param rootRule Корневое правило грамматики
+   * @param options  Настройки разбора
+   * @param <P>      Тип парсера
+   * @param <T>      Тип корневого узла
+   * @return Дерево разбора
+   */
+  <P extends Parser, T extends ParserRuleContext> T parse(P parser, Function<P, T> rootRule,
+                                                         TokenizerOptions options) {
+    return parse(parser, rootRule, options, options.getCancellationToken());
+  }
+
+  /**
+   * Строит дерево разбора корневым правилом в соответствии с выбранной стратегией предсказания
+   * и передает показатели разбора получателю из настроек. Разбор прерывается по признаку отмены
+   * конкретного разбора, а не по признаку из настроек.
+   *
+   * @param parser            Подготовленный парсер
+   * @param rootRule          Корневое правило грамматики
+   * @param options           Настройки разбора
+   * @param cancellationToken Признак отмены; {@code null} - разбор не прерывается
+   * @param <P>               Тип парсера
+   * @param <T>               Тип корневого узла
+   * @return Дерево разбора
+   */
+  <P extends Parser, T extends ParserRuleContext> T parse(P parser, Function<P, T> rootRule,
+                                                         TokenizerOptions options,
+                                                         @Nullable CancellationToken cancellationToken) {
+    prepareParser(parser, options);
+    return parseMetered(parser, rootRule, options, cancellationToken);
+  }
+
+  /**
+   * Строит дерево разбора части текста, например, отложенного тела метода. Показатели разбора
+   * не передаются: они учитываются разбором всего текста.
+   *
+   * @param parser            Подготовленный парсер
+   * @param rootRule          Правило грамматики
+   * @param options           Настройки разбора
+   * @param cancellationToken Признак отмены; {@code null} - разбор не прерывается
+   * @param <P>               Тип парсера
+   * @param <T>               Тип корневого узла
+   * @return Дерево разбора
+   */
+  <P extends Parser, T extends ParserRuleContext> T parseNested(P parser, Function<P, T> rootRule,
+                                                               TokenizerOptions options,
+                                                               @Nullable CancellationToken cancellationToken) {
+    prepareParser(parser, options);
+    return parse(parser, rootRule, options, cancellationToken, null);
+  }
+
+  /**
+   * Проверяет синтаксис текста корневым правилом без построения дерева разбора.
+   *
+   * @param parser   Подготовленный парсер
+   * @param rootRule Корневое правило грамматики
+   * @param options  Настройки разбора
+   * @param failFast Остановить проверку на первой ошибке
+   * @param <P>      Тип парсера
+   * @param <T>      Тип корневого узла
+   * @return Найденные ошибки
+   */
+  <P extends Parser, T extends ParserRuleContext> ValidationResult validate(P parser, Function<P, T> rootRule,
+                                                                            TokenizerOptions options,
+                                                                            boolean failFast) {
+    if (parser.getTokenStream().getTokenSource() instanceof Lexer lexer) {
+      lexer.removeErrorListeners();
+    }
+    parser.setBuildParseTree(false);
+    parser.removeErrorListeners();
+    if (failFast) {
+      parser.addErrorListener(FailFastListener.INSTANCE);
+    }
+    installPredictionCache(parser, options);
+    var errors = SyntaxErrorLog.install(parser);
+    var complete = true;
+    try {
+      parseMetered(parser, rootRule, options, options.getCancellationToken());
+    } catch (FirstSyntaxErrorException e) {
+      complete = false;
+    } finally {
+      parser.removeErrorListener(FailFastListener.INSTANCE);
+    }
+    return new ValidationResult(errors.snapshot(), complete);
+  }
+
+  /**
+   * Слушатели ошибок, подключенные к парсеру вызывающим кодом. На этапе SLL двухэтапного разбора
+   * слушатели парсера временно отключены, в этом случае возвращаются отключенные слушатели.
+   *
+   * @param parser Парсер
+   * @return Слушатели ошибок
+   */
+  List<ANTLRErrorListener> errorListeners(Parser parser) {
+    var suspended = SuspendedErrorHandling.of(parser);
+    return suspended == null ? List.copyOf(parser.getErrorListeners()) : suspended.errorListeners;
+  }
+
+  /**
+   * Журнал ошибок парсера, в том числе на этапе SLL двухэтапного разбора, см. {@link #errorListeners(Parser)}.
+   *
+   * @param parser Парсер
+   * @return Журнал ошибок или {@code null}, если парсер использует стандартную обработку ошибок
+   */
+  @Nullable
+  SyntaxErrorLog syntaxErrorLog(Parser parser) {
+    var suspended = SuspendedErrorHandling.of(parser);
+    if (suspended == null) {
+      return SyntaxErrorLog.of(parser);
+    }
+    return suspended.errorHandler instanceof LightweightErrorStrategy strategy ? strategy.log() : null;
+  }
+
+  private void prepareParser(Parser parser, TokenizerOptions options) {
+    installPredictionCache(parser, options);
+    if (options.isLightweightSyntaxErrors()) {
+      SyntaxErrorLog.install(parser);
+    }
+  }
+
+  private <P extends Parser, T extends ParserRuleContext> T parseMetered(
+    P parser, Function<P, T> rootRule, TokenizerOptions options, @Nullable CancellationToken cancellationToken) {
+    var metricsListener = options.getMetricsListener();
+    if (metricsListener == ParseMetricsListener.NOOP) {
+      return parse(parser, rootRule, options, cancellationToken, null);
+    }
+
+    var meter = new ParsingMeter(parser);
+    parser.addErrorListener(meter);
+    parser.addParseListener(meter);
+    T tree;
+    try {
+      tree = parse(parser, rootRule, options, cancellationToken, meter);
+    } finally {
+      parser.removeErrorListener(meter);
+      parser.removeParseListener(meter);
+    }
+    metricsListener.onParse(meter.metrics());
+    return tree;
+  }
+
+  private void installPredictionCache(Parser parser, TokenizerOptions options) {
+    var predictionCache = options.getPredictionCache();
+    if (predictionCache != null) {
+      predictionCache.install(parser);
+    }
+  }
+
+  private <P extends Parser, T extends ParserRuleContext> T parse(P parser, Function<P, T> rootRule,
+                                                                 TokenizerOptions options,
+                                                                 @Nullable CancellationToken cancellationToken,
+                                                                 @Nullable ParsingMeter meter) {
+    var event = new ParsingEvent();
+    event.begin();
+    var outcome = ParsingEvent.FAILED;
+    T tree = null;
+    try {
+      tree = parseCancellable(parser, rootRule, options, cancellationToken, meter);
+      outcome = parser.getNumberOfSyntaxErrors() == 0 ? ParsingEvent.SUCCESS : ParsingEvent.SYNTAX_ERRORS;
+      return tree;
+    } catch (ParseCancelledException e) {
+      outcome = ParsingEvent.CANCELLED;
+      throw e;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.grammar = parser.getGrammarFileName();
+        event.rule = tree == null ? "" : parser.getRuleNames()[tree.getRuleIndex()];
+        event.inputSize = inputSize(parser);
+        event.tokenCount = parser.getTokenStream() == null ? 0 : parser.getTokenStream().size();
+        event.syntaxErrors = parser.getNumberOfSyntaxErrors();
+        event.outcome = outcome;
+        event.commit();
+      }
+    }
+  }
+
+  private int inputSize(Parser parser) {
+    var tokens = parser.getTokenStream();
+    if (tokens == null || tokens.getTokenSource() == null) {
+      return 0;
+    }
+    var input = tokens.getTokenSource().getInputStream();
+    return input == null ? 0 : input.size();
+  }
+
+  private <P extends Parser, T extends ParserRuleContext> T parseCancellable(
+    P parser, Function<P, T> rootRule, TokenizerOptions options, @Nullable CancellationToken cancellationToken,
+    @Nullable ParsingMeter meter) {
+    if (cancellationToken == null) {
+      return parseWithStrategy(parser, rootRule, options, meter);
+    }
+    var listener = new CancellationListener(cancellationToken);
+    parser.addParseListener(listener);
+    var simulator = CancellableParserATNSimulator.install(parser);
+    if (simulator != null) {
+      simulator.setCancellationToken(cancellationToken);
+    }
+    try {
+      return parseWithStrategy(parser, rootRule, options, meter);
+    } finally {
+      parser.removeParseListener(listener);
+      if (simulator != null) {
+        simulator.setCancellationToken(null);
+      }
+    }
+  }
+
+  private <P extends Parser, T extends ParserRuleContext> T parseWithStrategy(P parser, Function<P, T> rootRule,
+                                                                              TokenizerOptions options,
+                                                                              @Nullable ParsingMeter meter) {
+    if (options.getPredictionStrategy() == PredictionStrategy.LL) {
+      return rootRule.apply(parser);
+    }
+
+    var errorHandler = parser.getErrorHandler();
+    var errorListeners = new ArrayList<ANTLRErrorListener>(parser.getErrorListeners());
+    var interpreter = parser.getInterpreter();
+    var predictionMode = interpreter.getPredictionMode();
+
+    interpreter.setPredictionMode(PredictionMode.SLL);
+    parser.setErrorHandler(new BailErrorStrategy());
+    parser.removeErrorListeners();
+    parser.addErrorListener(new SuspendedErrorHandling(errorListeners, errorHandler));
+    try {
+      var tree = rootRule.apply(parser);
+      options.getPredictionStatistics().registerParse(false);
+      return tree;
+    } catch (ParseCancellationException e) {
+      // SLL не справился: перематываем поток и разбираем заново полным LL
+      parser.reset();
+    } finally {
+      parser.setErrorHandler(errorHandler);
+      parser.removeErrorListeners();
+      errorListeners.forEach(parser::addErrorListener);
+      interpreter.setPredictionMode(predictionMode);
+    }
+
+    if (meter != null) {
+      meter.fallbackCount++;
+    }
+    interpreter.setPredictionMode(PredictionMode.LL);
+    try {
+      return rootRule.apply(parser);
+    } finally {
+      // переход на LL учитывается и при прерванном или завершившемся исключением разборе
+      interpreter.setPredictionMode(predictionMode);
+      options.getPredictionStatistics().registerParse(true);
+    }
+  }
+
+  /**
+   * Фабрика токенов, оборачивающая фабрику лексера.
+   */
+  private abstract static class DelegatingTokenFactory implements TokenFactory<Token> {
+
+    protected final TokenFactory<? extends Token> delegate;
+
+    DelegatingTokenFactory(TokenFactory<? extends Token> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Token create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                        int start, int stop, int line, int charPositionInLine) {
+      return delegate.create(source, type, text, channel, start, stop, line, charPositionInLine);
+    }
+
+    @Override
+    public Token create(int type, String text) {
+      return delegate.create(type, text);
+    }
+  }
+
+  /**
+   * Фабрика токенов лексера, проверяющая признак отмены.
+   */
+  private static final class CancellableTokenFactory extends DelegatingTokenFactory {
+
+    private final CancellationToken cancellationToken;
+    private int count;
+
+    CancellableTokenFactory(TokenFactory<? extends Token> delegate, CancellationToken cancellationToken) {
+      super(delegate);
+      this.cancellationToken = cancellationToken;
+    }
+
+    @Override
+    public Token create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                        int start, int stop, int line, int charPositionInLine) {
+      if (count++ % CHECK_INTERVAL == 0) {
+        cancellationToken.throwIfCancelled();
+      }
+      return super.create(source, type, text, channel, start, stop, line, charPositionInLine);
+    }
+  }
+
+  /**
+   * Фабрика токенов лексера, измеряющая лексический анализ текста: время от первого токена до EOF,
+   * количество токенов и прирост DFA лексера.
+   */
+  private static final class LexingMeter extends DelegatingTokenFactory {
+
+    private final Lexer lexer;
+    private int tokenCount;
+    private int inputSize;
+    private long startNanos;
+    private long lexingNanos;
+    private int startDfaStates;
+    private int dfaStateGrowth;
+
+    LexingMeter(TokenFactory<? extends Token> delegate, Lexer lexer) {
+      super(delegate);
+      this.lexer = lexer;
+    }
+
+    @Override
+    public Token create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                        int start, int stop, int line, int charPositionInLine) {
+      if (tokenCount++ == 0) {
+        startNanos = System.nanoTime();
+        startDfaStates = Grammar.dfaStateCount(lexer.getInterpreter().decisionToDFA);
+      }
+      var token = super.create(source, type, text, channel, start, stop, line, charPositionInLine);
+      if (type == Token.EOF) {
+        lexingNanos = System.nanoTime() - startNanos;
+        dfaStateGrowth = Grammar.dfaStateCount(lexer.getInterpreter().decisionToDFA) - startDfaStates;
+        inputSize = source.b == null ? 0 : source.b.size();
+      }
+      return token;
+    }
+
+    static @Nullable LexingMeter of(Parser parser) {
+      if (parser.getTokenStream() != null && parser.getTokenStream().getTokenSource() instanceof Lexer lexer) {
+        TokenFactory<?> factory = lexer.getTokenFactory();
+        while (factory instanceof DelegatingTokenFactory delegating) {
+          if (delegating instanceof LexingMeter meter) {
+            return meter;
+          }
+          factory = delegating.delegate;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Фабрика токенов лексера, записывающая событие JFR {@link LexingEvent}.
+   */
+  private static final class LexingRecorder extends DelegatingTokenFactory {
+
+    private final Lexer lexer;
+    private final LexingEvent event = new LexingEvent();
+    private int tokenCount;
+
+    LexingRecorder(TokenFactory<? extends Token> delegate, Lexer lexer) {
+      super(delegate);
+      this.lexer = lexer;
+    }
+
+    @Override
+    public Token create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                        int start, int stop, int line, int charPositionInLine) {
+      if (tokenCount++ == 0) {
+        event.begin();
+      }
+      var token = super.create(source, type, text, channel, start, stop, line, charPositionInLine);
+      if (type == Token.EOF) {
+        event.end();
+        if (event.shouldCommit()) {
+          event.grammar = lexer.getGrammarFileName();
+          event.inputSize = source.b == null ? 0 : source.b.size();
+          event.tokenCount = tokenCount;
+          event.commit();
+        }
+      }
+      return token;
+    }
+  }
+
+  /**
+   * Слушатель парсера, подсчитывающий синтаксические ошибки и восстановления после них.
+   */
+  private static final class ParsingMeter extends BaseErrorListener implements ParseTreeListener {
+
+    private final Parser parser;
+    private final long startNanos;
+    private final int startDfaStates;
+    // правила, в которых сообщалось об ошибке: вставленные токены ищутся среди их потомков при выходе
+    private final Set<ParserRuleContext> erroneousRules = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int fallbackCount;
+    private int syntaxErrorCount;
+    private int recoveryCount;
+
+    ParsingMeter(Parser parser) {
+      this.parser = parser;
+      this.startDfaStates = Grammar.dfaStateCount(parser.getInterpreter().decisionToDFA);
+      this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                            int charPositionInLine, String msg, RecognitionException e) {
+      syntaxErrorCount++;
+      var context = parser.getContext();
+      if (context != null) {
+        erroneousRules.add(context);
+      }
+    }
+
+    @Override
+    public void visitErrorNode(ErrorNode node) {
+      // токены, пропущенные при восстановлении
+      recoveryCount++;
+    }
+
+    @Override
+    public void visitTerminal(TerminalNode node) {
+      // учитываются только ошибки
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+      // учитываются только ошибки
+    }
+
+    @Override
+    public void exitEveryRule(ParserRuleContext ctx) {
+      // токен, вставленный при восстановлении, добавляется в дерево без уведомления слушателей
+      if (erroneousRules.isEmpty() || !erroneousRules.remove(ctx) || ctx.children == null) {
+        return;
+      }
+      for (var child : ctx.children) {
+        if (child instanceof ErrorNode node && node.getSymbol().getTokenIndex() == -1) {
+          recoveryCount++;
+        }
+      }
+    }
+
+    ParseMetrics metrics() {
+      var parsingNanos = System.nanoTime() - startNanos;
+      var dfaStateGrowth = Grammar.dfaStateCount(parser.getInterpreter().decisionToDFA) - startDfaStates;
+      var lexing = LexingMeter.of(parser);
+      if (lexing != null) {
+        dfaStateGrowth += lexing.dfaStateGrowth;
+      }
+      return new ParseMetrics(Grammar.of(parser),
+        parser.getInputStream().getSourceName(),
+        lexing == null ? 0 : lexing.inputSize,
+        lexing == null ? 0 : lexing.tokenCount,
+        lexing == null ? 0 : lexing.lexingNanos,
+        parsingNanos,
+        fallbackCount,
+        syntaxErrorCount,
+        recoveryCount,
+        dfaStateGrowth);
+    }
+  }
+
+  /**
+   * Слушатель парсера, проверяющий признак отмены при входе в правила и чтении токенов, в том числе
+   * при восстановлении после ошибок.
+   */
+  private static final class CancellationListener implements ParseTreeListener {
+
+    private final CancellationToken cancellationToken;
+    private int count;
+
+    CancellationListener(CancellationToken cancellationToken) {
+      this.cancellationToken = cancellationToken;
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+      check();
+    }
+
+    @Override
+    public void visitTerminal(TerminalNode node) {
+      check();
+    }
+
+    @Override
+    public void visitErrorNode(ErrorNode node) {
+      check();
+    }
+
+    @Override
+    public void exitEveryRule(ParserRuleContext ctx) {
+      // выход из правила выполняется в finally, исключение здесь подменило бы исходное
+    }
+
+    private void check() {
+      if (count++ % CHECK_INTERVAL == 0) {
+        cancellationToken.throwIfCancelled();
+      }
+    }
+  }
+
+  /**
+   * Обработка ошибок парсера, отключенная на этапе SLL двухэтапного разбора. Подключается к парсеру
+   * вместо отключенных слушателей и сама ошибки не обрабатывает.
+   */
+  private static final class SuspendedErrorHandling extends BaseErrorListener {
+
+    private final List<ANTLRErrorListener> errorListeners;
+    private final ANTLRErrorStrategy errorHandler;
+
+    SuspendedErrorHandling(List<ANTLRErrorListener> errorListeners, ANTLRErrorStrategy errorHandler) {
+      this.errorListeners = List.copyOf(errorListeners);
+      this.errorHandler = errorHandler;
+    }
+
+    static @Nullable SuspendedErrorHandling of(Parser parser) {
+      for (var listener : parser.getErrorListeners()) {
+        if (listener instanceof SuspendedErrorHandling suspended) {
+          return suspended;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Слушатель ошибок парсера, прерывающий проверку на первой ошибке.
+   */
+  private static final class FailFastListener extends BaseErrorListener {
+
+    private static final FailFastListener INSTANCE = new FailFastListener();
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                            int charPositionInLine, String msg, RecognitionException e) {
+      throw new FirstSyntaxErrorException();
+    }
+  }
+
+  /**
+   * Прерывание проверки на первой ошибке. Стек вызовов не заполняется.
+   */
+  private static final class FirstSyntaxErrorException extends RuntimeException {
+    FirstSyntaxErrorException() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие Java Flight Recorder: построение дерева разбора правилом парсера, например,
+ * {@code BSLParser.file()} или {@code SDBLParser.queryPackage()}.
+ * <p>
+ * Включается стандартными настройками JFR по имени {@code com.github._1c_syntax.bsl.parser.Parsing}.
+ */
+@Name("com.github._1c_syntax.bsl.parser.Parsing")
+@Label("Parsing")
+@Category({"BSL Parser"})
+@Description("Parse tree construction by a BSL or query parser rule")
+class ParsingEvent extends Event {
+
+  static final String SUCCESS = "SUCCESS";
+  static final String SYNTAX_ERRORS = "SYNTAX_ERRORS";
+  static final String CANCELLED = "CANCELLED";
+  static final String FAILED = "FAILED";
+
+  @Label("Grammar")
+  String grammar;
+
+  @Label("Rule")
+  String rule;
+
+  @Label("Input Size")
+  @Description("Text size in code points")
+  int inputSize;
+
+  @Label("Token Count")
+  @Description("Number of tokens in the token stream, including hidden ones")
+  int tokenCount;
+
+  @Label("Syntax Errors")
+  int syntaxErrors;
+
+  @Label("Outcome")
+  @Description("SUCCESS, SYNTAX_ERRORS, CANCELLED or FAILED")
+  String outcome;
+}
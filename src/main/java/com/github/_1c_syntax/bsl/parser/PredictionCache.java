@@ -0,0 +1,195 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Управляемый кэш предсказаний: собственные DFA решений и кэш контекстов предсказания для каждой грамматики.
+ * <p>
+ * По умолчанию все лексеры и парсеры используют статические кэши сгенерированных классов, которые
+ * растут все время жизни JVM. Кэш, переданный в {@link TokenizerOptions#getPredictionCache()}, подменяет их
+ * для разборов с этими настройками и ограничивается политикой {@link PredictionCachePolicy}: при
+ * срабатывании политики кэш сбрасывается целиком, и занятая им память освобождается после завершения
+ * уже идущих разборов.
+ * <p>
+ * Для изоляции арендаторов достаточно завести каждому арендатору свои настройки с собственным кэшем:
+ * кэши разных экземпляров не пересекаются.
+ * <p>
+ * Кэш потокобезопасен.
+ */
+public final class PredictionCache {
+
+  private final PredictionCachePolicy policy;
+  private final AtomicLong useCount = new AtomicLong();
+  private final AtomicLong resetCount = new AtomicLong();
+
+  private volatile Caches caches;
+
+  /**
+   * Создает неограниченный кэш.
+   */
+  public PredictionCache() {
+    this(PredictionCachePolicy.UNBOUNDED);
+  }
+
+  /**
+   * Создает кэш с политикой ограничения.
+   *
+   * @param policy Политика ограничения
+   */
+  public PredictionCache(PredictionCachePolicy policy) {
+    if (policy.getMaxDfaStates() < 0) {
+      throw new IllegalArgumentException("maxDfaStates must not be negative: " + policy.getMaxDfaStates());
+    }
+    if (policy.getCheckInterval() <= 0) {
+      throw new IllegalArgumentException("checkInterval must be positive: " + policy.getCheckInterval());
+    }
+    this.policy = policy;
+    this.caches = new Caches();
+  }
+
+  /**
+   * Размер кэшей по грамматикам.
+   *
+   * @return Статистика по каждой грамматике
+   */
+  public List<PredictionCacheStatistics> statistics() {
+    var current = caches;
+    var result = new ArrayList<PredictionCacheStatistics>();
+    current.decisionToDFA.forEach((grammar, decisionToDFA) -> result.add(
+      PredictionCacheStatistics.compute(grammar, decisionToDFA, current.contextCaches.get(grammar))));
+    return result;
+  }
+
+  /**
+   * Суммарное количество состояний DFA всех грамматик.
+   *
+   * @return Количество состояний
+   */
+  public int dfaStateCount() {
+    return caches.dfaStateCount();
+  }
+
+  /**
+   * Количество сбросов кэша, вызванных политикой или {@link #reset()}.
+   *
+   * @return Количество сбросов
+   */
+  public long getResetCount() {
+    return resetCount.get();
+  }
+
+  /**
+   * Сбрасывает кэш. Уже идущие разборы дорабатывают со старыми DFA, новые начинают строить DFA заново.
+   */
+  public void reset() {
+    caches = new Caches();
+    resetCount.incrementAndGet();
+  }
+
+  /**
+   * Подключает кэш к лексеру.
+   *
+   * @param lexer Лексер одной из грамматик {@link Grammar}
+   */
+  void install(Lexer lexer) {
+    var grammar = Grammar.of(lexer);
+    var current = prepare();
+    lexer.setInterpreter(new CyrillicLexerATNSimulator(lexer, grammar.atn(),
+      current.decisionToDFA(grammar), current.contextCaches.get(grammar)));
+  }
+
+  /**
+   * Подключает кэш к парсеру. Настройки предсказания парсера сохраняются.
+   *
+   * @param parser Парсер одной из грамматик {@link Grammar}
+   */
+  void install(Parser parser) {
+    var grammar = Grammar.of(parser);
+    var current = prepare();
+    var previous = parser.getInterpreter();
+    var interpreter = new ParserATNSimulator(parser, grammar.atn(),
+      current.decisionToDFA(grammar), current.contextCaches.get(grammar));
+    interpreter.setPredictionMode(previous.getPredictionMode());
+    parser.setInterpreter(interpreter);
+  }
+
+  private Caches prepare() {
+    var current = caches;
+    var uses = useCount.incrementAndGet();
+    if (current.expired(policy)
+      || (policy.getMaxDfaStates() > 0 && uses % policy.getCheckInterval() == 0
+      && current.dfaStateCount() > policy.getMaxDfaStates())) {
+      current = resetIfCurrent(current);
+    }
+    return current;
+  }
+
+  private synchronized Caches resetIfCurrent(Caches expected) {
+    // несколько потоков могут одновременно обнаружить срабатывание политики, сбрасываем один раз
+    if (caches == expected) {
+      reset();
+    }
+    return caches;
+  }
+
+  private static final class Caches {
+    private final Map<Grammar, DFA[]> decisionToDFA = new EnumMap<>(Grammar.class);
+    private final Map<Grammar, PredictionContextCache> contextCaches = new EnumMap<>(Grammar.class);
+    private final long createdAt = System.nanoTime();
+
+    private Caches() {
+      for (var grammar : Grammar.values()) {
+        decisionToDFA.put(grammar, grammar.newDecisionToDFA());
+        contextCaches.put(grammar, new PredictionContextCache());
+      }
+    }
+
+    private DFA[] decisionToDFA(Grammar grammar) {
+      return decisionToDFA.get(grammar);
+    }
+
+    private boolean expired(PredictionCachePolicy policy) {
+      var interval = policy.getResetInterval();
+      return interval != null && System.nanoTime() - createdAt >= interval.toNanos();
+    }
+
+    private int dfaStateCount() {
+      var count = 0;
+      for (var dfa : decisionToDFA.values()) {
+        count += Grammar.dfaStateCount(dfa);
+      }
+      return count;
+    }
+  }
+}
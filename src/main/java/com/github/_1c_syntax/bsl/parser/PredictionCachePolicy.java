@@ -0,0 +1,64 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Политика ограничения кэша предсказаний {@link PredictionCache}.
+ * <p>
+ * Кэш сбрасывается целиком, как только срабатывает любое из заданных условий. Не заданные условия
+ * не проверяются, политика по умолчанию кэш не ограничивает.
+ */
+@Value
+@Builder
+public class PredictionCachePolicy {
+
+  /**
+   * Политика без ограничений.
+   */
+  public static final PredictionCachePolicy UNBOUNDED = PredictionCachePolicy.builder().build();
+
+  /**
+   * Максимальное суммарное количество состояний DFA всех грамматик. {@code 0} - без ограничения.
+   */
+  @Builder.Default
+  int maxDfaStates = 0;
+
+  /**
+   * Интервал периодического сброса. {@code null} - без периодического сброса.
+   */
+  @Nullable
+  @Builder.Default
+  Duration resetInterval = null;
+
+  /**
+   * Через сколько подключений кэша к лексеру или парсеру проверять количество состояний DFA.
+   * Подсчет состояний обходит все DFA, поэтому выполняется не при каждом подключении.
+   */
+  @Builder.Default
+  int checkInterval = 64;
+}
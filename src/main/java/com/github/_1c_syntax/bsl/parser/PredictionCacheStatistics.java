@@ -0,0 +1,74 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+
+/**
+ * Размер кэшей предсказания одной грамматики.
+ * <p>
+ * Оценка занимаемой памяти приблизительная: она рассчитывается по количеству состояний, конфигураций
+ * и переходов DFA и по количеству закэшированных контекстов, исходя из типичных размеров объектов
+ * 64-битной JVM со сжатыми ссылками.
+ *
+ * @param grammar            Грамматика
+ * @param dfaStates          Количество состояний во всех DFA решений
+ * @param predictionContexts Количество контекстов предсказания в кэше
+ * @param estimatedBytes     Оценка занимаемой памяти в байтах
+ */
+public record PredictionCacheStatistics(Grammar grammar, int dfaStates, int predictionContexts,
+                                        long estimatedBytes) {
+
+  // DFAState, ATNConfigSet с ArrayList и запись в карте состояний DFA
+  private static final int STATE_BYTES = 160;
+  // ATNConfig и ссылка на нее в списке конфигураций
+  private static final int CONFIG_BYTES = 36;
+  // заголовок массива переходов
+  private static final int EDGES_BYTES = 16;
+  // контекст предсказания и запись в карте кэша
+  private static final int CONTEXT_BYTES = 80;
+
+  static PredictionCacheStatistics compute(Grammar grammar, DFA[] decisionToDFA,
+                                           PredictionContextCache contextCache) {
+    var states = 0;
+    var bytes = 0L;
+    for (var dfa : decisionToDFA) {
+      synchronized (dfa.states) {
+        for (var state : dfa.states.values()) {
+          states++;
+          bytes += STATE_BYTES + (long) CONFIG_BYTES * state.configs.size();
+          if (state.edges != null) {
+            bytes += EDGES_BYTES + 4L * state.edges.length;
+          }
+        }
+      }
+    }
+
+    int contexts;
+    synchronized (contextCache) {
+      contexts = contextCache.size();
+    }
+    bytes += (long) CONTEXT_BYTES * contexts;
+    return new PredictionCacheStatistics(grammar, states, contexts, bytes);
+  }
+}
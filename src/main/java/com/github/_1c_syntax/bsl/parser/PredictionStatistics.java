@@ -0,0 +1,83 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики двухэтапного (SLL, затем LL) разбора.
+ * <p>
+ * Потокобезопасен, один экземпляр может разделяться всеми токенизаторами пакетного разбора.
+ */
+public final class PredictionStatistics {
+
+  private final LongAdder parses = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+
+  /**
+   * Количество выполненных разборов.
+   *
+   * @return Количество разборов
+   */
+  public long getParseCount() {
+    return parses.sum();
+  }
+
+  /**
+   * Количество разборов, для которых SLL-проход завершился неудачей и потребовался полный LL-разбор.
+   *
+   * @return Количество повторных разборов
+   */
+  public long getFallbackCount() {
+    return fallbacks.sum();
+  }
+
+  /**
+   * Доля разборов, потребовавших повторного LL-прохода.
+   *
+   * @return Доля от 0 до 1; 0, если разборов не было
+   */
+  public double getFallbackRatio() {
+    var count = getParseCount();
+    return count == 0 ? 0 : (double) getFallbackCount() / count;
+  }
+
+  /**
+   * Сбрасывает накопленные значения.
+   */
+  public void reset() {
+    parses.reset();
+    fallbacks.reset();
+  }
+
+  void registerParse(boolean fallback) {
+    parses.increment();
+    if (fallback) {
+      fallbacks.increment();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PredictionStatistics{parses=" + getParseCount() + ", fallbacks=" + getFallbackCount() + "}";
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+/**
+ * Стратегия предсказания альтернатив, используемая парсером при построении дерева.
+ */
+public enum PredictionStrategy {
+  /**
+   * Полное LL-предсказание (поведение по умолчанию).
+   */
+  LL,
+
+  /**
+   * Двухэтапный разбор: сначала быстрый SLL-режим с прерыванием на первой ошибке,
+   * и только если он не удался - повторный разбор в полном LL-режиме.
+   * <p>
+   * Для синтаксически корректных модулей результат совпадает с полным LL-разбором,
+   * а подавляющая часть модулей разбирается за один быстрый проход.
+   */
+  SLL_THEN_LL
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+
+import java.util.List;
+
+/**
+ * Поток токенов основного канала поверх готового списка токенов.
+ * <p>
+ * В отличие от {@link CommonTokenStream}, не читает токены из источника и не переназначает их индексы:
+ * список разделяется между потоками без копирования, поэтому по нему можно независимо разбирать
+ * разные участки одного текста.
+ */
+class PrefilledTokenStream extends CommonTokenStream {
+
+  /**
+   * Создает поток токенов.
+   *
+   * @param tokens Токены с проставленными индексами, последним должен идти EOF
+   */
+  PrefilledTokenStream(List<Token> tokens) {
+    super(new ListTokenSource(tokens));
+    this.tokens = tokens;
+    this.fetchedEOF = true;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Токен инкрементального анализа, позиция которого отсчитывается от фрагмента {@link RelocatableTokenList}.
+ * <p>
+ * Индекс токена, индексы символов, номер строки и смещение в тексте складываются из собственных значений
+ * токена и сдвига фрагмента, в котором он находится. После правки сдвигаются фрагменты, а не каждый токен
+ * за правкой. Индексы символов, по которым текст токена без явно заданного текста читается из потока
+ * символов, не меняются: сдвиг индексов хранится отдельно, в том числе при переносе токена в другой фрагмент.
+ */
+final class RelocatableToken extends CommonToken {
+
+  /**
+   * Фабрика токенов лексера.
+   */
+  static final TokenFactory<RelocatableToken> FACTORY = new Factory();
+
+  private RelocatableTokenList.@Nullable Chunk chunk;
+  private int charShift;
+  private int offset;
+  private LexResult.@Nullable Checkpoint checkpoint;
+
+  private RelocatableToken(Pair<TokenSource, CharStream> source, int type, int channel, int start, int stop) {
+    super(source, type, channel, start, stop);
+  }
+
+  private RelocatableToken(int type, String text) {
+    super(type, text);
+  }
+
+  @Override
+  public int getTokenIndex() {
+    return chunk == null ? index : index + chunk.indexDelta;
+  }
+
+  @Override
+  public void setTokenIndex(int index) {
+    this.index = chunk == null ? index : index - chunk.indexDelta;
+  }
+
+  @Override
+  public int getStartIndex() {
+    return start + charDelta();
+  }
+
+  @Override
+  public void setStartIndex(int start) {
+    this.start = start - charDelta();
+  }
+
+  @Override
+  public int getStopIndex() {
+    return stop + charDelta();
+  }
+
+  @Override
+  public void setStopIndex(int stop) {
+    this.stop = stop - charDelta();
+  }
+
+  @Override
+  public int getLine() {
+    return chunk == null ? line : line + chunk.lineDelta;
+  }
+
+  @Override
+  public void setLine(int line) {
+    this.line = chunk == null ? line : line - chunk.lineDelta;
+  }
+
+  /**
+   * Смещение начала токена в тексте в символах {@link String}.
+   *
+   * @return Смещение начала токена
+   */
+  int getOffset() {
+    return chunk == null ? offset : offset + chunk.offsetDelta;
+  }
+
+  void setOffset(int offset) {
+    this.offset = chunk == null ? offset : offset - chunk.offsetDelta;
+  }
+
+  /**
+   * Состояние лексера перед токеном, если токен первый в строке.
+   *
+   * @return Контрольная точка или {@code null}
+   */
+  LexResult.@Nullable Checkpoint getCheckpoint() {
+    return checkpoint;
+  }
+
+  void setCheckpoint(LexResult.@Nullable Checkpoint checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  /**
+   * Переносит токен в другой фрагмент, сохраняя его позицию.
+   *
+   * @param target Новый фрагмент
+   */
+  void moveTo(RelocatableTokenList.Chunk target) {
+    var tokenIndex = getTokenIndex();
+    var tokenCharDelta = charDelta();
+    var tokenLine = getLine();
+    var tokenOffset = getOffset();
+    chunk = target;
+    setTokenIndex(tokenIndex);
+    charShift = tokenCharDelta - target.charDelta;
+    setLine(tokenLine);
+    setOffset(tokenOffset);
+  }
+
+  /**
+   * Закрепляет текст токена и отвязывает его от лексера и потока символов, чтобы токен не удерживал
+   * текст, из которого прочитан.
+   */
+  void detach() {
+    text = getText();
+    source = EMPTY_SOURCE;
+  }
+
+  private int charDelta() {
+    return chunk == null ? charShift : charShift + chunk.charDelta;
+  }
+
+  @Override
+  public String toString(@Nullable Recognizer<?, ?> recognizer) {
+    var channelText = channel > 0 ? ",channel=" + channel : "";
+    var tokenText = getText();
+    if (tokenText == null) {
+      tokenText = "<no text>";
+    } else {
+      tokenText = tokenText.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+    }
+    var typeText = recognizer == null ? String.valueOf(type) : recognizer.getVocabulary().getDisplayName(type);
+    return "[@" + getTokenIndex() + "," + getStartIndex() + ":" + getStopIndex() + "='" + tokenText + "',<"
+      + typeText + ">" + channelText + "," + getLine() + ":" + getCharPositionInLine() + "]";
+  }
+
+  private static final class Factory implements TokenFactory<RelocatableToken> {
+
+    @Override
+    public RelocatableToken create(Pair<TokenSource, CharStream> source, int type, @Nullable String text,
+                                   int channel, int start, int stop, int line, int charPositionInLine) {
+      var token = new RelocatableToken(source, type, channel, start, stop);
+      token.setLine(line);
+      token.setCharPositionInLine(charPositionInLine);
+      if (text != null) {
+        token.setText(text);
+      }
+      return token;
+    }
+
+    @Override
+    public RelocatableToken create(int type, String text) {
+      return new RelocatableToken(type, text);
+    }
+  }
+}
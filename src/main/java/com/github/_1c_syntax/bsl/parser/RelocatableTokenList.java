@@ -0,0 +1,292 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Token;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Список токенов инкрементального анализа, разделенный на фрагменты.
+ * <p>
+ * Каждый фрагмент хранит сдвиг индексов и позиций своих токенов {@link RelocatableToken}. Замена участка
+ * списка затрагивает только фрагменты на границах участка: токены до него не меняются, а токены после него
+ * сдвигаются изменением сдвига их фрагментов. Стоимость замены пропорциональна длине участка, размеру
+ * фрагмента и количеству фрагментов, а не количеству токенов.
+ * <p>
+ * Чтение списка из нескольких потоков допустимо, замена должна выполняться без одновременного чтения.
+ */
+final class RelocatableTokenList extends AbstractList<Token> implements RandomAccess {
+
+  private static final int CHUNK_SIZE = 1024;
+
+  private List<Chunk> chunks = new ArrayList<>();
+  private int[] firstIndexes = {0};
+  private int size;
+  private int recentChunk;
+
+  /**
+   * Создает список.
+   *
+   * @param tokens Токены с проставленными индексами, последним должен идти EOF
+   */
+  RelocatableTokenList(List<RelocatableToken> tokens) {
+    addChunks(chunks, tokens);
+    reindex();
+  }
+
+  @Override
+  public Token get(int index) {
+    Objects.checkIndex(index, size);
+    // последовательный доступ обычно остается в пределах одного фрагмента
+    var chunkIndex = recentChunk;
+    if (index < firstIndexes[chunkIndex] || index >= firstIndexes[chunkIndex + 1]) {
+      chunkIndex = chunkAt(index);
+      recentChunk = chunkIndex;
+    }
+    return chunks.get(chunkIndex).tokens.get(index - firstIndexes[chunkIndex]);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Токен по индексу.
+   *
+   * @param index Индекс токена
+   * @return Токен
+   */
+  RelocatableToken token(int index) {
+    return (RelocatableToken) get(index);
+  }
+
+  /**
+   * Индекс последнего токена, начинающегося в тексте раньше указанного смещения.
+   *
+   * @param offset Смещение в символах {@link String}
+   * @return Индекс токена или {@code 0}, если такого токена нет
+   */
+  int tokenBefore(int offset) {
+    var low = 0;
+    var high = chunks.size() - 1;
+    var chunkIndex = 0;
+    while (low <= high) {
+      var middle = (low + high) >>> 1;
+      if (chunks.get(middle).tokens.getFirst().getOffset() < offset) {
+        chunkIndex = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+
+    var tokens = chunks.get(chunkIndex).tokens;
+    low = 0;
+    high = tokens.size() - 1;
+    var result = 0;
+    while (low <= high) {
+      var middle = (low + high) >>> 1;
+      if (tokens.get(middle).getOffset() < offset) {
+        result = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return firstIndexes[chunkIndex] + result;
+  }
+
+  /**
+   * Количество токенов с контрольными точками лексера.
+   *
+   * @return Количество контрольных точек
+   */
+  int checkpointCount() {
+    var count = 0;
+    for (var chunk : chunks) {
+      count += chunk.checkpointCount;
+    }
+    return count;
+  }
+
+  /**
+   * Заменяет участок списка новыми токенами и сдвигает токены после участка.
+   *
+   * @param from        Индекс первого заменяемого токена
+   * @param to          Индекс токена после заменяемого участка
+   * @param replacement Новые токены с индексами и позициями в тексте после правки; могут включать токены
+   *                    заменяемого участка
+   * @param charDelta   Сдвиг индексов символов токенов после участка
+   * @param lineDelta   Сдвиг номеров строк токенов после участка
+   * @param offsetDelta Сдвиг смещений в тексте токенов после участка
+   */
+  void replace(int from, int to, List<RelocatableToken> replacement, int charDelta, int lineDelta,
+               int offsetDelta) {
+    Objects.checkFromToIndex(from, to, size);
+    var indexDelta = replacement.size() - (to - from);
+    var first = chunkAt(from);
+    var last = to < size ? chunkAt(to) : chunks.size();
+    // токены участка, вошедшие в замену, переносятся до сдвига своих прежних фрагментов
+    var replaced = new ArrayList<Chunk>(replacement.size() / CHUNK_SIZE + 1);
+    addChunks(replaced, replacement);
+
+    var result = new ArrayList<Chunk>(chunks.size() + replacement.size() / CHUNK_SIZE + 2);
+    result.addAll(chunks.subList(0, first));
+
+    // хвост последнего затронутого фрагмента, если фрагмент общий с началом участка, переносится в новый
+    Chunk tail = null;
+    if (last < chunks.size()) {
+      var lastChunk = chunks.get(last);
+      var tailStart = to - firstIndexes[last];
+      if (last == first) {
+        tail = new Chunk();
+        tail.indexDelta = lastChunk.indexDelta;
+        tail.charDelta = lastChunk.charDelta;
+        tail.lineDelta = lastChunk.lineDelta;
+        tail.offsetDelta = lastChunk.offsetDelta;
+        for (var token : lastChunk.tokens.subList(tailStart, lastChunk.tokens.size())) {
+          token.moveTo(tail);
+          tail.tokens.add(token);
+        }
+      } else {
+        tail = lastChunk;
+        tail.tokens.subList(0, tailStart).clear();
+      }
+      tail.shift(indexDelta, charDelta, lineDelta, offsetDelta);
+      tail.recount();
+    }
+
+    var firstChunk = chunks.get(first);
+    var headSize = from - firstIndexes[first];
+    firstChunk.tokens.subList(headSize, firstChunk.tokens.size()).clear();
+    firstChunk.recount();
+    result.add(firstChunk);
+    result.addAll(replaced);
+    if (tail != null) {
+      result.add(tail);
+    }
+    for (var chunk : chunks.subList(Math.min(last + 1, chunks.size()), chunks.size())) {
+      chunk.shift(indexDelta, charDelta, lineDelta, offsetDelta);
+      result.add(chunk);
+    }
+
+    chunks = merge(result);
+    reindex();
+  }
+
+  private void reindex() {
+    var indexes = new int[chunks.size() + 1];
+    var count = 0;
+    for (var i = 0; i < chunks.size(); i++) {
+      indexes[i] = count;
+      count += chunks.get(i).tokens.size();
+    }
+    indexes[chunks.size()] = count;
+    firstIndexes = indexes;
+    size = count;
+    recentChunk = 0;
+  }
+
+  private int chunkAt(int index) {
+    var low = 0;
+    var high = chunks.size() - 1;
+    while (low < high) {
+      var middle = (low + high + 1) >>> 1;
+      if (firstIndexes[middle] <= index) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private static void addChunks(List<Chunk> target, List<RelocatableToken> tokens) {
+    for (var from = 0; from < tokens.size(); from += CHUNK_SIZE) {
+      var chunk = new Chunk();
+      for (var token : tokens.subList(from, Math.min(from + CHUNK_SIZE, tokens.size()))) {
+        token.moveTo(chunk);
+        chunk.tokens.add(token);
+      }
+      chunk.recount();
+      target.add(chunk);
+    }
+  }
+
+  /**
+   * Удаляет пустые фрагменты и объединяет соседние, суммарный размер которых не превышает размера фрагмента.
+   */
+  private static List<Chunk> merge(List<Chunk> chunks) {
+    var result = new ArrayList<Chunk>(chunks.size());
+    for (var chunk : chunks) {
+      if (chunk.tokens.isEmpty()) {
+        continue;
+      }
+      var previous = result.isEmpty() ? null : result.getLast();
+      if (previous != null && previous.tokens.size() + chunk.tokens.size() <= CHUNK_SIZE) {
+        for (var token : chunk.tokens) {
+          token.moveTo(previous);
+          previous.tokens.add(token);
+        }
+        previous.checkpointCount += chunk.checkpointCount;
+      } else {
+        result.add(chunk);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Фрагмент списка: подряд идущие токены с общим сдвигом.
+   */
+  static final class Chunk {
+    private final List<RelocatableToken> tokens = new ArrayList<>();
+    int indexDelta;
+    int charDelta;
+    int lineDelta;
+    int offsetDelta;
+    private int checkpointCount;
+
+    private void shift(int indexShift, int charShift, int lineShift, int offsetShift) {
+      indexDelta += indexShift;
+      charDelta += charShift;
+      lineDelta += lineShift;
+      offsetDelta += offsetShift;
+    }
+
+    private void recount() {
+      var count = 0;
+      for (var token : tokens) {
+        if (token.getCheckpoint() != null) {
+          count++;
+        }
+      }
+      checkpointCount = count;
+    }
+  }
+}
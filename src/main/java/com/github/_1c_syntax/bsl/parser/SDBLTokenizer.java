@@ -21,21 +21,97 @@
  */
 package com.github._1c_syntax.bsl.parser;
 
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.Tokenizer;
 
+import java.util.stream.Stream;
+
 public class SDBLTokenizer extends Tokenizer<SDBLParser.QueryPackageContext, SDBLParser> {
+  private final TokenizerOptions options;
+
   public SDBLTokenizer(String content) {
-    this(content, new SDBLLexer(CharStreams.fromString("")));
+    this(content, TokenizerOptions.DEFAULT);
   }
 
   public SDBLTokenizer(String content, Lexer lexer) {
-    super(content, lexer, SDBLParser.class);
+    this(content, lexer, TokenizerOptions.DEFAULT);
+  }
+
+  public SDBLTokenizer(String content, TokenizerOptions options) {
+    this(content, new SDBLLexer(CharStreams.fromString("")), options);
+  }
+
+  public SDBLTokenizer(String content, Lexer lexer, TokenizerOptions options) {
+    super(content, ParserSupport.prepare(lexer, options), SDBLParser.class);
+    this.options = options;
+  }
+
+  /**
+   * Разбивает текст на токены, не создавая парсера и не накапливая список токенов: токены читаются
+   * из лексера по одному по мере потребления потока. Токен EOF в поток не попадает.
+   *
+   * @param content Текст запроса
+   * @return Последовательный поток токенов
+   */
+  public static Stream<Token> tokens(String content) {
+    return tokens(SourceCharStreams.fromString(content));
+  }
+
+  /**
+   * Разбивает поток символов на токены, не создавая парсера и не накапливая список токенов.
+   * Токен EOF в поток не попадает.
+   *
+   * @param input Поток символов, например, из {@link SourceCharStreams}
+   * @return Последовательный поток токенов
+   */
+  public static Stream<Token> tokens(CharStream input) {
+    return tokens(input, TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Разбивает поток символов на токены, не создавая парсера и не накапливая список токенов.
+   * Токен EOF в поток не попадает.
+   *
+   * @param input   Поток символов, например, из {@link SourceCharStreams}
+   * @param options Настройки разбора
+   * @return Последовательный поток токенов
+   */
+  public static Stream<Token> tokens(CharStream input, TokenizerOptions options) {
+    return LexerSpliterator.stream(ParserSupport.prepare(new SDBLLexer(input), options));
+  }
+
+  /**
+   * Проверяет синтаксис текста без построения дерева разбора.
+   *
+   * @param content Текст запроса
+   * @return Найденные синтаксические ошибки
+   */
+  public static ValidationResult validate(String content) {
+    return validate(content, TokenizerOptions.DEFAULT, false);
+  }
+
+  /**
+   * Проверяет синтаксис текста без построения дерева разбора. Парсер не создает узлов дерева,
+   * а при {@code failFast} прекращает работу на первой ошибке, что сокращает время и память проверки
+   * текстов с ошибками.
+   *
+   * @param content  Текст запроса
+   * @param options  Настройки разбора
+   * @param failFast Остановить проверку на первой ошибке
+   * @return Найденные синтаксические ошибки
+   */
+  public static ValidationResult validate(String content, TokenizerOptions options, boolean failFast) {
+    var lexer = ParserSupport.prepare(new SDBLLexer(SourceCharStreams.fromString(content)), options);
+    var parser = new SDBLParser(new CommonTokenStream(lexer));
+    return ParserSupport.validate(parser, SDBLParser::queryPackage, options, failFast);
   }
 
   @Override
   protected SDBLParser.QueryPackageContext rootAST() {
-    return parser.queryPackage();
+    return ParserSupport.parse(parser, SDBLParser::queryPackage, options);
   }
 }
@@ -0,0 +1,152 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Создание потоков символов для лексеров из файлов и буферов байтов без промежуточных копий текста,
+ * а также из строк.
+ * <p>
+ * Кодировка определяется по BOM: текст в UTF-8 (с BOM, который всегда есть у выгрузок 1С, или без него)
+ * декодируется лексером прямо из буфера через {@link Utf8CharStream}, BOM пропускается. Текст в UTF-16
+ * с соответствующим BOM декодируется в память целиком.
+ * <p>
+ * Файлы по умолчанию читаются в память. Отображение файла в память включается явно методом
+ * {@link #map(Path)}: токены ссылаются на поток символов, поэтому отображение живет, пока достижимы
+ * поток или любой токен, прочитанный из него.
+ */
+@UtilityClass
+public class SourceCharStreams {
+
+  private static final String BOM = "\uFEFF";
+
+  /**
+   * Читает файл в память. Поток символов и токены не связаны с файлом после чтения.
+   *
+   * @param path Путь к файлу
+   * @return Поток символов
+   * @throws IOException Ошибка чтения файла
+   */
+  public CharStream fromPath(Path path) throws IOException {
+    return fromBuffer(ByteBuffer.wrap(Files.readAllBytes(path)), path.toString());
+  }
+
+  /**
+   * Отображает файл в память. Подходит для однократного разбора больших файлов, результат которого
+   * не хранится долго.
+   * <p>
+   * Отображение освобождается сборщиком мусора, когда недостижимы и поток символов, и все токены,
+   * прочитанные из него, в том числе токены деревьев разбора и кэшей. До этого файл нельзя изменять:
+   * обращение к усеченному файлу аварийно завершает чтение, а в Windows файл нельзя удалить
+   * или заменить. Если результат разбора нужно хранить, файл читается методом {@link #fromPath(Path)}.
+   *
+   * @param path Путь к файлу
+   * @return Поток символов над отображенным в память файлом
+   * @throws IOException Ошибка чтения файла
+   */
+  public CharStream map(Path path) throws IOException {
+    ByteBuffer buffer;
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    return fromBuffer(buffer, path.toString());
+  }
+
+  /**
+   * Создает поток символов по строке. BOM в начале строки пропускается, как при разборе
+   * {@link BSLTokenizer} и {@link SDBLTokenizer}, поэтому токены и их позиции не зависят от способа разбора.
+   *
+   * @param content Текст
+   * @return Поток символов
+   */
+  public CharStream fromString(String content) {
+    return fromString(content, IntStream.UNKNOWN_SOURCE_NAME);
+  }
+
+  /**
+   * Создает поток символов по строке с указанным именем источника. BOM в начале строки пропускается.
+   *
+   * @param content    Текст
+   * @param sourceName Имя источника
+   * @return Поток символов
+   */
+  public CharStream fromString(String content, String sourceName) {
+    var text = content.startsWith(BOM) ? content.substring(BOM.length()) : content;
+    return CharStreams.fromString(text, sourceName);
+  }
+
+  /**
+   * Создает поток символов по массиву байтов. Массив не копируется и не должен изменяться.
+   *
+   * @param bytes Текст в UTF-8 или UTF-16 с BOM
+   * @return Поток символов
+   */
+  public CharStream fromBytes(byte[] bytes) {
+    return fromBuffer(ByteBuffer.wrap(bytes), IntStream.UNKNOWN_SOURCE_NAME);
+  }
+
+  /**
+   * Создает поток символов по содержимому буфера от текущей позиции до предела, в том числе
+   * по отображенному в память файлу. Буфер не копируется и не должен изменяться.
+   *
+   * @param buffer     Текст в UTF-8 или UTF-16 с BOM
+   * @param sourceName Имя источника
+   * @return Поток символов
+   */
+  public CharStream fromBuffer(ByteBuffer buffer, String sourceName) {
+    var position = buffer.position();
+    var remaining = buffer.remaining();
+    if (remaining >= 3 && (buffer.get(position) & 0xFF) == 0xEF && (buffer.get(position + 1) & 0xFF) == 0xBB
+      && (buffer.get(position + 2) & 0xFF) == 0xBF) {
+      return new Utf8CharStream(buffer.duplicate().position(position + 3), sourceName);
+    }
+    if (remaining >= 2) {
+      var first = buffer.get(position) & 0xFF;
+      var second = buffer.get(position + 1) & 0xFF;
+      if (first == 0xFF && second == 0xFE) {
+        return decode(buffer, position + 2, StandardCharsets.UTF_16LE, sourceName);
+      }
+      if (first == 0xFE && second == 0xFF) {
+        return decode(buffer, position + 2, StandardCharsets.UTF_16BE, sourceName);
+      }
+    }
+    return new Utf8CharStream(buffer, sourceName);
+  }
+
+  private static CharStream decode(ByteBuffer buffer, int position, Charset charset, String sourceName) {
+    var text = charset.decode(buffer.duplicate().position(position)).toString();
+    return CharStreams.fromString(text, sourceName);
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+/**
+ * Синтаксическая ошибка, найденная при проверке текста.
+ *
+ * @param line        Номер строки, начиная с 1
+ * @param column      Позиция в строке, начиная с 0
+ * @param startOffset Смещение начала ошибочного токена от начала текста или -1, если токен неизвестен
+ * @param tokenIndex  Индекс ошибочного токена в потоке или -1, если токен неизвестен
+ * @param tokenType   Тип ошибочного токена или {@link org.antlr.v4.runtime.Token#INVALID_TYPE}, если токен неизвестен
+ * @param message     Сообщение об ошибке
+ */
+public record SyntaxError(int line, int column, int startOffset, int tokenIndex, int tokenType, String message) {
+}
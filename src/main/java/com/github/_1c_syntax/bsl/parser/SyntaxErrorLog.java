@@ -0,0 +1,370 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.FailedPredicateException;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.jspecify.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Журнал синтаксических ошибок парсера с отложенным формированием сообщений.
+ * <p>
+ * Журнал подключается к парсеру методом {@link #install(Parser)} и заменяет стандартную обработку ошибок:
+ * при ошибке запоминаются только ошибочный токен, вид ошибки и состояние парсера, исключения создаются
+ * без стека вызовов, а ожидаемые токены и текст сообщения вычисляются лишь при обращении к ошибке
+ * через {@link #get(int)} или {@link #message(int)}. Восстановление после ошибок и дерево разбора
+ * не меняются. Журнал удерживает ошибочные токены и контексты правил, а с ними и разобранный текст;
+ * для хранения ошибок после разбора используется {@link #snapshot()}.
+ * <p>
+ * Слушатели ошибок парсера продолжают получать уведомления, но вместо полного текста сообщения
+ * им передается только вид ошибки.
+ * <p>
+ * Исключения, создаваемые непосредственно сгенерированным кодом правил, по-прежнему содержат стек вызовов.
+ * Экземпляр не потокобезопасен.
+ */
+public final class SyntaxErrorLog extends AbstractList<SyntaxError> {
+
+  static final int NO_VIABLE_ALTERNATIVE = 0;
+  static final int INPUT_MISMATCH = 1;
+  static final int FAILED_PREDICATE = 2;
+  static final int EXTRANEOUS_INPUT = 3;
+  static final int MISSING_TOKEN = 4;
+  static final int UNKNOWN = 5;
+
+  private static final String[] KIND_NAMES = {
+    "no viable alternative",
+    "mismatched input",
+    "failed predicate",
+    "extraneous input",
+    "missing token",
+    "unknown recognition error"
+  };
+
+  private final ATN atn;
+  private final Vocabulary vocabulary;
+  private final String[] ruleNames;
+
+  private int[] kinds = new int[8];
+  private int[] states = new int[8];
+  private Token[] tokens = new Token[8];
+  private Object[] details = new Object[8];
+  private int size;
+
+  SyntaxErrorLog(Parser parser) {
+    this.atn = parser.getATN();
+    this.vocabulary = parser.getVocabulary();
+    this.ruleNames = parser.getRuleNames();
+  }
+
+  /**
+   * Подключает к парсеру облегченную обработку синтаксических ошибок с новым журналом.
+   *
+   * @param parser Парсер
+   * @return Журнал ошибок, заполняемый при разборе
+   */
+  public static SyntaxErrorLog install(Parser parser) {
+    var log = new SyntaxErrorLog(parser);
+    LightweightErrorStrategy.install(parser, log);
+    return log;
+  }
+
+  /**
+   * Журнал ошибок, подключенный к парсеру.
+   *
+   * @param parser Парсер
+   * @return Журнал ошибок или {@code null}, если парсер использует стандартную обработку ошибок
+   */
+  public static @Nullable SyntaxErrorLog of(Parser parser) {
+    return parser.getErrorHandler() instanceof LightweightErrorStrategy strategy ? strategy.log() : null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Ошибка с текстом сообщения. Сообщение формируется при каждом обращении.
+   *
+   * @param index Номер ошибки
+   * @return Ошибка
+   */
+  @Override
+  public SyntaxError get(int index) {
+    var token = token(index);
+    return new SyntaxError(token.getLine(), token.getCharPositionInLine(), token.getStartIndex(),
+      token.getTokenIndex(), token.getType(), message(index));
+  }
+
+  /**
+   * Номер строки ошибки, начиная с 1.
+   *
+   * @param index Номер ошибки
+   * @return Номер строки
+   */
+  public int line(int index) {
+    return token(index).getLine();
+  }
+
+  /**
+   * Позиция ошибки в строке, начиная с 0.
+   *
+   * @param index Номер ошибки
+   * @return Позиция в строке
+   */
+  public int column(int index) {
+    return token(index).getCharPositionInLine();
+  }
+
+  /**
+   * Смещение начала ошибочного токена от начала текста.
+   *
+   * @param index Номер ошибки
+   * @return Смещение
+   */
+  public int startOffset(int index) {
+    return token(index).getStartIndex();
+  }
+
+  /**
+   * Индекс ошибочного токена в потоке.
+   *
+   * @param index Номер ошибки
+   * @return Индекс токена
+   */
+  public int tokenIndex(int index) {
+    return token(index).getTokenIndex();
+  }
+
+  /**
+   * Тип ошибочного токена.
+   *
+   * @param index Номер ошибки
+   * @return Тип токена
+   */
+  public int tokenType(int index) {
+    return token(index).getType();
+  }
+
+  /**
+   * Текст сообщения об ошибке в формате стандартной обработки ошибок ANTLR.
+   *
+   * @param index Номер ошибки
+   * @return Сообщение
+   */
+  public String message(int index) {
+    return message(kinds[index], text(index), () -> expected(index).toString(vocabulary));
+  }
+
+  /**
+   * Копия ошибок журнала, не связанная с парсером. Копия хранит только позиции и тексты ошибочных токенов
+   * и номера состояний ATN, без токенов, потока символов, исключений и контекстов правил, поэтому
+   * не удерживает в памяти разобранный текст. Ожидаемые токены и текст сообщения по-прежнему вычисляются
+   * лишь при обращении к ошибке. Последующие изменения журнала на копию не влияют.
+   *
+   * @return Неизменяемый список ошибок
+   */
+  public List<SyntaxError> snapshot() {
+    var lines = new int[size];
+    var columns = new int[size];
+    var startOffsets = new int[size];
+    var tokenIndexes = new int[size];
+    var tokenTypes = new int[size];
+    var texts = new String[size];
+    var contexts = new int[size][];
+    for (var index = 0; index < size; index++) {
+      var token = tokens[index];
+      lines[index] = token.getLine();
+      columns[index] = token.getCharPositionInLine();
+      startOffsets[index] = token.getStartIndex();
+      tokenIndexes[index] = token.getTokenIndex();
+      tokenTypes[index] = token.getType();
+      texts[index] = text(index);
+      contexts[index] = invokingStates(context(index));
+    }
+    return new SyntaxErrorSnapshot(atn, vocabulary, Arrays.copyOf(kinds, size), Arrays.copyOf(states, size),
+      lines, columns, startOffsets, tokenIndexes, tokenTypes, texts, contexts);
+  }
+
+  /**
+   * Формирует текст сообщения об ошибке.
+   *
+   * @param kind     Вид ошибки
+   * @param text     Ошибочный фрагмент или готовое сообщение, см. {@link #text(int)}
+   * @param expected Вычисление ожидаемых токенов
+   * @return Сообщение
+   */
+  static String message(int kind, String text, Supplier<String> expected) {
+    return switch (kind) {
+      case NO_VIABLE_ALTERNATIVE -> "no viable alternative at input " + text;
+      case INPUT_MISMATCH -> "mismatched input " + text + " expecting " + expected.get();
+      case EXTRANEOUS_INPUT -> "extraneous input " + text + " expecting " + expected.get();
+      case MISSING_TOKEN -> "missing " + expected.get() + " at " + text;
+      default -> text;
+    };
+  }
+
+  /**
+   * Восстанавливает цепочку контекстов правил по состояниям вызова, см. {@link #invokingStates(RuleContext)}.
+   *
+   * @param invokingStates Состояния вызова от внутреннего правила к внешнему
+   * @return Контекст внутреннего правила или {@code null}, если цепочка пуста
+   */
+  static @Nullable RuleContext context(int[] invokingStates) {
+    RuleContext context = null;
+    for (var index = invokingStates.length - 1; index >= 0; index--) {
+      context = new RuleContext(context, invokingStates[index]);
+    }
+    return context;
+  }
+
+  /**
+   * Краткое описание вида ошибки, передаваемое слушателям ошибок парсера.
+   *
+   * @param kind Вид ошибки
+   * @return Описание
+   */
+  static String kindName(int kind) {
+    return KIND_NAMES[kind];
+  }
+
+  void add(int kind, Token token, int state, Object detail) {
+    if (size == kinds.length) {
+      var capacity = size * 2;
+      kinds = Arrays.copyOf(kinds, capacity);
+      states = Arrays.copyOf(states, capacity);
+      tokens = Arrays.copyOf(tokens, capacity);
+      details = Arrays.copyOf(details, capacity);
+    }
+    kinds[size] = kind;
+    states[size] = state;
+    tokens[size] = token;
+    details[size] = detail;
+    size++;
+  }
+
+  /**
+   * Дописывает в журнал ошибки другого журнала той же грамматики, например, журнала разбора
+   * отдельного тела метода.
+   *
+   * @param other Журнал ошибок
+   */
+  void addAll(SyntaxErrorLog other) {
+    for (var index = 0; index < other.size; index++) {
+      add(other.kinds[index], other.tokens[index], other.states[index], other.details[index]);
+    }
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(tokens, 0, size, null);
+    Arrays.fill(details, 0, size, null);
+    size = 0;
+  }
+
+  private Token token(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return tokens[index];
+  }
+
+  private IntervalSet expected(int index) {
+    return atn.getExpectedTokens(states[index], context(index));
+  }
+
+  /**
+   * Ошибочный фрагмент в кавычках или, для ошибок без ожидаемых токенов, готовое сообщение.
+   */
+  private String text(int index) {
+    var detail = details[index];
+    return switch (kinds[index]) {
+      case NO_VIABLE_ALTERNATIVE -> noViableInput((NoViableAltException) detail);
+      case FAILED_PREDICATE -> "rule " + ruleNames[states[index]] + " "
+        + ((FailedPredicateException) detail).getMessage();
+      case INPUT_MISMATCH, EXTRANEOUS_INPUT, MISSING_TOKEN -> display(tokens[index]);
+      default -> String.valueOf(((RecognitionException) detail).getMessage());
+    };
+  }
+
+  private @Nullable RuleContext context(int index) {
+    return switch (kinds[index]) {
+      case INPUT_MISMATCH -> ((InputMismatchException) details[index]).getCtx();
+      case EXTRANEOUS_INPUT, MISSING_TOKEN -> (ParserRuleContext) details[index];
+      default -> null;
+    };
+  }
+
+  /**
+   * Состояния ATN, из которых вызваны правила цепочки контекстов, от внутреннего правила к внешнему.
+   */
+  private static int[] invokingStates(@Nullable RuleContext context) {
+    var depth = 0;
+    for (var current = context; current != null && current.invokingState >= 0; current = current.parent) {
+      depth++;
+    }
+    var result = new int[depth];
+    var current = context;
+    for (var index = 0; index < depth; index++) {
+      result[index] = current.invokingState;
+      current = current.parent;
+    }
+    return result;
+  }
+
+  private static String noViableInput(NoViableAltException e) {
+    if (e.getStartToken().getType() == Token.EOF) {
+      return quote("<EOF>");
+    }
+    var input = e.getInputStream() instanceof TokenStream tokenStream
+      ? tokenStream.getText(e.getStartToken(), e.getOffendingToken())
+      : "<unknown input>";
+    return quote(input);
+  }
+
+  private static String display(Token token) {
+    var text = token.getText();
+    if (text == null) {
+      text = token.getType() == Token.EOF ? "<EOF>" : "<" + token.getType() + ">";
+    }
+    return quote(text);
+  }
+
+  private static String quote(String text) {
+    return "'" + text.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t") + "'";
+  }
+}
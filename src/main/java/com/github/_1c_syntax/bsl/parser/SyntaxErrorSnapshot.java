@@ -0,0 +1,84 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.atn.ATN;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемая копия ошибок {@link SyntaxErrorLog}, см. {@link SyntaxErrorLog#snapshot()}.
+ * <p>
+ * Хранит позиции и тексты ошибочных токенов в массивах, а вместо контекстов правил - номера состояний ATN,
+ * из которых правила были вызваны. ATN и словарь грамматики статические и разделяются всеми парсерами.
+ */
+final class SyntaxErrorSnapshot extends AbstractList<SyntaxError> implements RandomAccess {
+
+  private final ATN atn;
+  private final Vocabulary vocabulary;
+  private final int[] kinds;
+  private final int[] states;
+  private final int[] lines;
+  private final int[] columns;
+  private final int[] startOffsets;
+  private final int[] tokenIndexes;
+  private final int[] tokenTypes;
+  private final String[] texts;
+  private final int[][] invokingStates;
+
+  SyntaxErrorSnapshot(ATN atn, Vocabulary vocabulary, int[] kinds, int[] states, int[] lines, int[] columns,
+                      int[] startOffsets, int[] tokenIndexes, int[] tokenTypes, String[] texts,
+                      int[][] invokingStates) {
+    this.atn = atn;
+    this.vocabulary = vocabulary;
+    this.kinds = kinds;
+    this.states = states;
+    this.lines = lines;
+    this.columns = columns;
+    this.startOffsets = startOffsets;
+    this.tokenIndexes = tokenIndexes;
+    this.tokenTypes = tokenTypes;
+    this.texts = texts;
+    this.invokingStates = invokingStates;
+  }
+
+  @Override
+  public int size() {
+    return kinds.length;
+  }
+
+  /**
+   * Ошибка с текстом сообщения. Сообщение формируется при каждом обращении.
+   *
+   * @param index Номер ошибки
+   * @return Ошибка
+   */
+  @Override
+  public SyntaxError get(int index) {
+    var message = SyntaxErrorLog.message(kinds[index], texts[index],
+      () -> atn.getExpectedTokens(states[index], SyntaxErrorLog.context(invokingStates[index])).toString(vocabulary));
+    return new SyntaxError(lines[index], columns[index], startOffsets[index], tokenIndexes[index],
+      tokenTypes[index], message);
+  }
+}
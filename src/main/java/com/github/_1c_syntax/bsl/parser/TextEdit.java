@@ -0,0 +1,71 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+/**
+ * Правка текста: замена диапазона исходного текста новым текстом.
+ * <p>
+ * Смещения задаются в символах {@link String} исходного текста, конец диапазона не включается.
+ * Вставка задается пустым диапазоном, удаление - пустым новым текстом.
+ *
+ * @param start Смещение начала заменяемого диапазона
+ * @param end   Смещение конца заменяемого диапазона (не включая)
+ * @param text  Новый текст
+ */
+public record TextEdit(int start, int end, String text) {
+
+  /**
+   * Создает правку, проверяя корректность диапазона.
+   *
+   * @param start Смещение начала заменяемого диапазона
+   * @param end   Смещение конца заменяемого диапазона (не включая)
+   * @param text  Новый текст
+   */
+  public TextEdit {
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException("Invalid edit range: " + start + ".." + end);
+    }
+  }
+
+  /**
+   * Применяет правку к тексту.
+   *
+   * @param content Исходный текст
+   * @return Текст после правки
+   */
+  public String apply(String content) {
+    checkRange(content);
+    return content.substring(0, start) + text + content.substring(end);
+  }
+
+  /**
+   * Проверяет, что диапазон правки не выходит за пределы текста.
+   *
+   * @param content Исходный текст
+   */
+  void checkRange(String content) {
+    if (end > content.length()) {
+      throw new IllegalArgumentException("Edit range " + start + ".." + end
+        + " is out of text length " + content.length());
+    }
+  }
+}
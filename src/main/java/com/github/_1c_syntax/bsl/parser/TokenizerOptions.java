@@ -0,0 +1,101 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Настройки разбора, применяемые токенизаторами {@link BSLTokenizer} и {@link SDBLTokenizer}.
+ * <p>
+ * Экземпляр неизменяем и может разделяться между токенизаторами.
+ */
+@Value
+@Builder
+public class TokenizerOptions {
+
+  /**
+   * Настройки по умолчанию: полный LL-разбор.
+   */
+  public static final TokenizerOptions DEFAULT = TokenizerOptions.builder().build();
+
+  /**
+   * Стратегия предсказания альтернатив парсером.
+   */
+  @Builder.Default
+  PredictionStrategy predictionStrategy = PredictionStrategy.LL;
+
+  /**
+   * Счетчики двухэтапного разбора. Заполняются только для стратегии {@link PredictionStrategy#SLL_THEN_LL}.
+   */
+  @Builder.Default
+  PredictionStatistics predictionStatistics = new PredictionStatistics();
+
+  /**
+   * Управляемый кэш предсказаний. {@code null} - используются статические кэши сгенерированных
+   * лексеров и парсеров.
+   */
+  @Nullable
+  @Builder.Default
+  PredictionCache predictionCache = null;
+
+  /**
+   * Отложенный разбор тел методов модулей BSL: сразу строится только каркас модуля, тело каждого метода
+   * разбирается при первом обращении, см. {@link LazySubCodeBlockContext}. Не влияет на разбор запросов.
+   */
+  boolean lazySubCodeBlocks;
+
+  /**
+   * Исполнитель для параллельного разбора тел методов модулей BSL. Тела методов разбираются
+   * одновременно после построения каркаса модуля и встраиваются в общее дерево разбора.
+   * {@code null} - модуль разбирается в вызывающем потоке. Не влияет на разбор запросов.
+   */
+  @Nullable
+  @Builder.Default
+  Executor subCodeBlockExecutor = null;
+
+  /**
+   * Признак отмены разбора. При срабатывании лексер и парсер прерывают работу исключением
+   * {@link ParseCancelledException}. Тела методов, отложенные до первого обращения, разбираются
+   * без этого признака, см. {@link LazySubCodeBlockContext#parse(CancellationToken)}.
+   * {@code null} - разбор не прерывается.
+   */
+  @Nullable
+  @Builder.Default
+  CancellationToken cancellationToken = null;
+
+  /**
+   * Облегченная обработка синтаксических ошибок парсером: ошибки записываются в {@link SyntaxErrorLog},
+   * исключения создаются без стека вызовов, а текст сообщений формируется только по запросу.
+   * Слушатели ошибок парсера получают вместо текста сообщения вид ошибки.
+   */
+  boolean lightweightSyntaxErrors;
+
+  /**
+   * Получатель показателей разбора каждого текста. По умолчанию показатели не собираются.
+   */
+  @Builder.Default
+  ParseMetricsListener metricsListener = ParseMetricsListener.NOOP;
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Пул переиспользуемых пар лексер-парсер.
+ * <p>
+ * В отличие от {@link BSLTokenizer} и {@link SDBLTokenizer}, которые на каждый текст создают новые лексер и
+ * парсер, пул сбрасывает и повторно использует ранее созданные экземпляры. Это снижает стоимость подготовки
+ * разбора и нагрузку на сборщик мусора при разборе большого количества небольших текстов.
+ * <p>
+ * Пул потокобезопасен и не использует {@link ThreadLocal} и блокировки, поэтому пригоден для виртуальных потоков:
+ * свободные экземпляры хранятся в неблокирующей очереди, экземпляр выдается на время одного разбора.
+ * Количество хранимых свободных экземпляров ограничено, лишние отдаются сборщику мусора.
+ * <p>
+ * Токены результата ссылаются на лексер как на источник ({@link Token#getTokenSource()}), который после разбора
+ * возвращается в пул; текст и позиции токенов при этом остаются корректными.
+ *
+ * @param <P> Тип парсера
+ * @param <T> Тип корневого узла
+ */
+public final class TokenizerPool<P extends Parser, T extends ParserRuleContext> {
+
+  private static final int DEFAULT_MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+
+  private final Supplier<? extends Lexer> lexerFactory;
+  private final Function<TokenStream, P> parserFactory;
+  private final Function<P, T> rootRule;
+  private final TokenizerOptions options;
+  private final int maxIdle;
+
+  private final Queue<Instance<P>> idle = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger idleCount = new AtomicInteger();
+
+  /**
+   * Создает пул с ограничением количества свободных экземпляров по умолчанию.
+   *
+   * @param lexerFactory  Фабрика лексеров
+   * @param parserFactory Фабрика парсеров
+   * @param rootRule      Корневое правило грамматики
+   * @param options       Настройки разбора
+   */
+  public TokenizerPool(Supplier<? extends Lexer> lexerFactory,
+                       Function<TokenStream, P> parserFactory,
+                       Function<P, T> rootRule,
+                       TokenizerOptions options) {
+    this(lexerFactory, parserFactory, rootRule, options, DEFAULT_MAX_IDLE);
+  }
+
+  /**
+   * Создает пул.
+   *
+   * @param lexerFactory  Фабрика лексеров
+   * @param parserFactory Фабрика парсеров
+   * @param rootRule      Корневое правило грамматики
+   * @param options       Настройки разбора
+   * @param maxIdle       Максимальное количество хранимых свободных экземпляров
+   */
+  public TokenizerPool(Supplier<? extends Lexer> lexerFactory,
+                       Function<TokenStream, P> parserFactory,
+                       Function<P, T> rootRule,
+                       TokenizerOptions options,
+                       int maxIdle) {
+    if (maxIdle < 0) {
+      throw new IllegalArgumentException("maxIdle must not be negative: " + maxIdle);
+    }
+    this.lexerFactory = lexerFactory;
+    this.parserFactory = parserFactory;
+    this.rootRule = rootRule;
+    this.options = options;
+    this.maxIdle = maxIdle;
+  }
+
+  /**
+   * Пул для разбора модулей BSL с настройками по умолчанию.
+   *
+   * @return Новый пул
+   */
+  public static TokenizerPool<BSLParser, BSLParser.FileContext> bsl() {
+    return bsl(TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Пул для разбора модулей BSL.
+   *
+   * @param options Настройки разбора
+   * @return Новый пул
+   */
+  public static TokenizerPool<BSLParser, BSLParser.FileContext> bsl(TokenizerOptions options) {
+    return new TokenizerPool<>(() -> new BSLLexer(CharStreams.fromString("")),
+      BSLParser::new, LazySubCodeBlocks.rootRule(options), options);
+  }
+
+  /**
+   * Пул для разбора текстов запросов с настройками по умолчанию.
+   *
+   * @return Новый пул
+   */
+  public static TokenizerPool<SDBLParser, SDBLParser.QueryPackageContext> sdbl() {
+    return sdbl(TokenizerOptions.DEFAULT);
+  }
+
+  /**
+   * Пул для разбора текстов запросов.
+   *
+   * @param options Настройки разбора
+   * @return Новый пул
+   */
+  public static TokenizerPool<SDBLParser, SDBLParser.QueryPackageContext> sdbl(TokenizerOptions options) {
+    return new TokenizerPool<>(() -> new SDBLLexer(CharStreams.fromString("")),
+      SDBLParser::new, SDBLParser::queryPackage, options);
+  }
+
+  /**
+   * Разбирает текст, используя свободный экземпляр лексера и парсера из пула.
+   *
+   * @param content Текст для разбора
+   * @return Токены и дерево разбора
+   */
+  public ParseResult<T> parse(String content) {
+    return parse(SourceCharStreams.fromString(content));
+  }
+
+  /**
+   * Разбирает поток символов, используя свободный экземпляр лексера и парсера из пула.
+   * Позволяет разбирать файлы и буферы без копирования текста, см. {@link SourceCharStreams}.
+   *
+   * @param input Поток символов для разбора
+   * @return Токены и дерево разбора
+   */
+  public ParseResult<T> parse(CharStream input) {
+    return parse(input, options.getCancellationToken());
+  }
+
+  /**
+   * Разбирает поток символов с собственным признаком отмены, например, с отдельным ограничением времени
+   * на каждый файл. Признак заменяет {@link TokenizerOptions#getCancellationToken()} настроек пула.
+   *
+   * @param input             Поток символов для разбора
+   * @param cancellationToken Признак отмены этого разбора; {@code null} - разбор не прерывается
+   * @return Токены и дерево разбора
+   * @throws ParseCancelledException Разбор прерван
+   */
+  public ParseResult<T> parse(CharStream input, @Nullable CancellationToken cancellationToken) {
+    var instance = acquire();
+    try {
+      var tokenStream = instance.tokenize(input, options, cancellationToken);
+      instance.parser.setTokenStream(tokenStream);
+      var ast = ParserSupport.parse(instance.parser, rootRule, options, cancellationToken);
+      return new ParseResult<>(tokens(tokenStream), ast);
+    } finally {
+      release(instance);
+    }
+  }
+
+  /**
+   * Разбивает текст на токены, не выполняя синтаксический разбор.
+   *
+   * @param content Текст для разбора
+   * @return Список токенов, последним идет EOF в скрытом канале
+   */
+  public List<Token> tokenize(String content) {
+    return tokenize(SourceCharStreams.fromString(content));
+  }
+
+  /**
+   * Разбивает поток символов на токены, не выполняя синтаксический разбор.
+   *
+   * @param input Поток символов для разбора
+   * @return Список токенов, последним идет EOF в скрытом канале
+   */
+  public List<Token> tokenize(CharStream input) {
+    var instance = acquire();
+    try {
+      return tokens(instance.tokenize(input, options, options.getCancellationToken()));
+    } finally {
+      release(instance);
+    }
+  }
+
+  /**
+   * Количество свободных экземпляров, хранимых пулом в данный момент.
+   *
+   * @return Количество свободных экземпляров
+   */
+  public int idleCount() {
+    return idleCount.get();
+  }
+
+  private Instance<P> acquire() {
+    var instance = idle.poll();
+    if (instance != null) {
+      idleCount.decrementAndGet();
+      return instance;
+    }
+
+    var lexer = lexerFactory.get();
+    lexer.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    var parser = parserFactory.apply(new CommonTokenStream(lexer));
+    parser.removeErrorListener(ConsoleErrorListener.INSTANCE);
+    return new Instance<>(lexer, parser);
+  }
+
+  private void release(Instance<P> instance) {
+    // отпускаем ссылки на разобранный текст, чтобы пул не удерживал его в памяти
+    instance.lexer.setInputStream(CharStreams.fromString(""));
+    instance.parser.setTokenStream(new CommonTokenStream(instance.lexer));
+
+    if (idleCount.incrementAndGet() <= maxIdle) {
+      idle.offer(instance);
+    } else {
+      idleCount.decrementAndGet();
+    }
+  }
+
+  private static List<Token> tokens(CommonTokenStream tokenStream) {
+    var tokens = tokenStream.getTokens();
+    var lastToken = tokens.getLast();
+    if (lastToken.getType() == Token.EOF && lastToken instanceof CommonToken eof) {
+      eof.setChannel(Lexer.HIDDEN);
+    }
+    return tokens;
+  }
+
+  private record Instance<P extends Parser>(Lexer lexer, P parser) {
+    CommonTokenStream tokenize(CharStream input, TokenizerOptions options,
+                               @Nullable CancellationToken cancellationToken) {
+      ParserSupport.prepare(lexer, options, cancellationToken);
+      lexer.setInputStream(input);
+      var tokenStream = new CommonTokenStream(lexer);
+      tokenStream.fill();
+      return tokenStream;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Поток символов, декодирующий UTF-8 непосредственно из буфера байтов.
+ * <p>
+ * В отличие от {@link org.antlr.v4.runtime.CharStreams#fromString(String)}, текст не копируется ни в строку,
+ * ни в массив кодовых точек: символы декодируются из буфера по мере чтения лексером. Буфер может быть
+ * отображенным в память файлом. Для произвольного доступа по индексу символа при создании потока строится
+ * разреженная таблица смещений: смещение в байтах каждой {@value #STRIDE}-й кодовой точки.
+ * <p>
+ * Корректность UTF-8 проверяется один раз при создании потока. Если текст корректен, при чтении длина
+ * последовательности определяется по первому байту без повторной проверки. Текущий символ декодируется
+ * один раз при переходе к нему.
+ * <p>
+ * Некорректные последовательности UTF-8 читаются как символ замены U+FFFD, по одному на байт.
+ * Поток, как и прочие потоки символов ANTLR, не потокобезопасен.
+ */
+public final class Utf8CharStream implements CharStream {
+
+  private static final int STRIDE = 64;
+  private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+  private final ByteBuffer buffer;
+  private final int start;
+  private final int limit;
+  private final String sourceName;
+  private final int size;
+  private final int[] offsets;
+  private final boolean wellFormed;
+
+  private int index;
+  private int offset;
+  private int current;
+  private int currentLength;
+
+  /**
+   * Создает поток по содержимому буфера от текущей позиции до предела. Позиция буфера не меняется.
+   *
+   * @param buffer     Буфер с текстом в UTF-8 без BOM
+   * @param sourceName Имя источника
+   */
+  public Utf8CharStream(ByteBuffer buffer, String sourceName) {
+    this.buffer = buffer.duplicate();
+    this.start = buffer.position();
+    this.limit = buffer.limit();
+    this.sourceName = sourceName;
+
+    var count = 0;
+    var valid = true;
+    var table = new int[(limit - start) / STRIDE + 2];
+    for (var p = start; p < limit; count++) {
+      if (count % STRIDE == 0) {
+        table[count / STRIDE] = p;
+      }
+      var length = lengthAt(p);
+      valid &= length > 0;
+      p += Math.abs(length);
+    }
+    if (count % STRIDE == 0) {
+      table[count / STRIDE] = limit;
+    }
+    this.size = count;
+    this.offsets = Arrays.copyOf(table, count / STRIDE + 1);
+    this.wellFormed = valid;
+    this.offset = start;
+    decodeCurrent();
+  }
+
+  @Override
+  public void consume() {
+    if (offset >= limit) {
+      throw new IllegalStateException("cannot consume EOF");
+    }
+    offset += Math.abs(currentLength);
+    index++;
+    decodeCurrent();
+  }
+
+  @Override
+  public int LA(int i) {
+    if (i == 0) {
+      return 0;
+    }
+    if (i < 0) {
+      var target = index + i;
+      return target < 0 ? IntStream.EOF : codePointAt(offsetOf(target));
+    }
+    if (i == 1) {
+      return current;
+    }
+    var p = offset + Math.abs(currentLength);
+    for (var k = 2; k < i && p < limit; k++) {
+      p += Math.abs(length(p));
+    }
+    return p >= limit ? IntStream.EOF : codePointAt(p);
+  }
+
+  @Override
+  public int mark() {
+    return -1;
+  }
+
+  @Override
+  public void release(int marker) {
+    // весь текст доступен в буфере, отметки не нужны
+  }
+
+  @Override
+  public int index() {
+    return index;
+  }
+
+  @Override
+  public void seek(int index) {
+    var target = Math.min(Math.max(index, 0), size);
+    offset = offsetOf(target);
+    this.index = target;
+    decodeCurrent();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String getSourceName() {
+    return sourceName;
+  }
+
+  @Override
+  public String getText(Interval interval) {
+    var first = Math.max(interval.a, 0);
+    var last = Math.min(interval.b, size - 1);
+    if (first > last) {
+      return "";
+    }
+    var from = offsetOf(first);
+    var to = offsetOf(last + 1);
+    if (!wellFormed) {
+      var text = new StringBuilder(last - first + 1);
+      for (var p = from; p < to; ) {
+        var length = lengthAt(p);
+        text.appendCodePoint(decode(p, length));
+        p += Math.abs(length);
+      }
+      return text.toString();
+    }
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+    }
+    var bytes = new byte[to - from];
+    buffer.get(from, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String toString() {
+    return getText(Interval.of(0, size - 1));
+  }
+
+  /**
+   * Смещение в байтах кодовой точки с указанным индексом. Близкие к текущей позиции индексы
+   * отсчитываются от нее, остальные - от ближайшей точки таблицы смещений.
+   */
+  private int offsetOf(int target) {
+    if (target >= size) {
+      return limit;
+    }
+    if (target >= index && target - index < STRIDE) {
+      return forward(offset, target - index);
+    }
+    if (target < index && wellFormed && index - target < STRIDE) {
+      var p = offset;
+      for (var k = target; k < index; k++) {
+        do {
+          p--;
+        } while ((buffer.get(p) & 0xC0) == 0x80);
+      }
+      return p;
+    }
+    return forward(offsets[target / STRIDE], target % STRIDE);
+  }
+
+  private int forward(int p, int count) {
+    for (var k = 0; k < count; k++) {
+      p += Math.abs(length(p));
+    }
+    return p;
+  }
+
+  private void decodeCurrent() {
+    if (offset >= limit) {
+      current = IntStream.EOF;
+      currentLength = 0;
+    } else {
+      currentLength = length(offset);
+      current = decode(offset, currentLength);
+    }
+  }
+
+  private int codePointAt(int p) {
+    return decode(p, length(p));
+  }
+
+  private int decode(int p, int length) {
+    var lead = buffer.get(p) & 0xFF;
+    return switch (length) {
+      case 1 -> lead;
+      case 2 -> ((lead & 0x1F) << 6) | (buffer.get(p + 1) & 0x3F);
+      case 3 -> ((lead & 0x0F) << 12) | ((buffer.get(p + 1) & 0x3F) << 6) | (buffer.get(p + 2) & 0x3F);
+      case 4 -> ((lead & 0x07) << 18) | ((buffer.get(p + 1) & 0x3F) << 12)
+        | ((buffer.get(p + 2) & 0x3F) << 6) | (buffer.get(p + 3) & 0x3F);
+      default -> REPLACEMENT_CHARACTER;
+    };
+  }
+
+  /**
+   * Длина в байтах последовательности UTF-8, начинающейся в указанной позиции, с проверкой корректности,
+   * только если текст содержит некорректные последовательности, см. {@link #lengthAt(int)}.
+   */
+  private int length(int p) {
+    if (!wellFormed) {
+      return lengthAt(p);
+    }
+    var lead = buffer.get(p) & 0xFF;
+    if (lead < 0x80) {
+      return 1;
+    }
+    if (lead < 0xE0) {
+      return 2;
+    }
+    return lead < 0xF0 ? 3 : 4;
+  }
+
+  /**
+   * Длина в байтах последовательности UTF-8, начинающейся в указанной позиции.
+   * Для некорректной последовательности возвращается {@code -1}: такой байт читается как отдельный символ.
+   */
+  private int lengthAt(int p) {
+    var lead = buffer.get(p) & 0xFF;
+    if (lead < 0x80) {
+      return 1;
+    }
+    int length;
+    int min = 0x80;
+    int max = 0xBF;
+    if (lead >= 0xC2 && lead <= 0xDF) {
+      length = 2;
+    } else if (lead >= 0xE0 && lead <= 0xEF) {
+      length = 3;
+      if (lead == 0xE0) {
+        min = 0xA0;
+      } else if (lead == 0xED) {
+        max = 0x9F;
+      }
+    } else if (lead >= 0xF0 && lead <= 0xF4) {
+      length = 4;
+      if (lead == 0xF0) {
+        min = 0x90;
+      } else if (lead == 0xF4) {
+        max = 0x8F;
+      }
+    } else {
+      return -1;
+    }
+    if (p + length > limit) {
+      return -1;
+    }
+    var second = buffer.get(p + 1) & 0xFF;
+    if (second < min || second > max) {
+      return -1;
+    }
+    for (var k = 2; k < length; k++) {
+      if ((buffer.get(p + k) & 0xC0) != 0x80) {
+        return -1;
+      }
+    }
+    return length;
+  }
+}
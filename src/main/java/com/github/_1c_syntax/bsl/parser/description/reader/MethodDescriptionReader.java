@@ -46,8 +46,6 @@ import java.util.Optional;
 import java.util.StringJoiner;
 import java.util.stream.Collectors;
 
-import static java.util.Objects.requireNonNull;
-
 /**
  * Вспомогательный класс для чтения описания метода.
  */
@@ -104,16 +102,32 @@ public final class MethodDescriptionReader extends BSLDescriptionParserBaseVisit
   }
 
   private static MethodDescription read(String descriptionText, SimpleRange range, int[] charShifts) {
-    var tokenizer = new MethodDescriptionTokenizer(descriptionText);
-    var ast = requireNonNull(tokenizer.getAst());
-
-    var reader = new MethodDescriptionReader(range, charShifts);
-    reader.builder
-      .description(descriptionText.strip())
-      .links(ReaderUtils.readLinks(ast, reader.lineShift, reader.charShifts))
-      .range(range);
-    reader.visitMethodDescription(ast);
-    return reader.builder.build();
+    var event = new MethodDescriptionReadingEvent();
+    event.begin();
+    var tokenCount = 0;
+    var outcome = MethodDescriptionReadingEvent.FAILED;
+    try {
+      var ast = MethodDescriptionTokenizer.parse(descriptionText);
+      tokenCount = ast.getStop() == null ? 0 : ast.getStop().getTokenIndex() + 1;
+
+      var reader = new MethodDescriptionReader(range, charShifts);
+      reader.builder
+        .description(descriptionText.strip())
+        .links(ReaderUtils.readLinks(ast, reader.lineShift, reader.charShifts))
+        .range(range);
+      reader.visitMethodDescription(ast);
+      var description = reader.builder.build();
+      outcome = MethodDescriptionReadingEvent.SUCCESS;
+      return description;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.descriptionLength = descriptionText.length();
+        event.tokenCount = tokenCount;
+        event.outcome = outcome;
+        event.commit();
+      }
+    }
   }
 
   @Override
@@ -0,0 +1,55 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser.description.reader;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие Java Flight Recorder: чтение описания метода.
+ * <p>
+ * Включается стандартными настройками JFR по имени
+ * {@code com.github._1c_syntax.bsl.parser.MethodDescriptionReading}.
+ */
+@Name("com.github._1c_syntax.bsl.parser.MethodDescriptionReading")
+@Label("Method Description Reading")
+@Category({"BSL Parser"})
+@Description("Parsing of a method description comment")
+class MethodDescriptionReadingEvent extends Event {
+
+  static final String SUCCESS = "SUCCESS";
+  static final String FAILED = "FAILED";
+
+  @Label("Description Length")
+  @Description("Description text length in characters")
+  int descriptionLength;
+
+  @Label("Token Count")
+  int tokenCount;
+
+  @Label("Outcome")
+  @Description("SUCCESS or FAILED")
+  String outcome;
+}
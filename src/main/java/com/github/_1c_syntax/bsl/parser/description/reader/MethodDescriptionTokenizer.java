@@ -23,19 +23,32 @@ package com.github._1c_syntax.bsl.parser.description.reader;
 
 import com.github._1c_syntax.bsl.parser.BSLDescriptionLexer;
 import com.github._1c_syntax.bsl.parser.BSLDescriptionParser;
+import com.github._1c_syntax.bsl.parser.TokenizerOptions;
+import com.github._1c_syntax.bsl.parser.TokenizerPool;
+import lombok.experimental.UtilityClass;
 import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.Tokenizer;
 
-class MethodDescriptionTokenizer
-  extends Tokenizer<BSLDescriptionParser.MethodDescriptionContext, BSLDescriptionParser> {
-  public MethodDescriptionTokenizer(String content) {
-    super(content + "\n",
-      new BSLDescriptionLexer(CharStreams.fromString("")),
-      BSLDescriptionParser.class);
-  }
+/**
+ * Токенизатор описания метода. Лексеры и парсеры переиспользуются между вызовами,
+ * т.к. описание разбирается для каждого блока комментариев модуля. Описания произвольного вида
+ * часто не соответствуют грамматике, поэтому ошибки обрабатываются облегченно.
+ */
+@UtilityClass
+class MethodDescriptionTokenizer {
+
+  private final TokenizerPool<BSLDescriptionParser, BSLDescriptionParser.MethodDescriptionContext> POOL =
+    new TokenizerPool<>(() -> new BSLDescriptionLexer(CharStreams.fromString("")),
+      BSLDescriptionParser::new,
+      BSLDescriptionParser::methodDescription,
+      TokenizerOptions.builder().lightweightSyntaxErrors(true).build());
 
-  @Override
-  protected BSLDescriptionParser.MethodDescriptionContext rootAST() {
-    return parser.methodDescription();
+  /**
+   * Разбирает текст описания метода.
+   *
+   * @param content Текст описания
+   * @return Дерево разбора описания
+   */
+  BSLDescriptionParser.MethodDescriptionContext parse(String content) {
+    return POOL.parse(content + "\n").ast();
   }
 }
@@ -38,8 +38,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static java.util.Objects.requireNonNull;
-
 /**
  * Вспомогательный класс для чтения описания переменной.
  */
@@ -105,8 +103,7 @@ public final class VariableDescriptionReader extends BSLDescriptionParserBaseVis
                                           SimpleRange range,
                                           Optional<VariableDescription> trailingDescription,
                                           int[] charShifts) {
-    var tokenizer = new MethodDescriptionTokenizer(descriptionText);
-    var ast = requireNonNull(tokenizer.getAst());
+    var ast = MethodDescriptionTokenizer.parse(descriptionText);
 
     var reader = new VariableDescriptionReader(range, charShifts);
     reader.builder
@@ -118,8 +115,7 @@ public final class VariableDescriptionReader extends BSLDescriptionParserBaseVis
 
     // Отдельный разбор первой значимой строки описания для извлечения типа переменной
     // (нотация «тип в начале»). Координаты элементов абсолютные, как и у DEPRECATE_KEYWORD.
-    var typeTokenizer = new VariableDescriptionTokenizer(descriptionText);
-    var variableType = requireNonNull(typeTokenizer.getAst()).variableType();
+    var variableType = VariableDescriptionTokenizer.parse(descriptionText).variableType();
     if (variableType != null) {
       reader.readType(variableType);
     }
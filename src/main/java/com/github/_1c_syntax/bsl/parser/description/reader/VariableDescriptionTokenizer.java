@@ -23,22 +23,32 @@ package com.github._1c_syntax.bsl.parser.description.reader;
 
 import com.github._1c_syntax.bsl.parser.BSLDescriptionLexer;
 import com.github._1c_syntax.bsl.parser.BSLDescriptionParser;
+import com.github._1c_syntax.bsl.parser.TokenizerOptions;
+import com.github._1c_syntax.bsl.parser.TokenizerPool;
+import lombok.experimental.UtilityClass;
 import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.Tokenizer;
 
 /**
  * Токенизатор описания переменной, использующий правило разбора с выделением типа в начале описания.
+ * Как и описания методов, описания переменных часто не соответствуют грамматике, поэтому ошибки
+ * обрабатываются облегченно.
  */
-class VariableDescriptionTokenizer
-  extends Tokenizer<BSLDescriptionParser.VariableDescriptionContext, BSLDescriptionParser> {
-  public VariableDescriptionTokenizer(String content) {
-    super(content + "\n",
-      new BSLDescriptionLexer(CharStreams.fromString("")),
-      BSLDescriptionParser.class);
-  }
+@UtilityClass
+class VariableDescriptionTokenizer {
+
+  private final TokenizerPool<BSLDescriptionParser, BSLDescriptionParser.VariableDescriptionContext> POOL =
+    new TokenizerPool<>(() -> new BSLDescriptionLexer(CharStreams.fromString("")),
+      BSLDescriptionParser::new,
+      BSLDescriptionParser::variableDescription,
+      TokenizerOptions.builder().lightweightSyntaxErrors(true).build());
 
-  @Override
-  protected BSLDescriptionParser.VariableDescriptionContext rootAST() {
-    return parser.variableDescription();
+  /**
+   * Разбирает текст описания переменной.
+   *
+   * @param content Текст описания
+   * @return Дерево разбора описания
+   */
+  BSLDescriptionParser.VariableDescriptionContext parse(String content) {
+    return POOL.parse(content + "\n").ast();
   }
 }
@@ -0,0 +1,281 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BSLIncrementalParserTest {
+
+  private static final String CONTENT = """
+    Перем А;
+
+    Процедура Первая()
+      А = 1;
+    КонецПроцедуры
+
+    Функция Вторая(Парам)
+      Возврат Парам + 1;
+    КонецФункции // Вторая
+
+    Асинх Процедура Третья()
+      Ждать Вторая(2);
+    КонецПроцедуры
+    """;
+
+  @Test
+  void reparseInsideSub() {
+    // given
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(CONTENT);
+    var subs = List.copyOf(previous.ast().subs().sub());
+    var offset = CONTENT.indexOf("Парам + 1");
+    var edit = new TextEdit(offset, offset + "Парам + 1".length(), "Парам *\n    (2 + Первая())");
+
+    // when
+    var result = parser.reparse(previous, CONTENT, edit);
+
+    // then
+    var content = edit.apply(CONTENT);
+    assertEquals(result, new BSLIncrementalParser().parse(content));
+    var newSubs = result.ast().subs().sub();
+    assertThat(newSubs.get(0)).isSameAs(subs.get(0));
+    assertThat(newSubs.get(1)).isNotSameAs(subs.get(1));
+    assertThat(newSubs.get(2)).isSameAs(subs.get(2));
+    assertThat(newSubs.get(2).getStart().getText()).isEqualTo("Асинх");
+  }
+
+  @Test
+  void reparseReturnsNewTree() {
+    // given
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(CONTENT);
+    var ast = previous.ast();
+    var subs = List.copyOf(ast.subs().sub());
+    var offset = CONTENT.indexOf("Ждать");
+    var edit = new TextEdit(offset, offset, "А = 1;\n  ");
+
+    // when
+    var result = parser.reparse(previous, CONTENT, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(CONTENT)));
+    assertThat(result.ast()).isNotSameAs(ast);
+    assertThat(result.ast().subs()).isNotSameAs(ast.subs());
+    assertThat(ast.subs().sub()).containsExactlyElementsOf(subs);
+    var newSubs = result.ast().subs().sub();
+    assertThat(newSubs.get(0).getParent()).isSameAs(result.ast().subs());
+    var last = newSubs.get(2);
+    assertThat(last.getStop()).isSameAs(subs.get(2).getStop());
+    assertThat(result.ast().fileCodeBlock().getStop()).isSameAs(last.getStop());
+    assertThat(result.tokens().get(last.getStop().getTokenIndex())).isSameAs(last.getStop());
+  }
+
+  @Test
+  void reparseSequentialEdits() {
+    // given
+    var parser = new BSLIncrementalParser();
+    var content = CONTENT;
+    var result = parser.parse(content);
+    var firstSub = result.ast().subs().sub().get(0);
+
+    // when
+    for (var text : List.of("Б = 2;", "Б = 2 + 2;\n    ", "Б = \"\n    |\";\n", "\n")) {
+      var offset = content.indexOf("Возврат");
+      var edit = new TextEdit(offset, offset, text);
+      result = parser.reparse(result, content, edit);
+      content = edit.apply(content);
+      assertThat(result.ast().subs().sub().get(0)).isSameAs(firstSub);
+    }
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(content));
+  }
+
+  @Test
+  void reparseOutsideSubs() {
+    // given
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(CONTENT);
+    var edit = new TextEdit(0, "Перем А;".length(), "Перем А, Б Экспорт;");
+
+    // when
+    var result = parser.reparse(previous, CONTENT, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(CONTENT)));
+  }
+
+  @Test
+  void reparseWithSyntaxError() {
+    // given
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(CONTENT);
+    var offset = CONTENT.indexOf("КонецФункции");
+    var edit = new TextEdit(offset, offset + "КонецФункции".length(), "КонецПроцедуры");
+
+    // when
+    var result = parser.reparse(previous, CONTENT, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(CONTENT)));
+  }
+
+  @Test
+  void reparseModule() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(content);
+    var subs = List.copyOf(previous.ast().subs().sub());
+    var sub = subs.get(subs.size() / 2);
+    var declaration = sub.procedure() == null ? sub.function().funcDeclaration() : sub.procedure().procDeclaration();
+    var offset = content.offsetByCodePoints(0, declaration.getStop().getStopIndex() + 1);
+    var edit = new TextEdit(offset, offset, "\n  Сообщить(\"Изменено\");");
+
+    // when
+    var result = parser.reparse(previous, content, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(content)));
+    assertThat(result.ast().subs().sub().getFirst()).isSameAs(subs.getFirst());
+  }
+
+  @Test
+  void reparseWithLazyBodies() {
+    // given
+    var options = TokenizerOptions.builder().lazySubCodeBlocks(true).build();
+    var parser = new BSLIncrementalParser(options);
+    var previous = parser.parse(CONTENT);
+    var third = previous.ast().subs().sub().get(2).procedure().subCodeBlock();
+    var offset = CONTENT.indexOf("Парам + 1");
+    var edit = new TextEdit(offset, offset + "Парам + 1".length(), "Парам *\n    (2 + Первая())");
+
+    // when
+    var result = parser.reparse(previous, CONTENT, edit);
+
+    // then
+    assertThat(third).isInstanceOf(LazySubCodeBlockContext.class);
+    assertThat(((LazySubCodeBlockContext) third).isParsed()).isFalse();
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(CONTENT)));
+    assertThat(((LazySubCodeBlockContext) third).isParsed()).isTrue();
+  }
+
+  @Test
+  void reparseSubReportsNoMetrics() {
+    // given
+    var metrics = new ArrayList<ParseMetrics>();
+    var parser = new BSLIncrementalParser(TokenizerOptions.builder().metricsListener(metrics::add).build());
+    var previous = parser.parse(CONTENT);
+    var offset = CONTENT.indexOf("Парам + 1");
+    var edit = new TextEdit(offset, offset, "2 * ");
+
+    // when
+    var result = parser.reparse(previous, CONTENT, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(CONTENT)));
+    assertThat(metrics).hasSize(1);
+  }
+
+  @Test
+  void reparseSharesTailTokens() {
+    // given
+    var content = CONTENT.replace("А = 1;", "А = \"\uD83D\uDE00\";");
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(content);
+    var tail = previous.tokens().get(previous.ast().subs().sub().get(2).getStart().getTokenIndex());
+    var offset = content.indexOf("Парам + 1");
+    var edit = new TextEdit(offset, offset, "\"\uD83D\uDE01\" + ");
+
+    // when
+    var result = parser.reparse(previous, content, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(content)));
+    assertThat(result.ast().subs().sub().get(2).getStart()).isSameAs(tail);
+    var relexed = result.tokens().get(result.ast().subs().sub().get(1).getStart().getTokenIndex() + 1);
+    assertThat(relexed.getInputStream()).isNull();
+  }
+
+  @Test
+  void reparseSubSpanningChunks() {
+    // given
+    var content = CONTENT + "Процедура Четвертая()\n" + "  А = 1;\n".repeat(500) + "КонецПроцедуры\n"
+      + "Процедура Пятая()\nКонецПроцедуры\n";
+    var parser = new BSLIncrementalParser();
+    var previous = parser.parse(content);
+    var start = previous.ast().subs().sub().get(3).getStart();
+    var offset = content.indexOf("А = 1;", content.indexOf("Четвертая"));
+    var edit = new TextEdit(offset, offset, "Б = 2;\n  ");
+
+    // when
+    var result = parser.reparse(previous, content, edit);
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(edit.apply(content)));
+    assertThat(result.ast().subs().sub().get(3).getStart()).isSameAs(start);
+  }
+
+  @Test
+  void reparseModuleRepeatedly() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var parser = new BSLIncrementalParser();
+    var result = parser.parse(content);
+
+    // when
+    for (var step = 0; step < 20; step++) {
+      var subs = result.ast().subs().sub();
+      var sub = subs.get(step * 7 % subs.size());
+      var declaration = sub.procedure() == null ? sub.function().funcDeclaration() : sub.procedure().procDeclaration();
+      var offset = content.offsetByCodePoints(0, declaration.getStop().getStopIndex() + 1);
+      var edit = new TextEdit(offset, offset, step % 2 == 0 ? "\n  А = \"\uD83D\uDE00\";" : " ");
+      result = parser.reparse(result, content, edit);
+      content = edit.apply(content);
+    }
+
+    // then
+    assertEquals(result, new BSLIncrementalParser().parse(content));
+  }
+
+  private static void assertEquals(ParseResult<BSLParser.FileContext> actual,
+                                   ParseResult<BSLParser.FileContext> expected) {
+    assertThat(actual.ast().toStringTree()).isEqualTo(expected.ast().toStringTree());
+    assertThat(actual.ast().getStart().getTokenIndex()).isEqualTo(expected.ast().getStart().getTokenIndex());
+    assertThat(actual.ast().getStop().getTokenIndex()).isEqualTo(expected.ast().getStop().getTokenIndex());
+    assertThat(actual.tokens()).map(BSLIncrementalParserTest::describe)
+      .containsExactlyElementsOf(expected.tokens().stream().map(BSLIncrementalParserTest::describe).toList());
+  }
+
+  private static String describe(Token token) {
+    return token.getTokenIndex() + ":" + token.getType() + ":" + token.getChannel() + ":" + token.getText()
+      + ":" + token.getLine() + ":" + token.getCharPositionInLine()
+      + ":" + token.getStartIndex() + ":" + token.getStopIndex();
+  }
+}
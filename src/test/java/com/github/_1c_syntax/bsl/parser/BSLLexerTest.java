@@ -540,6 +540,38 @@ class BSLLexerTest {
       .containsAll(BSLLexer.PREPROC_DELETE, BSLLexer.PREPROC_DELETE_ANY);
     testLexer.assertThat("#Удаление\r", BSLLexer.PREPROC_DELETE_CHANNEL)
       .containsAll(BSLLexer.PREPROC_DELETE, BSLLexer.PREPROC_DELETE_ANY);
+    testLexer.assertThat("#Удаление\nПроцедура А(Б)/В#Г\n#КонецУдаления", BSLLexer.PREPROC_DELETE_CHANNEL)
+      .containsAll(BSLLexer.PREPROC_DELETE, BSLLexer.PREPROC_DELETE_ANY, BSLLexer.PREPROC_DELETE_ANY,
+        BSLLexer.PREPROC_DELETE_ANY, BSLLexer.PREPROC_DELETE_ANY, BSLLexer.PREPROC_DELETE_ANY,
+        BSLLexer.PREPROC_DELETE_ANY, BSLLexer.PREPROC_ENDDELETE)
+      .tokenHasText(2, "Процедура")
+      .tokenHasText(4, "А(Б)")
+      .tokenHasText(5, "/");
+  }
+
+  @Test
+  void testUnknown() {
+    testLexer.assertThat("А @@ ¤§ Б", BSLLexer.HIDDEN)
+      .containsAll(BSLLexer.WHITE_SPACE, BSLLexer.UNKNOWN, BSLLexer.WHITE_SPACE, BSLLexer.UNKNOWN,
+        BSLLexer.WHITE_SPACE)
+      .tokenHasText(2, "@@")
+      .tokenHasText(4, "¤§");
+    testLexer.assertThat("Асинх Процедура А() @@ КонецПроцедуры")
+      .containsAll(BSLLexer.ASYNC_KEYWORD, BSLLexer.PROCEDURE_KEYWORD, BSLLexer.IDENTIFIER, BSLLexer.LPAREN,
+        BSLLexer.RPAREN, BSLLexer.UNKNOWN, BSLLexer.ENDPROCEDURE_KEYWORD);
+    testLexer.assertThat("&@@Имя", BSLLexer.HIDDEN)
+      .containsAll(BSLLexer.ANNOTATION_UNKNOWN, BSLLexer.ANNOTATION_UNKNOWN);
+  }
+
+  @Test
+  void tokenTypesKeepNumbering() {
+    // then
+    Assertions.assertThat(BSLLexer.IDENTIFIER).isEqualTo(77);
+    Assertions.assertThat(BSLLexer.UNKNOWN).isEqualTo(78);
+    Assertions.assertThat(BSLLexer.PREPROC_DELETE_ANY).isEqualTo(127);
+    Assertions.assertThat(BSLLexer.Async_DOT).isEqualTo(128);
+    Assertions.assertThat(BSLLexer.AWAIT_KEYWORD).isEqualTo(129);
+    Assertions.assertThat(BSLLexer.ASYNC_MODE).isEqualTo(8);
   }
 
   @Test
@@ -571,7 +603,7 @@ class BSLLexerTest {
         || BSLLexer.PREPROC_DELETE_ANY == i
         || BSLLexer.UNKNOWN == i
         || BSLLexer.DOT_TRAILING == i
-        || BSLLexer.Async_DOT == i // в runtime всегда переписывается на DOT или DOT_TRAILING
+        || BSLLexer.Async_DOT == i // объявлен только для сохранения нумерации
         || BSLLexer.PREPROC_NATIVE == i
         || BSLLexer.PREPROC_STACK == i) {
         Assertions.assertThat(tokenTypes).doesNotContain(i);
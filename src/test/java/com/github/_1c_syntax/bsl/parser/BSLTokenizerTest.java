@@ -21,13 +21,22 @@
  */
 package com.github._1c_syntax.bsl.parser;
 
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 class BSLTokenizerTest {
 
@@ -59,4 +68,235 @@ class BSLTokenizerTest {
     assertThat(fileCodeBlock.getStart().getType()).isEqualTo(BSLParser.IF_KEYWORD);
     assertThat(fileCodeBlock.getStop().getType()).isEqualTo(BSLParser.ENDIF_KEYWORD);
   }
+
+  @Test
+  void computeASTWithSLLThenLL() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var options = TokenizerOptions.builder()
+      .predictionStrategy(PredictionStrategy.SLL_THEN_LL)
+      .build();
+
+    // when
+    var ast = new BSLTokenizer(content, options).getAst();
+
+    // then
+    assertThat(ast.toStringTree()).isEqualTo(new BSLTokenizer(content).getAst().toStringTree());
+    assertThat(options.getPredictionStatistics().getParseCount()).isEqualTo(1);
+  }
+
+  @Test
+  void computeASTWithLLFallback() {
+    // given
+    var options = TokenizerOptions.builder()
+      .predictionStrategy(PredictionStrategy.SLL_THEN_LL)
+      .build();
+    var statistics = options.getPredictionStatistics();
+
+    // when
+    new BSLTokenizer("Если Условие() Тогда КонецЕсли", options).getAst();
+    var ast = new BSLTokenizer("Если Условие( Тогда КонецЕсли", options).getAst();
+
+    // then
+    assertThat(ast.toStringTree())
+      .isEqualTo(new BSLTokenizer("Если Условие( Тогда КонецЕсли").getAst().toStringTree());
+    assertThat(statistics.getParseCount()).isEqualTo(2);
+    assertThat(statistics.getFallbackCount()).isEqualTo(1);
+    assertThat(statistics.getFallbackRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  void restorePredictionModeAfterFailedFallback() {
+    // given
+    var options = TokenizerOptions.builder()
+      .predictionStrategy(PredictionStrategy.SLL_THEN_LL)
+      .build();
+    var lexer = new BSLLexer(CharStreams.fromString("Если Условие( Тогда КонецЕсли"));
+    var parser = new BSLParser(new CommonTokenStream(lexer));
+    parser.removeErrorListeners();
+    parser.getInterpreter().setPredictionMode(PredictionMode.LL_EXACT_AMBIG_DETECTION);
+    var failure = new IllegalStateException();
+
+    // when
+    var thrown = catchThrowable(() -> ParserSupport.parse(parser, (BSLParser p) -> {
+      if (p.getInterpreter().getPredictionMode() == PredictionMode.LL) {
+        throw failure;
+      }
+      return p.file();
+    }, options));
+
+    // then
+    assertThat(thrown).isSameAs(failure);
+    assertThat(parser.getInterpreter().getPredictionMode()).isEqualTo(PredictionMode.LL_EXACT_AMBIG_DETECTION);
+    assertThat(options.getPredictionStatistics().getFallbackCount()).isEqualTo(1);
+  }
+
+  @Test
+  void computeASTInParallel() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var expected = new BSLTokenizer(content).getAst();
+
+    // when
+    BSLParser.FileContext ast;
+    try (var executor = Executors.newFixedThreadPool(4)) {
+      var options = TokenizerOptions.builder().subCodeBlockExecutor(executor).build();
+      ast = new BSLTokenizer(content, options).getAst();
+    }
+
+    // then
+    assertThat(ast.toStringTree()).isEqualTo(expected.toStringTree());
+    for (var sub : ast.subs().sub()) {
+      var method = sub.procedure() != null ? sub.procedure() : sub.function();
+      var block = method.getRuleContext(BSLParser.SubCodeBlockContext.class, 0);
+      assertThat(block).isExactlyInstanceOf(BSLParser.SubCodeBlockContext.class);
+      assertThat(block.getParent()).isSameAs(method);
+      assertThat(block.codeBlock().getParent()).isSameAs(block);
+    }
+  }
+
+  @Test
+  void cancelLexing() {
+    // given
+    var cancellationToken = CancellationToken.create();
+    var options = TokenizerOptions.builder().cancellationToken(cancellationToken).build();
+    var tokenizer = new BSLTokenizer(ResourceUtils.byName("Module.bsl"), options);
+
+    // when
+    cancellationToken.cancel();
+
+    // then
+    assertThatThrownBy(tokenizer::getTokens)
+      .isInstanceOfSatisfying(ParseCancelledException.class,
+        e -> assertThat(e.isDeadlineExceeded()).isFalse());
+  }
+
+  @Test
+  void cancelParsing() {
+    // given
+    var cancellationToken = CancellationToken.create();
+    var options = TokenizerOptions.builder()
+      .predictionStrategy(PredictionStrategy.SLL_THEN_LL)
+      .cancellationToken(cancellationToken)
+      .build();
+    var tokenizer = new BSLTokenizer(ResourceUtils.byName("Module.bsl"), options);
+    tokenizer.getTokens();
+
+    // when
+    cancellationToken.cancel();
+
+    // then
+    assertThatThrownBy(tokenizer::getAst).isInstanceOf(ParseCancelledException.class);
+    assertThat(options.getPredictionStatistics().getParseCount()).isZero();
+  }
+
+  @Test
+  void cancelByTimeout() {
+    // given
+    var options = TokenizerOptions.builder()
+      .cancellationToken(CancellationToken.withTimeout(Duration.ZERO))
+      .build();
+    var tokenizer = new BSLTokenizer("А = 1;", options);
+
+    // then
+    assertThatThrownBy(tokenizer::getTokens)
+      .isInstanceOfSatisfying(ParseCancelledException.class,
+        e -> assertThat(e.isDeadlineExceeded()).isTrue());
+  }
+
+  @Test
+  void collectMetrics() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var aggregator = new ParseMetricsAggregator();
+    var options = TokenizerOptions.builder()
+      .predictionStrategy(PredictionStrategy.SLL_THEN_LL)
+      .metricsListener(aggregator)
+      .build();
+    var tokenizer = new BSLTokenizer(content, options);
+
+    // when
+    tokenizer.getAst();
+
+    // then
+    assertThat(aggregator.getCount()).isEqualTo(1);
+    var metrics = aggregator.getSamples().getFirst();
+    assertThat(metrics.grammar()).isEqualTo(Grammar.BSL_PARSER);
+    assertThat(metrics.inputSize()).isEqualTo(content.codePointCount(0, content.length()));
+    assertThat(metrics.tokenCount()).isEqualTo(tokenizer.getTokens().size());
+    assertThat(metrics.lexingNanos()).isPositive();
+    assertThat(metrics.parsingNanos()).isPositive();
+    assertThat(metrics.fallbackCount()).isEqualTo(1);
+    assertThat(metrics.syntaxErrorCount()).isPositive();
+    assertThat(metrics.dfaStateGrowth()).isNotNegative();
+  }
+
+  @Test
+  void collectRecoveryMetrics() {
+    // given
+    var content = "Процедура Тест()\n  А = 1;\n";
+    var metrics = new ArrayList<ParseMetrics>();
+    var options = TokenizerOptions.builder().metricsListener(metrics::add).build();
+    var tokenizer = new BSLTokenizer(content, options);
+
+    // when
+    var ast = tokenizer.getAst();
+
+    // then
+    assertThat(metrics).hasSize(1);
+    assertThat(metrics.getFirst().syntaxErrorCount()).isEqualTo(1);
+    assertThat(metrics.getFirst().recoveryCount()).isEqualTo(1);
+    assertThat(ast.subs().sub(0).procedure().ENDPROCEDURE_KEYWORD().getSymbol().getTokenIndex()).isEqualTo(-1);
+  }
+
+  @Test
+  void streamTokens() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var expected = new BSLTokenizer(content).getTokens();
+
+    // when
+    var count = BSLTokenizer.tokens(content).count();
+    var lastToken = BSLTokenizer.tokens(content).reduce((first, second) -> second).orElseThrow();
+
+    // then
+    assertThat(count).isEqualTo(expected.size() - 1);
+    assertThat(lastToken.toString()).isEqualTo(expected.get(expected.size() - 2).toString());
+  }
+
+  @Test
+  void validate() {
+    // given
+    var content = "Процедура А()\n  Если Б Тогда\n    В = 1;\n  КонецЕсли;\nКонецПроцедуры";
+
+    // when
+    var result = BSLTokenizer.validate(content);
+
+    // then
+    assertThat(result.isValid()).isTrue();
+    assertThat(result.complete()).isTrue();
+  }
+
+  @Test
+  void validateWithErrors() {
+    // given
+    var content = "Процедура А()\n  Б = ;\n  В = ;\nКонецПроцедуры";
+    var options = TokenizerOptions.builder().predictionStrategy(PredictionStrategy.SLL_THEN_LL).build();
+
+    // when
+    var all = BSLTokenizer.validate(content);
+    var first = BSLTokenizer.validate(content, options, true);
+
+    // then
+    assertThat(all.complete()).isTrue();
+    assertThat(all.errors()).hasSizeGreaterThanOrEqualTo(2);
+    assertThat(all.errors().get(0).line()).isEqualTo(2);
+    assertThat(all.errors().get(0).column()).isEqualTo(6);
+    assertThat(all.errors().get(0).startOffset()).isEqualTo(content.indexOf(';'));
+    assertThat(all.errors().get(0).message()).isNotEmpty();
+
+    assertThat(first.complete()).isFalse();
+    assertThat(first.errors()).containsExactly(all.errors().get(0));
+    assertThat(all.errors().get(0).tokenType()).isEqualTo(BSLLexer.SEMICOLON);
+  }
 }
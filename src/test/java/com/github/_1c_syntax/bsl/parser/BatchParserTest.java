@@ -0,0 +1,117 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchParserTest {
+
+  @Test
+  void parseSourcesOnVirtualThreads() throws InterruptedException {
+    // given
+    var sources = new ArrayList<String>();
+    for (var i = 0; i < 100; i++) {
+      sources.add("Процедура П" + i + "() КонецПроцедуры");
+    }
+    var results = new ArrayList<BatchResult<BSLParser.FileContext>>();
+
+    // when
+    BatchStatistics statistics;
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      statistics = new BatchParser<>(TokenizerPool.bsl(), executor, 8).parseSources(sources, results::add);
+    }
+
+    // then
+    assertThat(results).hasSize(100).allMatch(BatchResult::isSuccess);
+    assertThat(results)
+      .extracting(result -> result.result().ast().getText())
+      .containsExactlyInAnyOrderElementsOf(sources.stream()
+        .map(source -> source.replace(" ", "") + "<EOF>")
+        .toList());
+    assertThat(statistics.files()).isEqualTo(100);
+    assertThat(statistics.errors()).isZero();
+    assertThat(statistics.bytes())
+      .isEqualTo(sources.stream().mapToLong(source -> source.getBytes(StandardCharsets.UTF_8).length).sum());
+    assertThat(statistics.filesPerSecond()).isPositive();
+  }
+
+  @Test
+  void parseFiles(@TempDir Path dir) throws Exception {
+    // given
+    var first = Files.writeString(dir.resolve("first.bsl"), "А = 1;");
+    var second = Files.writeString(dir.resolve("second.bsl"), "Б = 2;");
+    var missing = dir.resolve("missing.bsl");
+    var results = new ArrayList<BatchResult<BSLParser.FileContext>>();
+    var metrics = new ParseMetricsAggregator();
+
+    // when
+    BatchStatistics statistics;
+    try (var executor = Executors.newFixedThreadPool(2)) {
+      statistics = BatchParser.bsl(executor, TokenizerOptions.builder().metricsListener(metrics).build())
+        .parseFiles(List.of(first, second, missing), results::add);
+    }
+
+    // then
+    assertThat(statistics.files()).isEqualTo(3);
+    assertThat(statistics.bytes()).isEqualTo(14);
+    assertThat(statistics.errors()).isEqualTo(1);
+    assertThat(results)
+      .filteredOn(BatchResult::isSuccess)
+      .extracting(BatchResult::source)
+      .containsExactlyInAnyOrder(first.toString(), second.toString());
+    assertThat(results)
+      .filteredOn(result -> !result.isSuccess())
+      .singleElement()
+      .satisfies(result -> assertThat(result.source()).isEqualTo(missing.toString()));
+    assertThat(metrics.getSamples())
+      .extracting(ParseMetrics::sourceName)
+      .containsExactlyInAnyOrder(first.toString(), second.toString());
+  }
+
+  @Test
+  void parseSourcesWithTimeout() throws InterruptedException {
+    // given
+    var results = new ArrayList<BatchResult<BSLParser.FileContext>>();
+
+    // when
+    try (var executor = Executors.newFixedThreadPool(2)) {
+      new BatchParser<>(TokenizerPool.bsl(), executor, 2, Duration.ZERO)
+        .parseSources(List.of("А = 1;", "Б = 2;"), results::add);
+    }
+
+    // then
+    assertThat(results)
+      .hasSize(2)
+      .allSatisfy(result -> assertThat(result.error()).isInstanceOf(ParseCancelledException.class));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CancellableParserATNSimulatorTest {
+
+  @Test
+  void cancelDuringPrediction() {
+    // given
+    var parser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString("А = Б(1, 2) + 3;"))));
+    parser.removeErrorListeners();
+    // пустые DFA: каждое решение требует симуляции ATN
+    var simulator = new CancellableParserATNSimulator(parser, parser.getATN(),
+      Grammar.BSL_PARSER.newDecisionToDFA(), new PredictionContextCache());
+    parser.setInterpreter(simulator);
+    var cancellationToken = CancellationToken.create();
+    cancellationToken.cancel();
+
+    // when
+    simulator.setCancellationToken(cancellationToken);
+
+    // then
+    assertThatThrownBy(parser::file).isInstanceOf(ParseCancelledException.class);
+    assertThat(CancellableParserATNSimulator.cancellationToken(parser)).isSameAs(cancellationToken);
+  }
+
+  @Test
+  void replaceDefaultSimulatorOnly() {
+    // given
+    var parser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString(""))));
+    var interpreter = parser.getInterpreter();
+
+    // when
+    var simulator = CancellableParserATNSimulator.install(parser);
+
+    // then
+    assertThat(simulator).isNotNull().isSameAs(parser.getInterpreter());
+    assertThat(simulator.decisionToDFA).isSameAs(interpreter.decisionToDFA);
+    assertThat(CancellableParserATNSimulator.install(parser)).isSameAs(simulator);
+    assertThat(CancellableParserATNSimulator.cancellationToken(parser)).isNull();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactTokenStoreTest {
+
+  @Test
+  void storeMatchesCommonTokens() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var tokenStream = new CommonTokenStream(new BSLLexer(CharStreams.fromString(content)));
+    tokenStream.fill();
+    var expected = tokenStream.getTokens();
+
+    // when
+    var store = CompactTokenStore.bsl(content);
+
+    // then
+    assertThat(store.size()).isEqualTo(expected.size());
+    assertThat(store.asList()).map(Token::toString)
+      .containsExactlyElementsOf(expected.stream().map(Token::toString).toList());
+    assertThat(store.getType(3)).isEqualTo(expected.get(3).getType());
+    assertThat(store.getText(3)).isEqualTo(expected.get(3).getText());
+    assertThat(store.getLine(3)).isEqualTo(expected.get(3).getLine());
+  }
+
+  @Test
+  void parseFromStore() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var store = CompactTokenStore.bsl(content);
+    var parser = new BSLParser(store.tokenStream());
+    parser.removeErrorListeners();
+
+    // when
+    var ast = parser.file();
+
+    // then
+    assertThat(ast.toStringTree()).isEqualTo(new BSLTokenizer(content).getAst().toStringTree());
+    assertThat(ast.getStop().getType()).isEqualTo(Token.EOF);
+  }
+
+  @Test
+  void parseQueryWithErrorsFromStore() {
+    // given
+    var content = "ВЫБРАТЬ Т.Ссылка ИЗ Справочник.Товары КАК Т ГДЕ (Т.Цена > ";
+    var parser = new SDBLParser(CompactTokenStore.sdbl(content).tokenStream());
+    parser.removeErrorListeners();
+
+    // when
+    var ast = parser.queryPackage();
+
+    // then
+    assertThat(parser.getNumberOfSyntaxErrors()).isPositive();
+    assertThat(ast.toStringTree()).isEqualTo(new SDBLTokenizer(content).getAst().toStringTree());
+  }
+
+  @Test
+  void storeWithOptions() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var options = TokenizerOptions.builder().predictionCache(new PredictionCache()).build();
+    var cancellationToken = CancellationToken.create();
+    cancellationToken.cancel();
+    var cancelled = TokenizerOptions.builder().cancellationToken(cancellationToken).build();
+
+    // when
+    var store = CompactTokenStore.bsl(content, options);
+
+    // then
+    assertThat(store.asList()).map(Token::toString)
+      .containsExactlyElementsOf(CompactTokenStore.bsl(content).asList().stream().map(Token::toString).toList());
+    assertThatThrownBy(() -> CompactTokenStore.sdbl("ВЫБРАТЬ 1", cancelled))
+      .isInstanceOf(ParseCancelledException.class);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CyrillicLexerATNSimulatorTest {
+
+  @Test
+  void sameTokensAsDefaultSimulator() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var expectedLexer = new BSLLexer(CharStreams.fromString(content));
+    expectedLexer.setInterpreter(new LexerATNSimulator(expectedLexer, BSLLexer._ATN,
+      Grammar.BSL_LEXER.newDecisionToDFA(), new PredictionContextCache()));
+    var decisionToDFA = Grammar.BSL_LEXER.newDecisionToDFA();
+    var lexer = new BSLLexer(CharStreams.fromString(content));
+    lexer.setInterpreter(new CyrillicLexerATNSimulator(lexer, BSLLexer._ATN, decisionToDFA,
+      new PredictionContextCache()));
+
+    // when
+    var expected = tokens(expectedLexer);
+    var actual = tokens(lexer);
+
+    // then
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(Arrays.stream(decisionToDFA)
+      .flatMap(dfa -> dfa.getStates().stream())
+      .map(state -> state.edges)
+      .filter(Objects::nonNull))
+      .anyMatch(edges -> edges.length > LexerATNSimulator.MAX_DFA_EDGE + 1
+        && Arrays.stream(edges, LexerATNSimulator.MAX_DFA_EDGE + 1, edges.length).anyMatch(Objects::nonNull));
+  }
+
+  @Test
+  void installedByTokenizer() {
+    // given
+    var lexer = new SDBLLexer(CharStreams.fromString(""));
+
+    // when
+    ParserSupport.prepare(lexer, TokenizerOptions.DEFAULT);
+
+    // then
+    assertThat(lexer.getInterpreter()).isInstanceOf(CyrillicLexerATNSimulator.class);
+    assertThat(lexer.getInterpreter().decisionToDFA).isSameAs(SDBLLexer._decisionToDFA);
+  }
+
+  private static List<String> tokens(Lexer lexer) {
+    return lexer.getAllTokens().stream().map(Token::toString).toList();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionProfilerTest {
+
+  @Test
+  void profileBslAndSdbl() {
+    // given
+    var profiler = new DecisionProfiler();
+
+    // when
+    profiler.profileBsl("Процедура Тест()\n  А = 1 + Б;\n  Если А > 0 Тогда\n    Сообщить(А);\n  КонецЕсли;\n"
+      + "КонецПроцедуры");
+    profiler.profileBsl("А = Новый Массив;");
+    profiler.profileSdbl("ВЫБРАТЬ Т.Поле ИЗ Справочник.Товары КАК Т ГДЕ Т.Код = 1");
+
+    // then
+    var decisions = profiler.decisions();
+    assertThat(profiler.getTextCount()).isEqualTo(3);
+    assertThat(decisions)
+      .isNotEmpty()
+      .isSortedAccordingTo((left, right) -> Long.compare(right.timeNanos(), left.timeNanos()))
+      .allMatch(profile -> profile.invocations() > 0 && profile.decision() >= 0);
+    assertThat(decisions).extracting(DecisionProfile::grammar)
+      .contains(Grammar.BSL_PARSER, Grammar.SDBL_PARSER);
+
+    var rules = profiler.rules();
+    assertThat(rules).extracting(DecisionProfile::decision).containsOnly(-1);
+    assertThat(rules).extracting(DecisionProfile::rule).contains("statement", "dataSource");
+    assertThat(rules.stream().mapToLong(DecisionProfile::invocations).sum())
+      .isEqualTo(decisions.stream().mapToLong(DecisionProfile::invocations).sum());
+
+    assertThat(profiler.report(5))
+      .contains("Profiled texts: 3")
+      .contains("Rules by prediction time")
+      .contains("Decisions by prediction time");
+  }
+}
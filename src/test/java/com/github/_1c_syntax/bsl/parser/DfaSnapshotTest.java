@@ -0,0 +1,113 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DfaSnapshotTest {
+
+  private static final String QUERY = "ВЫБРАТЬ Товары.Ссылка КАК Ссылка ИЗ Справочник.Товары КАК Товары "
+    + "ГДЕ Товары.Цена > 10 И НЕ Товары.ПометкаУдаления УПОРЯДОЧИТЬ ПО Товары.Наименование";
+
+  @Test
+  void saveAndLoad() throws IOException {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var expectedTree = new BSLTokenizer(content).getAst().toStringTree();
+    var expectedQueryTree = new SDBLTokenizer(QUERY).getAst().toStringTree();
+    var grammars = List.of(Grammar.BSL_LEXER, Grammar.BSL_PARSER, Grammar.SDBL_LEXER, Grammar.SDBL_PARSER);
+    var stateCounts = grammars.stream().map(Grammar::dfaStateCount).toList();
+
+    var out = new ByteArrayOutputStream();
+    DfaSnapshot.save(out, grammars);
+    grammars.forEach(Grammar::clearDfa);
+
+    // when
+    var loaded = DfaSnapshot.load(new ByteArrayInputStream(out.toByteArray()));
+
+    // then
+    assertThat(loaded).containsExactlyInAnyOrderElementsOf(grammars);
+    assertThat(grammars.stream().map(Grammar::dfaStateCount).toList()).isEqualTo(stateCounts);
+
+    assertThat(new BSLTokenizer(content).getAst().toStringTree()).isEqualTo(expectedTree);
+    assertThat(new SDBLTokenizer(QUERY).getAst().toStringTree()).isEqualTo(expectedQueryTree);
+    assertThat(grammars.stream().map(Grammar::dfaStateCount).toList()).isEqualTo(stateCounts);
+  }
+
+  @Test
+  void loadKeepsExistingDfa() throws IOException {
+    // given
+    new BSLTokenizer("А = 1;").getAst();
+    var out = new ByteArrayOutputStream();
+    DfaSnapshot.save(out, EnumSet.of(Grammar.BSL_PARSER));
+    var dfa = Grammar.BSL_PARSER.decisionToDFA().clone();
+
+    // when
+    DfaSnapshot.load(new ByteArrayInputStream(out.toByteArray()));
+
+    // then
+    for (var decision = 0; decision < dfa.length; decision++) {
+      if (!dfa[decision].states.isEmpty()) {
+        assertThat(Grammar.BSL_PARSER.decisionToDFA()[decision]).isSameAs(dfa[decision]);
+      }
+    }
+  }
+
+  @Test
+  void loadIntoExistingDfa() throws IOException {
+    // given
+    new SDBLTokenizer(QUERY).getAst();
+    var out = new ByteArrayOutputStream();
+    DfaSnapshot.save(out, EnumSet.of(Grammar.SDBL_PARSER));
+    var stateCount = Grammar.SDBL_PARSER.dfaStateCount();
+    Grammar.SDBL_PARSER.clearDfa();
+    var dfa = Grammar.SDBL_PARSER.decisionToDFA().clone();
+
+    // when
+    DfaSnapshot.load(new ByteArrayInputStream(out.toByteArray()));
+
+    // then
+    assertThat(Grammar.SDBL_PARSER.decisionToDFA()).containsExactly(dfa);
+    assertThat(Grammar.SDBL_PARSER.dfaStateCount()).isEqualTo(stateCount);
+    new SDBLTokenizer(QUERY).getAst();
+    assertThat(Grammar.SDBL_PARSER.dfaStateCount()).isEqualTo(stateCount);
+  }
+
+  @Test
+  void loadUnknownFormat() {
+    // given
+    var in = new ByteArrayInputStream(new byte[]{0, 1, 2, 3, 4, 5, 6, 7});
+
+    // when-then
+    assertThatThrownBy(() -> DfaSnapshot.load(in)).isInstanceOf(IOException.class);
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalLexerTest {
+
+  private static final String CONTENT = """
+    #Область Переменные
+    &НаКлиенте
+    Перем А;
+    #КонецОбласти
+
+    #Удаление
+    Процедура Удаленная()
+      Б = "строка";
+    КонецПроцедуры
+    #КонецУдаления
+
+    Асинх Процедура Третья()
+      Текст = "первая
+      |вторая";
+      Ждать Объект.Выполнить();
+    КонецПроцедуры
+    """;
+
+  @Test
+  void relexInsideLine() {
+    // given
+    var lexer = IncrementalLexer.bsl();
+    var previous = lexer.lex(CONTENT);
+    var lastToken = previous.getTokens().get(previous.getTokens().size() - 2);
+    var offset = CONTENT.indexOf("Объект");
+    var edit = new TextEdit(offset, offset + "Объект".length(), "ДругойОбъект");
+
+    // when
+    var result = lexer.relex(previous, CONTENT, edit);
+
+    // then
+    assertEquals(result, lexer.lex(edit.apply(CONTENT)));
+    assertThat(result.getTokens().get(result.getTokens().size() - 2)).isSameAs(lastToken);
+  }
+
+  @Test
+  void relexChangingModes() {
+    var lexer = IncrementalLexer.bsl();
+    var edits = List.of(
+      new String[]{"#КонецУдаления", ""},
+      new String[]{"Асинх ", ""},
+      new String[]{"\"первая", "\"первая\";"},
+      new String[]{"&НаКлиенте", "&НаСервере\n&НаКлиенте"},
+      new String[]{"#Удаление", "#Вставка"}
+    );
+
+    for (var replacement : edits) {
+      // given
+      var previous = lexer.lex(CONTENT);
+      var offset = CONTENT.indexOf(replacement[0]);
+      var edit = new TextEdit(offset, offset + replacement[0].length(), replacement[1]);
+
+      // when
+      var result = lexer.relex(previous, CONTENT, edit);
+
+      // then
+      assertEquals(result, lexer.lex(edit.apply(CONTENT)));
+    }
+  }
+
+  @Test
+  void relexSequentialEditsInModule() {
+    // given
+    var lexer = IncrementalLexer.bsl();
+    var content = ResourceUtils.byName("Module.bsl");
+    var result = lexer.lex(content);
+    var random = new Random(42);
+    var fragments = List.of("А", "\n", "\"", "#", "&", ".", "//", " КонецПроцедуры", "|", "Асинх ");
+
+    // when
+    for (var i = 0; i < 20; i++) {
+      var start = random.nextInt(content.length());
+      var end = Math.min(content.length(), start + random.nextInt(5));
+      if (Character.isLowSurrogate(content.charAt(start))) {
+        continue;
+      }
+      var edit = new TextEdit(start, end, fragments.get(random.nextInt(fragments.size())));
+      result = lexer.relex(result, content, edit);
+      content = edit.apply(content);
+    }
+
+    // then
+    assertEquals(result, lexer.lex(content));
+    assertThat(result.getCheckpointCount()).isEqualTo(lexer.lex(content).getCheckpointCount());
+  }
+
+  @Test
+  void relexQuery() {
+    // given
+    var lexer = IncrementalLexer.sdbl();
+    var content = """
+      ВЫБРАТЬ
+        Т.Ссылка КАК Ссылка
+      ИЗ
+        Справочник.Товары КАК Т
+      ГДЕ
+        Т.Наименование = "Товар"
+      """;
+    var previous = lexer.lex(content);
+    var offset = content.indexOf("Товар\"");
+    var edit = new TextEdit(offset, offset, "\"\"");
+
+    // when
+    var result = lexer.relex(previous, content, edit);
+
+    // then
+    assertEquals(result, lexer.lex(edit.apply(content)));
+  }
+
+  @Test
+  void relexSharesUnchangedTokens() {
+    // given
+    var lexer = IncrementalLexer.bsl();
+    var content = ResourceUtils.byName("Module.bsl");
+    var previous = lexer.lex(content);
+    var tokens = List.copyOf(previous.getTokens());
+    var offset = content.indexOf('\n', content.length() / 2) + 1;
+    var edit = new TextEdit(offset, offset, "Сообщить(\"🌍\");\n");
+
+    // when
+    var result = lexer.relex(previous, content, edit);
+
+    // then
+    assertEquals(result, lexer.lex(edit.apply(content)));
+    assertThat(result.getTokens()).startsWith(tokens.subList(0, tokens.size() / 4).toArray(Token[]::new));
+    assertThat(result.getTokens()).endsWith(tokens.subList(tokens.size() * 3 / 4, tokens.size()).toArray(Token[]::new));
+  }
+
+  @Test
+  void relexAfterSupplementaryCharacters() {
+    // given
+    var lexer = IncrementalLexer.bsl();
+    var content = "А = \"🌍𝄞\"; // 🌍\nБ = 1;\nВ = \"𝄞\";\n";
+    var result = lexer.lex(content);
+
+    // when
+    for (var text : List.of("🌍", "Г", "\"", "")) {
+      var offset = content.indexOf("1");
+      var edit = new TextEdit(offset, offset + 1, text + "1");
+      result = lexer.relex(result, content, edit);
+      content = edit.apply(content);
+    }
+
+    // then
+    assertEquals(result, lexer.lex(content));
+  }
+
+  private static void assertEquals(LexResult actual, LexResult expected) {
+    assertThat(actual.getTokens()).map(IncrementalLexerTest::describe)
+      .containsExactlyElementsOf(expected.getTokens().stream().map(IncrementalLexerTest::describe).toList());
+  }
+
+  private static String describe(Token token) {
+    return token.getTokenIndex() + ":" + token.getType() + ":" + token.getChannel() + ":" + token.getText()
+      + ":" + token.getLine() + ":" + token.getCharPositionInLine()
+      + ":" + token.getStartIndex() + ":" + token.getStopIndex();
+  }
+}
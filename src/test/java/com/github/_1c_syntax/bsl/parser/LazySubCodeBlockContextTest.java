@@ -0,0 +1,259 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LazySubCodeBlockContextTest {
+
+  private static final TokenizerOptions LAZY = TokenizerOptions.builder()
+    .lazySubCodeBlocks(true)
+    .build();
+
+  private static final String CONTENT = """
+    &НаСервере
+    Процедура Первая(Знач А = 1, &Аннотация(Значение = "(") Б) Экспорт
+      А = 1;
+    КонецПроцедуры
+
+    Функция Вторая()
+    КонецФункции
+
+    Асинх Функция Третья(Парам)
+      Возврат Ждать Парам;
+    КонецФункции
+
+    Сообщить(1);
+    """;
+
+  @Test
+  void parseOnFirstAccess() {
+    // given
+    var tokenizer = new BSLTokenizer(CONTENT, LAZY);
+
+    // when
+    var subs = tokenizer.getAst().subs().sub();
+
+    // then
+    var first = (LazySubCodeBlockContext) subs.get(0).procedure().subCodeBlock();
+    assertThat(first.isParsed()).isFalse();
+    assertThat(first.getStart().getText()).isEqualTo("А");
+    assertThat(first.getStop().getText()).isEqualTo(";");
+    assertThat(first.codeBlock().statement()).hasSize(1);
+    assertThat(first.isParsed()).isTrue();
+
+    assertThat(subs.get(1).function().subCodeBlock()).isNotInstanceOf(LazySubCodeBlockContext.class);
+
+    var third = (LazySubCodeBlockContext) subs.get(2).function().subCodeBlock();
+    assertThat(third.isParsed()).isFalse();
+    assertThat(third.getText()).isEqualTo("ВозвратЖдатьПарам;");
+    assertThat(third.getParent()).isSameAs(subs.get(2).function());
+  }
+
+  @Test
+  void sameTreeAsFullParse() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+
+    // when
+    var lazy = new BSLTokenizer(content, LAZY);
+    var eager = new BSLTokenizer(content);
+
+    // then
+    var blocks = lazy.getAst().subs().sub().stream()
+      .map(sub -> sub.procedure() != null ? sub.procedure().subCodeBlock() : sub.function().subCodeBlock())
+      .toList();
+    assertThat(blocks).hasAtLeastOneElementOfType(LazySubCodeBlockContext.class);
+    assertThat(lazy.getAst().toStringTree()).isEqualTo(eager.getAst().toStringTree());
+    assertThat(lazy.getTokens()).map(Object::toString)
+      .isEqualTo(eager.getTokens().stream().map(Object::toString).toList());
+  }
+
+  @Test
+  void fullParseForUnclosedSub() {
+    // given
+    var content = """
+      Процедура Первая()
+        А = 1;
+
+      Процедура Вторая()
+        Б = 2;
+      КонецПроцедуры
+      """;
+
+    // when
+    var lazy = TokenizerPool.bsl(LAZY).parse(content);
+    var eager = TokenizerPool.bsl().parse(content);
+
+    // then
+    assertThat(lazy.ast().subs().sub())
+      .noneMatch(sub -> sub.procedure().subCodeBlock() instanceof LazySubCodeBlockContext);
+    assertThat(lazy.ast().toStringTree()).isEqualTo(eager.ast().toStringTree());
+  }
+
+  @Test
+  void bodiesAreNotCancelledAfterParse() {
+    // given
+    var cancellationToken = CancellationToken.create();
+    var options = TokenizerOptions.builder()
+      .lazySubCodeBlocks(true)
+      .cancellationToken(cancellationToken)
+      .build();
+    var subs = new BSLTokenizer(CONTENT, options).getAst().subs().sub();
+    var third = (LazySubCodeBlockContext) subs.get(2).function().subCodeBlock();
+    var cancelled = CancellationToken.create();
+    cancelled.cancel();
+
+    // when
+    cancellationToken.cancel();
+
+    // then
+    assertThatThrownBy(() -> third.parse(cancelled)).isInstanceOf(ParseCancelledException.class);
+    assertThat(third.isParsed()).isFalse();
+    assertThat(subs.get(0).procedure().subCodeBlock().codeBlock().statement()).hasSize(1);
+    assertThat(third.getText()).isEqualTo("ВозвратЖдатьПарам;");
+  }
+
+  @Test
+  void bodyErrorsReachListenersAndLog() {
+    // given
+    var content = """
+      Процедура Первая()
+        А = ;
+      КонецПроцедуры
+
+      Процедура Вторая()
+        Б = 1;
+      КонецПроцедуры
+      """;
+    var options = TokenizerOptions.builder()
+      .lazySubCodeBlocks(true)
+      .lightweightSyntaxErrors(true)
+      .build();
+    var listener = new CountingErrorListener();
+    var parser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString(content))));
+    parser.removeErrorListeners();
+    parser.addErrorListener(listener);
+
+    // when
+    var ast = ParserSupport.parse(parser, LazySubCodeBlocks.rootRule(options), options);
+    var log = SyntaxErrorLog.of(parser);
+    var errorsBeforeAccess = listener.count;
+    var block = ast.subs().sub().get(0).procedure().subCodeBlock();
+    block.getChildCount();
+
+    // then
+    assertThat(block).isInstanceOf(LazySubCodeBlockContext.class);
+    assertThat(errorsBeforeAccess).isZero();
+    assertThat(listener.count).isPositive();
+    assertThat(log).isNotNull().hasSize(listener.count);
+    assertThat(log.get(0).line()).isEqualTo(2);
+  }
+
+  @Test
+  void fullParseReportsErrorsOnce() {
+    // given
+    // метод после кода модуля: каркас не совпадает с найденными телами, модуль разбирается целиком
+    var content = """
+      Процедура Первая()
+      КонецПроцедуры
+
+      А = 1;
+
+      Процедура Вторая()
+        Б = 2;
+      КонецПроцедуры
+      """;
+    var lazy = new CountingErrorListener();
+    var eager = new CountingErrorListener();
+
+    // when
+    var lazyParser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString(content))));
+    lazyParser.removeErrorListeners();
+    lazyParser.addErrorListener(lazy);
+    ParserSupport.parse(lazyParser, LazySubCodeBlocks.rootRule(LAZY), LAZY);
+    var eagerParser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString(content))));
+    eagerParser.removeErrorListeners();
+    eagerParser.addErrorListener(eager);
+    ParserSupport.parse(eagerParser, BSLParser::file, TokenizerOptions.builder().build());
+
+    // then
+    assertThat(eager.count).isPositive();
+    assertThat(lazy.count).isEqualTo(eager.count);
+  }
+
+  @Test
+  void parallelBodyErrorsReachListeners() {
+    // given
+    var content = """
+      Процедура Первая()
+        А = ;
+      КонецПроцедуры
+
+      Процедура Вторая()
+        Б = ;
+      КонецПроцедуры
+      """;
+    var listener = new CountingErrorListener();
+    var parser = new BSLParser(new CommonTokenStream(new BSLLexer(CharStreams.fromString(content))));
+    parser.removeErrorListeners();
+    parser.addErrorListener(listener);
+
+    try (var executor = Executors.newFixedThreadPool(2)) {
+      var options = TokenizerOptions.builder()
+        .subCodeBlockExecutor(executor)
+        .lightweightSyntaxErrors(true)
+        .build();
+
+      // when
+      ParserSupport.parse(parser, LazySubCodeBlocks.rootRule(options), options);
+    }
+
+    // then
+    var log = SyntaxErrorLog.of(parser);
+    assertThat(listener.count).isGreaterThanOrEqualTo(2);
+    assertThat(log).isNotNull().hasSize(listener.count);
+    assertThat(log).map(SyntaxError::line).isSorted();
+  }
+
+  private static final class CountingErrorListener extends BaseErrorListener {
+
+    private int count;
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                            String msg, RecognitionException e) {
+      count++;
+    }
+  }
+}
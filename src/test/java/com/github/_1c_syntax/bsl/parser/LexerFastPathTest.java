@@ -0,0 +1,90 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LexerFastPathTest {
+
+  @Test
+  void bslTrivia() {
+    // given
+    var lexer = new BSLLexer(CharStreams.fromString("А = 1; // комментарий\r\n\t\fБ/В //\n//"));
+
+    // when
+    var tokens = lexer.getAllTokens();
+
+    // then
+    assertThat(tokens).extracting(Token::getType).containsExactly(
+      BSLLexer.IDENTIFIER, BSLLexer.WHITE_SPACE, BSLLexer.ASSIGN, BSLLexer.WHITE_SPACE, BSLLexer.DECIMAL,
+      BSLLexer.SEMICOLON, BSLLexer.WHITE_SPACE, BSLLexer.LINE_COMMENT, BSLLexer.WHITE_SPACE,
+      BSLLexer.IDENTIFIER, BSLLexer.QUOTIENT, BSLLexer.IDENTIFIER, BSLLexer.WHITE_SPACE, BSLLexer.LINE_COMMENT,
+      BSLLexer.WHITE_SPACE, BSLLexer.LINE_COMMENT);
+    assertThat(texts(tokens, BSLLexer.LINE_COMMENT)).containsExactly("// комментарий", "//", "//");
+    assertThat(tokens.get(9).getLine()).isEqualTo(2);
+    assertThat(tokens.get(9).getCharPositionInLine()).isEqualTo(2);
+    assertThat(tokens).filteredOn(token -> token.getType() == BSLLexer.WHITE_SPACE)
+      .allMatch(token -> token.getChannel() == Lexer.HIDDEN);
+  }
+
+  @Test
+  void bslTriviaInOtherModes() {
+    // given
+    var lexer = new BSLLexer(CharStreams.fromString("#Если Сервер // комментарий\n#КонецЕсли"));
+
+    // when
+    var tokens = lexer.getAllTokens();
+
+    // then
+    assertThat(tokens).extracting(Token::getType).containsExactly(
+      BSLLexer.HASH, BSLLexer.PREPROC_IF_KEYWORD, BSLLexer.WHITE_SPACE, BSLLexer.PREPROC_SERVER_SYMBOL,
+      BSLLexer.WHITE_SPACE, BSLLexer.LINE_COMMENT, BSLLexer.PREPROC_NEWLINE, BSLLexer.HASH,
+      BSLLexer.PREPROC_ENDIF_KEYWORD);
+  }
+
+  @Test
+  void sdblCommentIncludesLineBreak() {
+    // given
+    var lexer = new SDBLLexer(CharStreams.fromString("ВЫБРАТЬ // комментарий\r\n 1 //\n\n//"));
+
+    // when
+    var tokens = lexer.getAllTokens();
+
+    // then
+    assertThat(tokens).extracting(Token::getType).containsExactly(
+      SDBLLexer.SELECT, SDBLLexer.WHITE_SPACE, SDBLLexer.LINE_COMMENT, SDBLLexer.WHITE_SPACE, SDBLLexer.DECIMAL,
+      SDBLLexer.WHITE_SPACE, SDBLLexer.LINE_COMMENT, SDBLLexer.WHITE_SPACE, SDBLLexer.LINE_COMMENT);
+    assertThat(texts(tokens, SDBLLexer.LINE_COMMENT)).containsExactly("// комментарий\r", "//\n", "//");
+    assertThat(tokens.get(4).getLine()).isEqualTo(2);
+  }
+
+  private static List<String> texts(List<? extends Token> tokens, int type) {
+    return tokens.stream().filter(token -> token.getType() == type).map(Token::getText).toList();
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseMetricsAggregatorTest {
+
+  @Test
+  void percentiles() {
+    // given
+    var aggregator = new ParseMetricsAggregator();
+
+    // when
+    for (var i = 1; i <= 100; i++) {
+      aggregator.onParse(new ParseMetrics(Grammar.BSL_PARSER, "Module" + i + ".bsl", i * 10, i, 0, i * 1000L,
+        i % 10 == 0 ? 1 : 0, 0, 0, 0));
+    }
+
+    // then
+    assertThat(aggregator.getCount()).isEqualTo(100);
+    assertThat(aggregator.percentile(ParseMetrics::parsingNanos, 0.5)).isEqualTo(50_000);
+    assertThat(aggregator.percentile(ParseMetrics::parsingNanos, 0.99)).isEqualTo(99_000);
+    assertThat(aggregator.percentile(ParseMetrics::parsingNanos, 0)).isEqualTo(1_000);
+    assertThat(aggregator.percentile(ParseMetrics::parsingNanos, 1)).isEqualTo(100_000);
+    assertThat(aggregator.sum(ParseMetrics::fallbackCount)).isEqualTo(10);
+    assertThat(aggregator.top(ParseMetrics::tokenCount, 2))
+      .extracting(ParseMetrics::sourceName)
+      .containsExactly("Module100.bsl", "Module99.bsl");
+  }
+
+  @Test
+  void empty() {
+    // given
+    var aggregator = new ParseMetricsAggregator();
+    aggregator.onParse(new ParseMetrics(Grammar.SDBL_PARSER, "Query", 1, 1, 1, 1, 0, 0, 0, 0));
+
+    // when
+    aggregator.reset();
+
+    // then
+    assertThat(aggregator.getCount()).isZero();
+    assertThat(aggregator.percentile(ParseMetrics::parsingNanos, 0.9)).isZero();
+  }
+}
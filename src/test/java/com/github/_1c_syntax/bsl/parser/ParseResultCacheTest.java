@@ -0,0 +1,118 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.Trees;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseResultCacheTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void loadBslFromCache() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var expected = new ParseResultCache(directory).parseBsl(content);
+
+    // when
+    var cache = new ParseResultCache(directory);
+    var actual = cache.parseBsl(content);
+
+    // then
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isZero();
+    assertThat(actual.ast()).isNotSameAs(expected.ast());
+    assertThat(actual.ast().toStringTree()).isEqualTo(expected.ast().toStringTree());
+    assertThat(actual.ast().getText()).isEqualTo(expected.ast().getText());
+    assertThat(texts(actual.tokens())).isEqualTo(texts(expected.tokens()));
+    assertThat(actual.ast().subs().sub().getLast().getStop().getText())
+      .isEqualTo(expected.ast().subs().sub().getLast().getStop().getText());
+    assertThat(exceptions(actual.ast())).isEqualTo(exceptions(expected.ast())).isPositive();
+  }
+
+  @Test
+  void loadSdblLabels() {
+    // given
+    var content = """
+      ВЫБРАТЬ Т.Ссылка ПОМЕСТИТЬ ВТ ИЗ Справочник.Товары КАК Т;
+      УНИЧТОЖИТЬ ВТ""";
+    new ParseResultCache(directory).parseSdbl(content);
+
+    // when
+    var cache = new ParseResultCache(directory);
+    var actual = cache.parseSdbl(content);
+
+    // then
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    var queries = actual.ast().queries();
+    assertThat(queries.get(0).selectQuery().subquery().query().temporaryTableName.getText()).isEqualTo("ВТ");
+    var dropTable = queries.get(1).dropTableQuery();
+    assertThat(dropTable.temporaryTableName).isSameAs(dropTable.identifier());
+    assertThat(dropTable.DROP().getSymbol().getTokenIndex()).isEqualTo(dropTable.getStart().getTokenIndex());
+  }
+
+  @Test
+  void rewriteCorruptedEntry() throws IOException {
+    // given
+    var content = "А = 1;";
+    var cache = new ParseResultCache(directory);
+    cache.parseBsl(content);
+    try (var files = Files.walk(directory)) {
+      for (var file : files.filter(Files::isRegularFile).toList()) {
+        Files.write(file, new byte[]{1, 2, 3});
+      }
+    }
+
+    // when
+    var result = cache.parseBsl(content);
+    var reloaded = cache.parseBsl(content);
+
+    // then
+    assertThat(result.ast().getText()).isEqualTo("А=1;<EOF>");
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(reloaded.ast().getText()).isEqualTo("А=1;<EOF>");
+  }
+
+  private static List<String> texts(List<Token> tokens) {
+    return tokens.stream().map(Token::toString).toList();
+  }
+
+  private static long exceptions(BSLParser.FileContext ast) {
+    return Trees.getDescendants(ast).stream()
+      .filter(node -> node instanceof ParserRuleContext ctx && ctx.exception != null)
+      .count();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseResultMemoryCacheTest {
+
+  @Test
+  void shareIdenticalContent() {
+    // given
+    var cache = new ParseResultMemoryCache(1024 * 1024);
+    var content = "Процедура А()\n  Б = 1;\nКонецПроцедуры";
+
+    // when
+    var first = cache.parseBsl(content);
+    var second = cache.parseBsl(new String(content.toCharArray()));
+    var query = cache.parseSdbl(content);
+
+    // then
+    assertThat(second.ast()).isSameAs(first.ast());
+    assertThat(query.ast()).isInstanceOf(SDBLParser.QueryPackageContext.class);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getWeight()).isPositive();
+  }
+
+  @Test
+  void evictLeastRecentlyUsed() {
+    // given
+    var probe = new ParseResultMemoryCache(Long.MAX_VALUE);
+    probe.parseBsl("А = 1;");
+    var cache = new ParseResultMemoryCache(probe.getWeight() * 2);
+    var first = cache.parseBsl("А = 1;");
+    cache.parseBsl("Б = 1;");
+
+    // when
+    cache.parseBsl("А = 1;");
+    cache.parseBsl("В = 1;");
+
+    // then
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getWeight()).isLessThanOrEqualTo(probe.getWeight() * 2);
+    assertThat(cache.parseBsl("А = 1;").ast()).isSameAs(first.ast());
+    assertThat(cache.getMissCount()).isEqualTo(3);
+  }
+
+  @Test
+  void skipTooHeavyEntry() {
+    // given
+    var cache = new ParseResultMemoryCache(10);
+
+    // when
+    var first = cache.parseBsl("А = 1;");
+    var second = cache.parseBsl("А = 1;");
+
+    // then
+    assertThat(second.ast()).isNotSameAs(first.ast());
+    assertThat(cache.size()).isZero();
+    assertThat(cache.getEvictionCount()).isZero();
+  }
+}
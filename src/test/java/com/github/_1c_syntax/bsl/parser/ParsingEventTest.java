@@ -0,0 +1,106 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.description.reader.MethodDescriptionReader;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParsingEventTest {
+
+  private static final String LEXING = "com.github._1c_syntax.bsl.parser.Lexing";
+  private static final String PARSING = "com.github._1c_syntax.bsl.parser.Parsing";
+  private static final String DESCRIPTION = "com.github._1c_syntax.bsl.parser.MethodDescriptionReading";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void recordEvents() throws IOException {
+    // given
+    var content = """
+      // Описание.
+      //
+      // Параметры:
+      //   А - Число - параметр
+      Процедура Тест(А)
+        А = 1;
+      КонецПроцедуры""";
+    List<RecordedEvent> events;
+
+    // when
+    try (var recording = new Recording()) {
+      recording.enable(LEXING).withThreshold(Duration.ZERO);
+      recording.enable(PARSING).withThreshold(Duration.ZERO);
+      recording.enable(DESCRIPTION).withThreshold(Duration.ZERO);
+      recording.start();
+
+      var tokenizer = new BSLTokenizer(content);
+      tokenizer.getAst();
+      new SDBLTokenizer("ВЫБРАТЬ 1 ИЗ").getAst();
+      var comments = tokenizer.getTokens().stream()
+        .filter(token -> token.getType() == BSLLexer.LINE_COMMENT)
+        .toList();
+      MethodDescriptionReader.read(comments);
+
+      recording.stop();
+      var file = directory.resolve("recording.jfr");
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    }
+
+    // then
+    assertThat(events)
+      .filteredOn(event -> event.getEventType().getName().equals(LEXING))
+      .anySatisfy(event -> {
+        assertThat(event.getString("grammar")).isEqualTo("BSLLexer.g4");
+        assertThat(event.getInt("inputSize")).isEqualTo(content.length());
+        assertThat(event.getInt("tokenCount")).isPositive();
+      });
+    assertThat(events)
+      .filteredOn(event -> event.getEventType().getName().equals(PARSING))
+      .anySatisfy(event -> {
+        assertThat(event.getString("rule")).isEqualTo("file");
+        assertThat(event.getInt("inputSize")).isEqualTo(content.length());
+        assertThat(event.getString("outcome")).isEqualTo("SUCCESS");
+      })
+      .anySatisfy(event -> {
+        assertThat(event.getString("rule")).isEqualTo("queryPackage");
+        assertThat(event.getString("outcome")).isEqualTo("SYNTAX_ERRORS");
+        assertThat(event.getInt("syntaxErrors")).isPositive();
+      });
+    assertThat(events)
+      .filteredOn(event -> event.getEventType().getName().equals(DESCRIPTION))
+      .singleElement()
+      .satisfies(event -> assertThat(event.getString("outcome")).isEqualTo("SUCCESS"));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PredictionCacheTest {
+
+  @Test
+  void parseWithManagedCache() {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var cache = new PredictionCache();
+    var options = TokenizerOptions.builder().predictionCache(cache).build();
+
+    // when
+    var ast = new BSLTokenizer(content, options).getAst();
+
+    // then
+    assertThat(ast.toStringTree()).isEqualTo(new BSLTokenizer(content).getAst().toStringTree());
+    assertThat(cache.dfaStateCount()).isPositive();
+    assertThat(cache.statistics())
+      .filteredOn(statistics -> statistics.grammar() == Grammar.BSL_PARSER)
+      .singleElement()
+      .satisfies(statistics -> {
+        assertThat(statistics.dfaStates()).isPositive();
+        assertThat(statistics.predictionContexts()).isPositive();
+        assertThat(statistics.estimatedBytes()).isPositive();
+      });
+    assertThat(cache.statistics())
+      .filteredOn(statistics -> statistics.grammar() == Grammar.SDBL_PARSER)
+      .singleElement()
+      .satisfies(statistics -> assertThat(statistics.dfaStates()).isZero());
+  }
+
+  @Test
+  void resetOnThreshold() {
+    // given
+    var cache = new PredictionCache(PredictionCachePolicy.builder()
+      .maxDfaStates(10)
+      .checkInterval(1)
+      .build());
+    var options = TokenizerOptions.builder().predictionCache(cache).build();
+    var pool = TokenizerPool.bsl(options);
+
+    // when
+    pool.parse("Процедура Тест() Если А Тогда Б = 1; КонецЕсли; КонецПроцедуры");
+    pool.parse("Процедура Тест() Если А Тогда Б = 1; КонецЕсли; КонецПроцедуры");
+
+    // then
+    assertThat(cache.getResetCount()).isPositive();
+    assertThat(pool.parse("А = 1;").ast().fileCodeBlock()).isNotNull();
+  }
+
+  @Test
+  void resetPeriodically() {
+    // given
+    var cache = new PredictionCache(PredictionCachePolicy.builder()
+      .resetInterval(Duration.ZERO)
+      .build());
+    var options = TokenizerOptions.builder().predictionCache(cache).build();
+
+    // when
+    new SDBLTokenizer("ВЫБРАТЬ 1", options).getAst();
+
+    // then
+    assertThat(cache.getResetCount()).isEqualTo(2);
+  }
+
+  @Test
+  void sharedCacheStatistics() {
+    // given
+    new BSLTokenizer("А = 1;").getAst();
+
+    // when
+    var statistics = Grammar.BSL_PARSER.statistics();
+
+    // then
+    assertThat(statistics.grammar()).isEqualTo(Grammar.BSL_PARSER);
+    assertThat(statistics.dfaStates()).isEqualTo(Grammar.BSL_PARSER.dfaStateCount()).isPositive();
+    assertThat(statistics.estimatedBytes()).isPositive();
+  }
+}
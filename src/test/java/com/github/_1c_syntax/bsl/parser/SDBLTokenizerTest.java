@@ -63,4 +63,35 @@ class SDBLTokenizerTest {
     assertThat(query.getStart().getType()).isEqualTo(SDBLParser.SELECT);
     assertThat(query.getStop().getType()).isEqualTo(SDBLParser.IDENTIFIER);
   }
+
+  @Test
+  void computeASTWithSLLThenLL() {
+    // given
+    var options = TokenizerOptions.builder()
+      .predictionStrategy(PredictionStrategy.SLL_THEN_LL)
+      .build();
+    var content = "Выбрать Ссылка Из Справочник.Контрагенты";
+
+    // when
+    var ast = new SDBLTokenizer(content, options).getAst();
+
+    // then
+    assertThat(ast.toStringTree()).isEqualTo(new SDBLTokenizer(content).getAst().toStringTree());
+    assertThat(options.getPredictionStatistics().getParseCount()).isEqualTo(1);
+    assertThat(options.getPredictionStatistics().getFallbackCount()).isZero();
+  }
+
+  @Test
+  void streamTokens() {
+    // given
+    var content = "Выбрать Ссылка Из Справочник.Контрагенты";
+
+    // when
+    var tokens = SDBLTokenizer.tokens(content).toList();
+
+    // then
+    var expected = new SDBLTokenizer(content).getTokens();
+    assertThat(tokens).map(Token::toString)
+      .containsExactlyElementsOf(expected.subList(0, 9).stream().map(Token::toString).toList());
+  }
 }
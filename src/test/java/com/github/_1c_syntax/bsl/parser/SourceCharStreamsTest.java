@@ -0,0 +1,168 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import com.github._1c_syntax.bsl.parser.testing.ResourceUtils;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceCharStreamsTest {
+
+  private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  @Test
+  void fromMappedFileWithBOM(@TempDir Path dir) throws IOException {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var path = dir.resolve("Module.bsl");
+    Files.write(path, concat(UTF8_BOM, content.getBytes(StandardCharsets.UTF_8)));
+
+    // when
+    var input = SourceCharStreams.map(path);
+
+    // then
+    assertThat(input).isInstanceOf(Utf8CharStream.class);
+    assertThat(input.getSourceName()).isEqualTo(path.toString());
+    assertThat(tokens(input)).isEqualTo(tokens(CharStreams.fromString(content)));
+  }
+
+  @Test
+  void fromFileIsDetachedFromFile(@TempDir Path dir) throws IOException {
+    // given
+    var content = ResourceUtils.byName("Module.bsl");
+    var path = dir.resolve("Module.bsl");
+    Files.write(path, concat(UTF8_BOM, content.getBytes(StandardCharsets.UTF_8)));
+
+    // when
+    var input = SourceCharStreams.fromPath(path);
+    Files.write(path, new byte[0]);
+
+    // then
+    assertThat(input).isInstanceOf(Utf8CharStream.class);
+    assertThat(tokens(input)).isEqualTo(tokens(CharStreams.fromString(content)));
+  }
+
+  @Test
+  void fromBytesWithSupplementaryCharacters() {
+    // given
+    var content = "Сообщить(\"Привет, 🌍!\"); // комментарий 𝄞\nА = 1;";
+
+    // when
+    var input = SourceCharStreams.fromBytes(concat(UTF8_BOM, content.getBytes(StandardCharsets.UTF_8)));
+
+    // then
+    var expected = CharStreams.fromString(content);
+    assertThat(input.size()).isEqualTo(expected.size());
+    assertThat(tokens(input)).isEqualTo(tokens(CharStreams.fromString(content)));
+    assertThat(input.getText(Interval.of(10, 20))).isEqualTo(expected.getText(Interval.of(10, 20)));
+  }
+
+  @Test
+  void randomAccess() {
+    // given
+    var content = "Ж".repeat(200) + "🌍" + "z".repeat(100);
+    var input = SourceCharStreams.fromBuffer(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), "test");
+    var expected = CharStreams.fromString(content);
+
+    // when
+    input.seek(250);
+    expected.seek(250);
+
+    // then
+    assertThat(input.LA(1)).isEqualTo(expected.LA(1));
+    assertThat(input.LA(-50)).isEqualTo(expected.LA(-50));
+    assertThat(input.LA(-200)).isEqualTo(expected.LA(-200));
+    input.seek(10);
+    expected.seek(10);
+    assertThat(input.LA(191)).isEqualTo(expected.LA(191)).isEqualTo("🌍".codePointAt(0));
+    assertThat(input.LA(1000)).isEqualTo(IntStream.EOF);
+    assertThat(input.getText(Interval.of(195, 205))).isEqualTo(expected.getText(Interval.of(195, 205)));
+  }
+
+  @Test
+  void fromUtf16WithBOM() {
+    // given
+    var content = "Процедура Тест() КонецПроцедуры";
+    var bytes = concat(new byte[]{(byte) 0xFF, (byte) 0xFE}, content.getBytes(StandardCharsets.UTF_16LE));
+
+    // when
+    var input = SourceCharStreams.fromBytes(bytes);
+
+    // then
+    assertThat(tokens(input)).isEqualTo(tokens(CharStreams.fromString(content)));
+  }
+
+  @Test
+  void malformedBytes() {
+    // given
+    var bytes = new byte[]{'A', (byte) 0xD0, ' ', (byte) 0xD0, (byte) 0x96};
+
+    // when
+    var input = SourceCharStreams.fromBytes(bytes);
+
+    // then
+    assertThat(input.size()).isEqualTo(4);
+    assertThat(input.getText(Interval.of(0, 3))).isEqualTo("A� Ж");
+  }
+
+  @Test
+  void parseFromPool(@TempDir Path dir) throws IOException {
+    // given
+    var path = dir.resolve("Module.bsl");
+    Files.write(path, concat(UTF8_BOM, "Процедура Тест()\n  А = 1;\nКонецПроцедуры".getBytes(StandardCharsets.UTF_8)));
+
+    // when
+    var result = TokenizerPool.bsl().parse(SourceCharStreams.fromPath(path));
+
+    // then
+    assertThat(result.ast().subs().sub()).hasSize(1);
+    assertThat(result.tokens().getFirst().getStartIndex()).isZero();
+  }
+
+  private static List<String> tokens(CharStream input) {
+    var tokenStream = new CommonTokenStream(new BSLLexer(input));
+    tokenStream.fill();
+    return tokenStream.getTokens().stream().map(Token::toString).toList();
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    var result = new byte[first.length + second.length];
+    System.arraycopy(first, 0, result, 0, first.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntaxErrorLogTest {
+
+  private static final String CONTENT = """
+    Процедура А()
+      Б = ;
+      В = Г(1, ;
+      Если Тогда
+      КонецЕсли;
+      Д = Новый Массив(;
+      Пока Истина Цикл
+        Е = 1 2;
+      КонецЦикла;
+    КонецПроцедуры
+
+    Функция Ж(З
+      Возврат 1;
+    КонецФункции
+    """;
+
+  @Test
+  void sameErrorsAndTreeAsDefaultStrategy() {
+    // given
+    var expected = new ArrayList<String>();
+    var reference = parser(CONTENT);
+    reference.addErrorListener(new BaseErrorListener() {
+      @Override
+      public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                              int charPositionInLine, String msg, RecognitionException e) {
+        expected.add(line + ":" + charPositionInLine + " " + msg);
+      }
+    });
+    var referenceTree = reference.file();
+    var parser = parser(CONTENT);
+
+    // when
+    var log = SyntaxErrorLog.install(parser);
+    var tree = parser.file();
+
+    // then
+    assertThat(expected).hasSizeGreaterThan(3);
+    assertThat(log)
+      .extracting(error -> error.line() + ":" + error.column() + " " + error.message())
+      .containsExactlyElementsOf(expected);
+    assertThat(log.size()).isEqualTo(parser.getNumberOfSyntaxErrors());
+    assertThat(SyntaxErrorLog.of(parser)).isSameAs(log);
+    assertThat(SyntaxErrorLog.of(reference)).isNull();
+    assertThat(tree.toStringTree(parser)).isEqualTo(referenceTree.toStringTree(reference));
+
+    var exceptions = new ArrayList<RecognitionException>();
+    collectExceptions(tree, exceptions);
+    assertThat(exceptions)
+      .isNotEmpty()
+      .anyMatch(exception -> exception.getStackTrace().length == 0);
+  }
+
+  @Test
+  void compactErrorData() {
+    // given
+    var parser = parser("А = ;");
+    var log = SyntaxErrorLog.install(parser);
+
+    // when
+    parser.file();
+
+    // then
+    assertThat(log).hasSize(1);
+    assertThat(log.line(0)).isEqualTo(1);
+    assertThat(log.column(0)).isEqualTo(4);
+    assertThat(log.startOffset(0)).isEqualTo(4);
+    assertThat(log.tokenType(0)).isEqualTo(BSLLexer.SEMICOLON);
+    assertThat(log.tokenIndex(0)).isEqualTo(4);
+    assertThat(log.get(0).message()).isEqualTo(log.message(0));
+  }
+
+  @Test
+  void snapshotKeepsErrorsAfterLogIsCleared() {
+    // given
+    var parser = parser(CONTENT);
+    var log = SyntaxErrorLog.install(parser);
+    parser.file();
+    var expected = List.copyOf(log);
+
+    // when
+    var snapshot = log.snapshot();
+    log.clear();
+
+    // then
+    assertThat(expected).hasSizeGreaterThan(3);
+    assertThat(snapshot).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void lightweightErrorsOption() {
+    // given
+    var options = TokenizerOptions.builder().lightweightSyntaxErrors(true).build();
+
+    // when
+    var ast = new BSLTokenizer(CONTENT, options).getAst();
+
+    // then
+    assertThat(ast.toStringTree()).isEqualTo(new BSLTokenizer(CONTENT).getAst().toStringTree());
+  }
+
+  private static BSLParser parser(String content) {
+    var lexer = new BSLLexer(CharStreams.fromString(content));
+    var parser = new BSLParser(new CommonTokenStream(lexer));
+    parser.removeErrorListeners();
+    return parser;
+  }
+
+  private static void collectExceptions(ParseTree tree, List<RecognitionException> exceptions) {
+    if (tree instanceof ParserRuleContext ctx) {
+      if (ctx.exception != null) {
+        exceptions.add(ctx.exception);
+      }
+      for (var i = 0; i < ctx.getChildCount(); i++) {
+        collectExceptions(ctx.getChild(i), exceptions);
+      }
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is a part of BSL Parser.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>, Sergey Batanov <sergey.batanov@dmpas.ru>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * BSL Parser is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * BSL Parser is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with BSL Parser.
+ */
+package com.github._1c_syntax.bsl.parser;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class TokenizerPoolTest {
+
+  @Test
+  void parseBSL() {
+    // given
+    var pool = TokenizerPool.bsl();
+    var content = "Если Условие() Тогда КонецЕсли";
+
+    // when
+    var result = pool.parse(content);
+
+    // then
+    var tokenizer = new BSLTokenizer(content);
+    assertThat(result.tokens()).hasSize(10);
+    assertThat(result.tokens().get(9).getType()).isEqualTo(Lexer.EOF);
+    assertThat(result.tokens().get(9).getChannel()).isEqualTo(Lexer.HIDDEN);
+    assertThat(result.tokens())
+      .extracting(Token::getText)
+      .containsExactlyElementsOf(tokenizer.getTokens().stream().map(Token::getText).toList());
+    assertThat(result.ast().toStringTree()).isEqualTo(tokenizer.getAst().toStringTree());
+  }
+
+  @Test
+  void parseWithBOM() {
+    // given
+    var pool = TokenizerPool.bsl();
+    var content = "\uFEFFПроцедура Тест()\n  А = 1;\nКонецПроцедуры";
+
+    // when
+    var result = pool.parse(content);
+    var tokens = pool.tokenize(content);
+
+    // then
+    var tokenizer = new BSLTokenizer(content);
+    var expected = tokenizer.getTokens().stream().map(Token::toString).toList();
+    assertThat(result.tokens()).map(Token::toString).containsExactlyElementsOf(expected);
+    assertThat(tokens).map(Token::toString).containsExactlyElementsOf(expected);
+    assertThat(result.ast().toStringTree()).isEqualTo(tokenizer.getAst().toStringTree());
+  }
+
+  @Test
+  void parseSDBL() {
+    // given
+    var pool = TokenizerPool.sdbl();
+    var content = "Выбрать Ссылка Из Справочник.Контрагенты";
+
+    // when
+    var result = pool.parse(content);
+
+    // then
+    assertThat(result.tokens()).hasSize(10);
+    assertThat(result.ast().toStringTree()).isEqualTo(new SDBLTokenizer(content).getAst().toStringTree());
+  }
+
+  @Test
+  void reuseInstances() {
+    // given
+    var pool = TokenizerPool.bsl();
+
+    // when
+    var first = pool.parse("А = 1;");
+    var second = pool.parse("Б = \"строка\";");
+    var tokens = pool.tokenize("#Область Имя");
+
+    // then
+    assertThat(pool.idleCount()).isEqualTo(1);
+    assertThat(first.ast().getText()).isEqualTo("А=1;<EOF>");
+    assertThat(second.ast().getText()).isEqualTo("Б=\"строка\";<EOF>");
+    assertThat(tokens)
+      .extracting(Token::getType)
+      .containsExactly(BSLLexer.HASH, BSLLexer.PREPROC_REGION, BSLLexer.WHITE_SPACE,
+        BSLLexer.PREPROC_IDENTIFIER, BSLLexer.EOF);
+  }
+
+  @Test
+  void releaseInstanceOnCancellation() {
+    // given
+    var cancellationToken = CancellationToken.create();
+    cancellationToken.cancel();
+    var pool = TokenizerPool.bsl(TokenizerOptions.builder().cancellationToken(cancellationToken).build());
+
+    // when
+    var thrown = catchThrowable(() -> pool.parse("А = 1;"));
+
+    // then
+    assertThat(thrown).isInstanceOf(ParseCancelledException.class);
+    assertThat(pool.idleCount()).isEqualTo(1);
+  }
+
+  @Test
+  void cancelSingleParse() {
+    // given
+    var pool = TokenizerPool.bsl();
+    var cancellationToken = CancellationToken.create();
+    cancellationToken.cancel();
+
+    // when
+    var thrown = catchThrowable(() -> pool.parse(CharStreams.fromString("А = 1;"), cancellationToken));
+    var result = pool.parse(CharStreams.fromString("А = 1;"));
+
+    // then
+    assertThat(thrown).isInstanceOf(ParseCancelledException.class);
+    assertThat(result.ast().getText()).isEqualTo("А=1;<EOF>");
+  }
+
+  @Test
+  void parseFromVirtualThreads() throws Exception {
+    // given
+    var pool = TokenizerPool.bsl();
+    var futures = new ArrayList<Future<String>>();
+
+    // when
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < 200; i++) {
+        var content = "Процедура П" + i + "() КонецПроцедуры";
+        futures.add(executor.submit(() -> pool.parse(content).ast().getText()));
+      }
+    }
+
+    // then
+    for (var i = 0; i < futures.size(); i++) {
+      assertThat(futures.get(i).get()).isEqualTo("ПроцедураП" + i + "()КонецПроцедуры<EOF>");
+    }
+    assertThat(pool.idleCount()).isPositive();
+  }
+}